@@ -0,0 +1,146 @@
+package app.battleship.bench;
+
+import app.battleship.config.AppConfig;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.Board;
+import app.battleship.model.Coord;
+import app.battleship.model.GameState;
+import app.battleship.model.GameVariant;
+import app.battleship.model.Ship;
+import app.battleship.service.GameVariantService;
+import app.battleship.service.ShipPlacementService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic games and wiring shared by the benchmarks.
+ */
+public final class GameFixtures {
+    
+    public static final String FIRST_PLAYER = "player-1";
+    public static final String SECOND_PLAYER = "player-2";
+    
+    private static final PrintStream CONSOLE = System.out;
+    
+    private GameFixtures() {
+    }
+    
+    /**
+     * Defaults, with the game variants bound from the backend's application.yml so that every
+     * variant the application ships (classic, large, ...) can be benchmarked.
+     */
+    public static BattleshipProperties properties() {
+        BattleshipProperties properties = new BattleshipProperties();
+        try {
+            MutablePropertySources sources = new MutablePropertySources();
+            new YamlPropertySourceLoader().load("application.yml", new ClassPathResource("application.yml"))
+                    .forEach(sources::addLast);
+            new Binder(ConfigurationPropertySources.from(sources), new PropertySourcesPlaceholdersResolver(sources))
+                    .bind("variants", Bindable.ofInstance(properties.getVariants()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load application.yml", e);
+        }
+        return properties;
+    }
+    
+    public static ObjectMapper objectMapper() {
+        return new AppConfig().objectMapper();
+    }
+    
+    public static GameVariant variant(BattleshipProperties properties, String name) {
+        return new GameVariantService(properties).resolve(name);
+    }
+    
+    public static ShipPlacementService placementService(BattleshipProperties properties) {
+        return new ShipPlacementService(properties, new GameVariantService(properties));
+    }
+    
+    /**
+     * A game in the battle phase with both fleets placed and {@code attacksEach} shots already
+     * recorded for each player, as the state looks midway through a match.
+     */
+    public static GameState battleState(String gameId, GameVariant variant, ShipPlacementService placement,
+                                        int attacksEach, long seed) {
+        GameState state = new GameState(gameId, "room-" + gameId, FIRST_PLAYER, SECOND_PLAYER);
+        state.setVariant(variant.name());
+        state.setBoardSize(variant.boardSize());
+        state.setFleet(new ArrayList<>(variant.fleet()));
+        state.getPlayers().get(FIRST_PLAYER).getBoard().setShips(placement.placeShipsRandomly(variant));
+        state.getPlayers().get(SECOND_PLAYER).getBoard().setShips(placement.placeShipsRandomly(variant));
+        
+        Random random = new Random(seed);
+        recordAttacks(state, FIRST_PLAYER, SECOND_PLAYER, attacksEach, random);
+        recordAttacks(state, SECOND_PLAYER, FIRST_PLAYER, attacksEach, random);
+        return state;
+    }
+    
+    public static Coord shipCell(GameState state, String playerId) {
+        return state.getPlayers().get(playerId).getBoard().getShips().get(0).getCells().get(0);
+    }
+    
+    public static Coord emptyCell(GameState state, String playerId) {
+        Board board = state.getPlayers().get(playerId).getBoard();
+        for (int r = 0; r < state.getBoardSize(); r++) {
+            for (int c = 0; c < state.getBoardSize(); c++) {
+                Coord coord = new Coord(r, c);
+                if (board.getShips().stream().noneMatch(ship -> ship.getCells().contains(coord))) {
+                    return coord;
+                }
+            }
+        }
+        throw new IllegalStateException("Board is full");
+    }
+    
+    /**
+     * The game code logs to stdout on every action; benchmarks keep the formatting cost but drop the output.
+     */
+    public static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+    
+    public static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+    
+    private static void recordAttacks(GameState state, String attackerId, String defenderId, int count, Random random) {
+        Board attacker = state.getPlayers().get(attackerId).getBoard();
+        Board defender = state.getPlayers().get(defenderId).getBoard();
+        
+        List<Coord> cells = new ArrayList<>();
+        for (int r = 0; r < state.getBoardSize(); r++) {
+            for (int c = 0; c < state.getBoardSize(); c++) {
+                cells.add(new Coord(r, c));
+            }
+        }
+        Collections.shuffle(cells, random);
+        
+        for (Coord target : cells.subList(0, Math.min(count, cells.size()))) {
+            Ship ship = defender.getShips().stream()
+                    .filter(s -> s.getCells().contains(target))
+                    .findFirst()
+                    .orElse(null);
+            if (ship != null) {
+                ship.getHitIndices().add(ship.getCells().indexOf(target));
+                defender.getHits().add(target);
+                attacker.getAttacksByMeHits().add(target);
+            } else {
+                attacker.getAttacksByMeMisses().add(target);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package app.battleship.bench;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round-trips of GameState with the application's ObjectMapper: every action reads and
+ * writes the whole state as JSON, so this bounds the per-action serialization cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameStateJsonBenchmark {
+    
+    @Param({"classic", "large"})
+    public String variant;
+    
+    @Param({"0", "40"})
+    public int attacksEach;
+    
+    private ObjectMapper objectMapper;
+    private GameState state;
+    private String json;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BattleshipProperties properties = GameFixtures.properties();
+        objectMapper = GameFixtures.objectMapper();
+        state = GameFixtures.battleState("bench-json", GameFixtures.variant(properties, variant),
+                GameFixtures.placementService(properties), attacksEach, 3);
+        json = objectMapper.writeValueAsString(state);
+    }
+    
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(state);
+    }
+    
+    @Benchmark
+    public GameState deserialize() throws Exception {
+        return objectMapper.readValue(json, GameState.class);
+    }
+    
+    @Benchmark
+    public GameState roundTrip() throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsString(state), GameState.class);
+    }
+}
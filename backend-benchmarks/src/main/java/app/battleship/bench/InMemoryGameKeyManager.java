@@ -0,0 +1,78 @@
+package app.battleship.bench;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.service.GameKeyManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * GameKeyManager backed by a map instead of Redis, so that benchmarks measure the game code
+ * and serialization rather than the network. Writes report no snapshot debt, which keeps the
+ * snapshot policy (and its Mongo writes) out of the measured path.
+ */
+public class InMemoryGameKeyManager extends GameKeyManager {
+    
+    private final Map<String, VersionedState> states = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> eventSeqs = new ConcurrentHashMap<>();
+    
+    public InMemoryGameKeyManager(BattleshipProperties properties) {
+        super(new StringRedisTemplate(), properties, new SimpleMeterRegistry());
+    }
+    
+    /**
+     * Store an initial state without going through compareAndSetState (whose first revision would be snapshotted).
+     */
+    public void seed(String gameId, String json) {
+        states.put(gameId, new VersionedState(json, 1));
+    }
+    
+    @Override
+    public VersionedState readState(String gameId) {
+        return states.getOrDefault(gameId, new VersionedState(null, 0));
+    }
+    
+    @Override
+    public long readRevision(String gameId) {
+        return readState(gameId).revision();
+    }
+    
+    // GameService writes through the overload that also seeds eventSeq; the 3-arg one delegates here
+    @Override
+    public StateWrite compareAndSetState(String gameId, long expectedRevision, String json, long persistedEventSeq) {
+        VersionedState current = readState(gameId);
+        if (current.revision() != expectedRevision) {
+            return null;
+        }
+        VersionedState written = new VersionedState(json, expectedRevision + 1);
+        boolean replaced = current.json() == null
+                ? states.putIfAbsent(gameId, written) == null
+                : states.replace(gameId, current, written);
+        return replaced ? new StateWrite(written.revision(), 0, 0) : null;
+    }
+    
+    @Override
+    public void resetSnapshotAccounting(String gameId) {
+    }
+    
+    @Override
+    public long nextEventSeq(String gameId, LongSupplier persistedEventSeq) {
+        return eventSeqs.computeIfAbsent(gameId, id -> new AtomicLong()).incrementAndGet();
+    }
+    
+    @Override
+    public long currentEventSeq(String gameId) {
+        AtomicLong seq = eventSeqs.get(gameId);
+        return seq != null ? seq.get() : 0;
+    }
+    
+    @Override
+    public void delete(String gameId) {
+        states.remove(gameId);
+        eventSeqs.remove(gameId);
+    }
+}
@@ -0,0 +1,53 @@
+package app.battleship.service;
+
+import app.battleship.bench.GameFixtures;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameState;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The local suggestion heuristic used when no OpenAI key is configured, across game progress.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AiHeuristicBenchmark {
+    
+    @Param({"classic", "large"})
+    public String variant;
+    
+    @Param({"5", "40"})
+    public int attacksEach;
+    
+    private AiSuggestionService suggestionService;
+    private GameState state;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        BattleshipProperties properties = GameFixtures.properties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ActionLatencySlo slo = new ActionLatencySlo(properties, meterRegistry);
+        suggestionService = new AiSuggestionService(WebClient.builder(), GameFixtures.objectMapper(), null, null,
+                new GameMetrics(meterRegistry, ObservationRegistry.NOOP, Tracer.NOOP, Propagator.NOOP, slo), slo);
+        state = GameFixtures.battleState("bench-ai", GameFixtures.variant(properties, variant),
+                GameFixtures.placementService(properties), attacksEach, 11);
+    }
+    
+    @Benchmark
+    public Map<String, Object> generateLocalHeuristic() {
+        return suggestionService.generateLocalHeuristic(state, GameFixtures.FIRST_PLAYER);
+    }
+}
@@ -0,0 +1,134 @@
+package app.battleship.service;
+
+import app.battleship.bench.GameFixtures;
+import app.battleship.bench.InMemoryGameKeyManager;
+import app.battleship.cluster.ClusterMembership;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.AttackRequest;
+import app.battleship.model.Board;
+import app.battleship.model.Coord;
+import app.battleship.model.GameState;
+import app.battleship.model.GameVariant;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * processAttack end to end over an in-memory store (load, validate, apply, pass the turn,
+ * serialize, write), plus the hit test and hit marking it is built from. Each thread plays its
+ * own game, the two players taking turns to attack the same cell of each other's board over and
+ * over: re-attacks are allowed and leave the boards unchanged, so every invocation does the same work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameServiceBenchmark {
+    
+    private static final AtomicInteger GAMES = new AtomicInteger();
+    
+    @Param({"classic", "large"})
+    public String variant;
+    
+    @Param({"20"})
+    public int attacksEach;
+    
+    private GameService gameService;
+    private String gameId;
+    private Board defenderBoard;
+    private Coord hitCell;
+    private Coord missCell;
+    private final String[] attackers = {GameFixtures.FIRST_PLAYER, GameFixtures.SECOND_PLAYER};
+    private final Coord[] hitCells = new Coord[2];
+    private final Coord[] missCells = new Coord[2];
+    private int turn;
+    private int attacker;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        GameFixtures.silenceConsole();
+        
+        BattleshipProperties properties = GameFixtures.properties();
+        ObjectMapper objectMapper = GameFixtures.objectMapper();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryGameKeyManager keys = new InMemoryGameKeyManager(properties);
+        ClusterMembership membership = new ClusterMembership(new StringRedisTemplate(), event -> { },
+                properties, meterRegistry);
+        GameStateCache stateCache = new GameStateCache(membership, properties, meterRegistry);
+        ShipPlacementService placement = GameFixtures.placementService(properties);
+        ActionLatencySlo slo = new ActionLatencySlo(properties, meterRegistry);
+        
+        // Nobody spectates, so the spectator feed never needs the broker
+        SpectatorService spectators = new SpectatorService(new ViewShapingService(), null, null, null,
+                properties, meterRegistry, false);
+        
+        // Repositories, event log and scheduler are only touched when a game ends or on a miss in Redis
+        gameService = new GameService(keys, stateCache, null, null,
+                new SnapshotService(null, keys, properties, meterRegistry, slo), spectators, null, placement, objectMapper,
+                null, null, properties, event -> { }, new GameMetrics(meterRegistry, ObservationRegistry.NOOP, Tracer.NOOP, Propagator.NOOP, slo));
+        
+        GameVariant gameVariant = GameFixtures.variant(properties, variant);
+        gameId = "bench-" + GAMES.incrementAndGet();
+        GameState state = GameFixtures.battleState(gameId, gameVariant, placement, attacksEach, 42);
+        keys.seed(gameId, objectMapper.writeValueAsString(state));
+        
+        defenderBoard = state.getPlayers().get(GameFixtures.SECOND_PLAYER).getBoard();
+        hitCell = GameFixtures.shipCell(state, GameFixtures.SECOND_PLAYER);
+        missCell = GameFixtures.emptyCell(state, GameFixtures.SECOND_PLAYER);
+        hitCells[0] = hitCell;
+        missCells[0] = missCell;
+        hitCells[1] = GameFixtures.shipCell(state, GameFixtures.FIRST_PLAYER);
+        missCells[1] = GameFixtures.emptyCell(state, GameFixtures.FIRST_PLAYER);
+        turn = state.getTurn();
+        attacker = 0;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        GameFixtures.restoreConsole();
+    }
+    
+    @Benchmark
+    public GameService.ActionResult processAttackHit() {
+        return attack(hitCells);
+    }
+    
+    @Benchmark
+    public GameService.ActionResult processAttackMiss() {
+        return attack(missCells);
+    }
+    
+    private GameService.ActionResult attack(Coord[] targets) {
+        AttackRequest request = new AttackRequest("bench-" + turn, turn, "ATTACK", targets[attacker]);
+        GameService.ActionResult outcome = gameService.processAttack(gameId, attackers[attacker], request);
+        turn++;
+        attacker ^= 1;
+        return outcome;
+    }
+    
+    @Benchmark
+    public boolean checkHit() {
+        return gameService.checkHit(defenderBoard, hitCell);
+    }
+    
+    @Benchmark
+    public boolean checkMiss() {
+        return gameService.checkHit(defenderBoard, missCell);
+    }
+    
+    @Benchmark
+    public Object markShipHit() {
+        return gameService.markShipHit(defenderBoard, hitCell);
+    }
+}
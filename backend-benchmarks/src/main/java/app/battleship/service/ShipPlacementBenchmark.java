@@ -0,0 +1,58 @@
+package app.battleship.service;
+
+import app.battleship.bench.GameFixtures;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.engine.BoardEngine;
+import app.battleship.engine.BoardEngines;
+import app.battleship.model.FleetLayout;
+import app.battleship.model.GameVariant;
+import app.battleship.model.Ship;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random fleets: placeShipsRandomly as games start (pool draws, falling back to inline
+ * generation once the pool drains faster than its refill threads keep up) and the bare
+ * generator the pool runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShipPlacementBenchmark {
+    
+    @Param({"classic", "large"})
+    public String variant;
+    
+    private ShipPlacementService placementService;
+    private GameVariant gameVariant;
+    private BoardEngine engine;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        BattleshipProperties properties = GameFixtures.properties();
+        placementService = GameFixtures.placementService(properties);
+        gameVariant = GameFixtures.variant(properties, variant);
+        engine = BoardEngines.forSize(gameVariant.boardSize());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        placementService.shutdown();
+    }
+    
+    @Benchmark
+    public List<Ship> placeShipsRandomly() {
+        return placementService.placeShipsRandomly(gameVariant);
+    }
+    
+    @Benchmark
+    public FleetLayout generateLayout() {
+        return engine.randomLayout(gameVariant.fleet(), ThreadLocalRandom.current());
+    }
+}
@@ -0,0 +1,43 @@
+package app.battleship.service;
+
+import app.battleship.bench.GameFixtures;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-player view built for every state response and broadcast, on fresh and late-game boards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViewShapingBenchmark {
+    
+    @Param({"classic", "large"})
+    public String variant;
+    
+    @Param({"0", "40"})
+    public int attacksEach;
+    
+    private ViewShapingService viewShapingService;
+    private GameState state;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        BattleshipProperties properties = GameFixtures.properties();
+        viewShapingService = new ViewShapingService();
+        state = GameFixtures.battleState("bench-view", GameFixtures.variant(properties, variant),
+                GameFixtures.placementService(properties), attacksEach, 7);
+    }
+    
+    @Benchmark
+    public Map<String, Object> createPlayerView() {
+        return viewShapingService.createPlayerView(state, GameFixtures.FIRST_PLAYER);
+    }
+}
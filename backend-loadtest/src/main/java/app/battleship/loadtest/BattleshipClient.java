@@ -0,0 +1,199 @@
+package app.battleship.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * One bot's connection to the backend: the REST calls it makes with its jwt cookie, timed
+ * into LoadMetrics under the given names, and its STOMP session. Calls return the response
+ * body, or null after recording a rejected (4xx/5xx) call as an error.
+ */
+final class BattleshipClient {
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> BODY = new TypeReference<>() {};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    static final String TRACEPARENT = "traceparent";
+    
+    private final HttpClient http;
+    private final WebSocketStompClient stomp;
+    private final URI base;
+    private final LoadMetrics metrics;
+    private String cookie;
+    private String userId;
+    private StompSession session;
+    
+    BattleshipClient(HttpClient http, WebSocketStompClient stomp, URI base, LoadMetrics metrics) {
+        this.http = http;
+        this.stomp = stomp;
+        this.base = base;
+        this.metrics = metrics;
+    }
+    
+    String getUserId() {
+        return userId;
+    }
+    
+    /**
+     * Register a fresh account, log in with it and open the STOMP session.
+     */
+    void signIn(String email, String password) throws Exception {
+        Map<String, String> credentials = Map.of("email", email, "password", password);
+        if (send("auth.register", post("/auth/register", credentials)) == null) {
+            throw new IllegalStateException("Registration failed for " + email);
+        }
+        
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(post("/auth/login", credentials), HttpResponse.BodyHandlers.ofString());
+        metrics.record("auth.login", System.nanoTime() - start);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + email + ": " + response.body());
+        }
+        cookie = response.headers().allValues("Set-Cookie").stream()
+                .filter(header -> header.startsWith("jwt="))
+                .map(header -> header.split(";", 2)[0])
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No jwt cookie in the login response"));
+        userId = (String) JSON.readValue(response.body(), BODY).get("userId");
+        
+        WebSocketHttpHeaders handshake = new WebSocketHttpHeaders();
+        handshake.add("Cookie", cookie);
+        String url = base.resolve("/ws").toString().replaceFirst("^http", "ws");
+        start = System.nanoTime();
+        session = stomp.connectAsync(url, handshake, new StompHeaders(), new StompSessionHandlerAdapter() {
+            @Override
+            public void handleTransportError(@NonNull StompSession session, @NonNull Throwable exception) {
+                metrics.error("stomp: " + exception.getClass().getSimpleName());
+            }
+        }).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        metrics.record("stomp.connect", System.nanoTime() - start);
+    }
+    
+    /**
+     * Subscribe to a room's topic; every event is handed to the listener as parsed JSON, with
+     * the traceparent of the action that caused it (null when untraced).
+     */
+    StompSession.Subscription subscribe(String roomId, BiConsumer<Map<String, Object>, String> listener) {
+        return session.subscribe("/topic/rooms/" + roomId, new StompFrameHandler() {
+            @Override
+            @NonNull
+            public Type getPayloadType(@NonNull StompHeaders headers) {
+                return Map.class;
+            }
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+                listener.accept((Map<String, Object>) payload, headers.getFirst(TRACEPARENT));
+            }
+        });
+    }
+    
+    String createRoom(String variant) throws Exception {
+        Map<String, Object> body = send("room.create", post("/api/rooms?variant=" + variant, null));
+        return body != null ? (String) body.get("roomId") : null;
+    }
+    
+    Map<String, Object> joinRoom(String roomId) throws Exception {
+        return send("room.join", post("/api/rooms/" + roomId + "/join", null));
+    }
+    
+    void leaveRoom(String roomId) throws Exception {
+        send("room.leave", post("/api/rooms/" + roomId + "/leave", null));
+    }
+    
+    Map<String, Object> getGame(String gameId) throws Exception {
+        return send("game.get", request("/api/games/" + gameId).GET().build());
+    }
+    
+    Map<String, Object> submitPlacement(String gameId, List<Map<String, Object>> ships) throws Exception {
+        return send(LoadMetrics.PLACEMENT, post("/api/games/" + gameId + "/placement", Map.of("ships", ships)));
+    }
+    
+    Map<String, Object> attack(String gameId, int turn, int r, int c, String traceparent) throws Exception {
+        Map<String, Object> body = Map.of(
+                "actionId", UUID.randomUUID().toString(),
+                "turnNumber", turn,
+                "type", "ATTACK",
+                "target", Map.of("r", r, "c", c));
+        return send(LoadMetrics.ATTACK, post("/api/games/" + gameId + "/action/attack", body, traceparent));
+    }
+    
+    Map<String, Object> move(String gameId, int turn, String shipId, int r, int c, boolean horizontal,
+                             String traceparent) throws Exception {
+        Map<String, Object> body = Map.of(
+                "actionId", UUID.randomUUID().toString(),
+                "turnNumber", turn,
+                "shipId", shipId,
+                "newPosition", Map.of("r", r, "c", c),
+                "isHorizontal", horizontal);
+        return send(LoadMetrics.MOVE, post("/api/games/" + gameId + "/action/move", body, traceparent));
+    }
+    
+    void close() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+    
+    private Map<String, Object> send(String metric, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        metrics.record(metric, System.nanoTime() - start);
+        
+        Map<String, Object> body = parse(response.body());
+        if (response.statusCode() >= 400) {
+            Object reason = body.getOrDefault("reason", body.getOrDefault("error", response.statusCode()));
+            metrics.error(metric + ": " + reason);
+            return null;
+        }
+        return body;
+    }
+    
+    private static Map<String, Object> parse(String body) throws IOException {
+        // Error pages from the container (403, 500) are not JSON
+        return body.startsWith("{") ? JSON.readValue(body, BODY) : Map.of();
+    }
+    
+    private HttpRequest post(String path, Object body) throws IOException {
+        return post(path, body, null);
+    }
+    
+    private HttpRequest post(String path, Object body, String traceparent) throws IOException {
+        HttpRequest.Builder builder = request(path);
+        if (traceparent != null) {
+            builder.header(TRACEPARENT, traceparent);
+        }
+        return builder
+                .header("Content-Type", "application/json")
+                .POST(body != null
+                        ? HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body))
+                        : HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT);
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder;
+    }
+}
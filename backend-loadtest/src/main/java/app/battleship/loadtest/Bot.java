@@ -0,0 +1,280 @@
+package app.battleship.loadtest;
+
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A player that waits for its turn on the room topic, thinks for a random time and then
+ * attacks the next cell of a shuffled sweep of the board, or with --move-ratio moves one of
+ * its ships by a cell. If no turn event arrives in time it re-reads the game state instead,
+ * so lost events slow a bot down but never stall it.
+ */
+final class Bot {
+    
+    // Extra wait beyond the opponent's longest think time before falling back to a read
+    private static final long EVENT_TIMEOUT_MILLIS = 5000;
+    
+    private final BattleshipClient client;
+    private final LoadTestConfig config;
+    private final LoadMetrics metrics;
+    private final BooleanSupplier running;
+    private final List<int[]> targets = new ArrayList<>();
+    private int nextTarget;
+    private int boardSize;
+    private List<Map<String, Object>> ships = List.of();
+    
+    Bot(BattleshipClient client, LoadTestConfig config, LoadMetrics metrics, BooleanSupplier running) {
+        this.client = client;
+        this.config = config;
+        this.metrics = metrics;
+        this.running = running;
+    }
+    
+    BattleshipClient client() {
+        return client;
+    }
+    
+    StompSession.Subscription watch(Match match) {
+        return client.subscribe(match.getRoomId(), (event, traceparent) -> onEvent(match, event, traceparent));
+    }
+    
+    void play(Match match) throws Exception {
+        targets.clear();
+        Map<String, Object> view = refresh(match);
+        if (view == null) {
+            match.abandon();
+            return;
+        }
+        if ("PLACEMENT".equals(view.get("phase")) && !Boolean.TRUE.equals(view.get("placementSubmitted"))) {
+            Map<String, Object> response = client.submitPlacement(match.getGameId(), currentFleet());
+            if (response != null) {
+                apply(match, yourView(response));
+            }
+        }
+        
+        String playerId = client.getUserId();
+        int actedTurn = 0;
+        while (running.getAsBoolean() && !match.isOver()) {
+            if (!match.awaitTurn(playerId, actedTurn, config.thinkMaxMillis() + EVENT_TIMEOUT_MILLIS)) {
+                if (!match.isOver()) {
+                    metrics.eventTimeout();
+                    refresh(match);
+                }
+                continue;
+            }
+            int turn = match.getTurn();
+            think();
+            if (!running.getAsBoolean()) {
+                break;
+            }
+            Map<String, Object> response = act(match, turn);
+            actedTurn = turn;
+            if (response != null && Boolean.TRUE.equals(response.get("viewDeferred"))) {
+                // The server is shedding load: the response only says whose turn it is now
+                match.observe(intValue(response.get("turn")), (String) response.get("currentPlayerId"));
+            } else if (response != null) {
+                apply(match, yourView(response));
+            } else {
+                refresh(match);
+            }
+        }
+    }
+    
+    private Map<String, Object> act(Match match, int turn) throws Exception {
+        String gameId = match.getGameId();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String traceparent = random.nextDouble() < config.traceSample() ? newTraceparent(random) : null;
+        String traceId = traceIdOf(traceparent);
+        if (config.moveRatio() > 0 && random.nextDouble() < config.moveRatio()) {
+            ShipMove move = pickMove(random);
+            if (move != null) {
+                match.actionSent(turn, traceId, System.nanoTime());
+                return client.move(gameId, turn, move.shipId(), move.r(), move.c(), move.horizontal(), traceparent);
+            }
+        }
+        int[] target = nextTarget(random);
+        match.actionSent(turn, traceId, System.nanoTime());
+        return client.attack(gameId, turn, target[0], target[1], traceparent);
+    }
+    
+    private void onEvent(Match match, Map<String, Object> event, String traceparent) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = (Map<String, Object>) event.getOrDefault("payload", Map.of());
+        switch (String.valueOf(event.get("type"))) {
+            case "GAME_STARTED" -> match.started((String) payload.get("gameId"));
+            case "PLACEMENT_COMPLETE" -> {
+                match.observe(intValue(payload.get("turn")), (String) payload.get("currentPlayerId"));
+                match.battleStarted();
+            }
+            case "STATE_UPDATED", "TURN_TIMEOUT" -> {
+                int turn = intValue(payload.get("turn"));
+                String currentPlayerId = (String) payload.get("currentPlayerId");
+                if (client.getUserId().equals(currentPlayerId)) {
+                    // The opponent's move has reached us: time it from when its request was sent.
+                    // A traced action is only matched by its own event, not e.g. a turn timeout's
+                    Match.SentAction sent = match.takeActionSent(turn - 1);
+                    if (sent != null && (sent.traceId() == null || sent.traceId().equals(traceIdOf(traceparent)))) {
+                        metrics.record(LoadMetrics.EVENT_LAG, System.nanoTime() - sent.nanoTime());
+                    }
+                }
+                match.observe(turn, currentPlayerId);
+            }
+            case "GAME_ENDED" -> match.finish((String) payload.get("winnerPlayerId"));
+            default -> {
+            }
+        }
+    }
+    
+    private Map<String, Object> refresh(Match match) throws Exception {
+        Map<String, Object> response = client.getGame(match.getGameId());
+        if (response == null) {
+            return null;
+        }
+        Map<String, Object> view = yourView(response);
+        apply(match, view);
+        return view;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void apply(Match match, Map<String, Object> view) {
+        if (view == null) {
+            return;
+        }
+        if (view.get("winnerPlayerId") != null) {
+            match.finish((String) view.get("winnerPlayerId"));
+        }
+        match.observe(intValue(view.get("turn")), (String) view.get("currentPlayerId"));
+        if ("BATTLE".equals(view.get("phase"))) {
+            match.battleStarted();
+        }
+        boardSize = intValue(view.get("boardSize"));
+        Map<String, Object> me = (Map<String, Object>) view.get("me");
+        if (me != null) {
+            ships = (List<Map<String, Object>>) ((Map<String, Object>) me.get("board")).get("ships");
+        }
+    }
+    
+    /**
+     * The fleet the server placed for us at random, submitted as our own placement.
+     */
+    private List<Map<String, Object>> currentFleet() {
+        List<Map<String, Object>> placements = new ArrayList<>();
+        for (Map<String, Object> ship : ships) {
+            List<int[]> cells = cells(ship);
+            placements.add(Map.of(
+                    "kind", ship.get("kind"),
+                    "r", cells.get(0)[0],
+                    "c", cells.get(0)[1],
+                    "horizontal", isHorizontal(cells)));
+        }
+        return placements;
+    }
+    
+    private int[] nextTarget(ThreadLocalRandom random) {
+        if (nextTarget >= targets.size()) {
+            // Re-attacking is allowed (ships move), so start another sweep once one is done
+            targets.clear();
+            for (int r = 0; r < boardSize; r++) {
+                for (int c = 0; c < boardSize; c++) {
+                    targets.add(new int[] {r, c});
+                }
+            }
+            Collections.shuffle(targets, random);
+            nextTarget = 0;
+        }
+        return targets.get(nextTarget++);
+    }
+    
+    /**
+     * Shift a random afloat ship by one cell, keeping its orientation; null if none can move.
+     */
+    private ShipMove pickMove(ThreadLocalRandom random) {
+        List<Map<String, Object>> afloat = new ArrayList<>(ships.stream()
+                .filter(ship -> !Boolean.TRUE.equals(ship.get("sunk")))
+                .toList());
+        if (afloat.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> ship = afloat.get(random.nextInt(afloat.size()));
+        List<int[]> cells = cells(ship);
+        boolean horizontal = isHorizontal(cells);
+        
+        Set<Integer> occupied = new HashSet<>();
+        for (Map<String, Object> other : ships) {
+            if (other != ship) {
+                cells(other).forEach(cell -> occupied.add(cell[0] * boardSize + cell[1]));
+            }
+        }
+        
+        List<int[]> shifts = new ArrayList<>(List.of(new int[] {-1, 0}, new int[] {1, 0}, new int[] {0, -1}, new int[] {0, 1}));
+        Collections.shuffle(shifts, random);
+        for (int[] shift : shifts) {
+            int r = cells.get(0)[0] + shift[0];
+            int c = cells.get(0)[1] + shift[1];
+            if (fits(r, c, cells.size(), horizontal, occupied)) {
+                return new ShipMove((String) ship.get("id"), r, c, horizontal);
+            }
+        }
+        return null;
+    }
+    
+    private boolean fits(int r, int c, int length, boolean horizontal, Set<Integer> occupied) {
+        for (int i = 0; i < length; i++) {
+            int cellR = horizontal ? r : r + i;
+            int cellC = horizontal ? c + i : c;
+            if (cellR < 0 || cellC < 0 || cellR >= boardSize || cellC >= boardSize
+                    || occupied.contains(cellR * boardSize + cellC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void think() throws InterruptedException {
+        int min = config.thinkMinMillis();
+        int max = config.thinkMaxMillis();
+        long millis = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<int[]> cells(Map<String, Object> ship) {
+        return ((List<Map<String, Object>>) ship.get("cells")).stream()
+                .map(cell -> new int[] {intValue(cell.get("r")), intValue(cell.get("c"))})
+                .toList();
+    }
+    
+    private static boolean isHorizontal(List<int[]> cells) {
+        return cells.size() < 2 || cells.get(0)[0] == cells.get(1)[0];
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> yourView(Map<String, Object> response) {
+        return (Map<String, Object>) response.get("yourView");
+    }
+    
+    // W3C trace context: version-traceid-parentid-flags, flagged sampled
+    private static String newTraceparent(ThreadLocalRandom random) {
+        return String.format("00-%016x%016x-%016x-01", random.nextLong(), random.nextLong(), random.nextLong() | 1);
+    }
+    
+    private static String traceIdOf(String traceparent) {
+        return traceparent != null && traceparent.length() >= 35 ? traceparent.substring(3, 35) : null;
+    }
+    
+    private static int intValue(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+    
+    private record ShipMove(String shipId, int r, int c, boolean horizontal) {}
+}
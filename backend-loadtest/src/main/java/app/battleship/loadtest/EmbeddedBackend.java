@@ -0,0 +1,101 @@
+package app.battleship.loadtest;
+
+import app.battleship.BattleshipApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The backend started inside the load generator's JVM, on a random port, against either
+ * the dev containers on localhost or embedded Redis and Mongo processes (downloaded on first
+ * use). Bots and server then share the machine's CPUs, so this mode is for reproducing
+ * behaviour; measure capacity against a separately started backend (--url). The backend's
+ * spans go to the given exporter instead of an OTLP endpoint.
+ */
+final class EmbeddedBackend implements AutoCloseable {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedBackend.class);
+    
+    private RedisServer redis;
+    private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private ConfigurableApplicationContext context;
+    
+    static EmbeddedBackend start(LoadTestConfig.Stores stores, SpanExporter spanExporter) throws IOException {
+        EmbeddedBackend backend = new EmbeddedBackend();
+        try {
+            backend.startBackend(stores, spanExporter);
+            return backend;
+        } catch (RuntimeException | IOException e) {
+            backend.close();
+            throw e;
+        }
+    }
+    
+    URI baseUrl() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+    
+    private void startBackend(LoadTestConfig.Stores stores, SpanExporter spanExporter) throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        if (stores == LoadTestConfig.Stores.EMBEDDED) {
+            int redisPort = freePort();
+            redis = new RedisServer(redisPort);
+            redis.start();
+            log.info("Embedded Redis on port {}", redisPort);
+            
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            log.info("Embedded Mongo on {}", address);
+            
+            properties.put("spring.data.redis.host", "localhost");
+            properties.put("spring.data.redis.port", redisPort);
+            properties.put("spring.data.mongodb.uri", "mongodb://" + address + "/battleship");
+        }
+        
+        context = new SpringApplicationBuilder(BattleshipApplication.class)
+                .properties(properties)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("loadTestSpanExporter", spanExporter))
+                .run();
+        log.info("Backend started at {}", baseUrl());
+    }
+    
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+        if (redis != null) {
+            try {
+                redis.stop();
+            } catch (IOException e) {
+                log.warn("Failed to stop embedded Redis", e);
+            }
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
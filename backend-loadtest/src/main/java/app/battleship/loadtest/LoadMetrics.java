@@ -0,0 +1,134 @@
+package app.battleship.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR histograms (microsecond resolution) of every timed operation plus run counters.
+ * Bots record into lock-free Recorders; the reporter swaps out an interval histogram per
+ * report and folds it into the run total, so progress lines show the last interval only.
+ */
+final class LoadMetrics {
+    
+    static final String ATTACK = "action.attack";
+    static final String MOVE = "action.move";
+    static final String PLACEMENT = "action.placement";
+    static final String EVENT_LAG = "event.lag";
+    static final String MATCH = "match.duration";
+    
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final ConcurrentMap<String, Series> series = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+    private final AtomicInteger activeMatches = new AtomicInteger();
+    private final LongAdder matchesAbandoned = new LongAdder();
+    private final LongAdder eventTimeouts = new LongAdder();
+    
+    void record(String name, long nanos) {
+        long micros = Math.min(HIGHEST_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        series.computeIfAbsent(name, n -> new Series()).recorder.recordValue(micros);
+    }
+    
+    void error(String what) {
+        errors.computeIfAbsent(what, w -> new LongAdder()).increment();
+    }
+    
+    void matchStarted() {
+        activeMatches.incrementAndGet();
+    }
+    
+    void matchFinished(boolean completed, long nanos) {
+        activeMatches.decrementAndGet();
+        if (completed) {
+            record(MATCH, nanos);
+        } else {
+            matchesAbandoned.increment();
+        }
+    }
+    
+    /**
+     * The bot gave up waiting for a turn event and fell back to reading the game state.
+     */
+    void eventTimeout() {
+        eventTimeouts.increment();
+    }
+    
+    /**
+     * One progress line covering the interval since the previous call.
+     */
+    String intervalReport(long elapsedSec, long intervalSec) {
+        Map<String, Histogram> interval = new TreeMap<>();
+        series.forEach((name, s) -> interval.put(name, s.swap()));
+        
+        Histogram attacks = interval.get(ATTACK);
+        Histogram lag = interval.get(EVENT_LAG);
+        Histogram matches = interval.get(MATCH);
+        return String.format("[%4ds] matches %d active, %d done | attacks %.0f/s p50 %s p99 %s | event lag p50 %s p99 %s | errors %d",
+                elapsedSec, activeMatches.get(), matches != null ? matches.getTotalCount() : 0,
+                attacks != null ? (double) attacks.getTotalCount() / Math.max(1, intervalSec) : 0.0,
+                millis(attacks, 50), millis(attacks, 99), millis(lag, 50), millis(lag, 99), totalErrors());
+    }
+    
+    void printSummary(PrintStream out, Path histogramDir) throws IOException {
+        series.values().forEach(Series::swap);
+        out.println();
+        // Span names can be long; size the first column to the longest name
+        int width = Math.max(18, series.keySet().stream().mapToInt(String::length).max().orElse(0));
+        out.printf("%-" + width + "s %9s %9s %9s %9s %9s %9s %9s%n", "(ms)", "count", "mean", "p50", "p90", "p99", "p99.9", "max");
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Histogram h = entry.getValue().total;
+            out.printf("%-" + width + "s %9d %9.2f %9s %9s %9s %9s %9.2f%n", entry.getKey(), h.getTotalCount(),
+                    h.getMean() / 1000.0, millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9),
+                    h.getMaxValue() / 1000.0);
+        }
+        out.printf("%nmatches abandoned %d, event timeouts %d%n", matchesAbandoned.sum(), eventTimeouts.sum());
+        errors.forEach((what, count) -> out.printf("error %-40s %d%n", what, count.sum()));
+        
+        if (histogramDir != null) {
+            Files.createDirectories(histogramDir);
+            for (Map.Entry<String, Series> entry : series.entrySet()) {
+                String fileName = entry.getKey().replaceAll("[^A-Za-z0-9._-]+", "_") + ".hgrm";
+                try (PrintStream file = new PrintStream(Files.newOutputStream(histogramDir.resolve(fileName)))) {
+                    // Values are kept in microseconds; scale the distribution to milliseconds
+                    entry.getValue().total.outputPercentileDistribution(file, 1000.0);
+                }
+            }
+            out.println("Histograms written to " + histogramDir.toAbsolutePath());
+        }
+    }
+    
+    private long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+    
+    private static String millis(Histogram histogram, double percentile) {
+        if (histogram == null || histogram.getTotalCount() == 0) {
+            return "-";
+        }
+        return String.format("%.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+    
+    private static final class Series {
+        private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        
+        synchronized Histogram swap() {
+            Histogram interval = recorder.getIntervalHistogram();
+            total.add(interval);
+            return interval;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package app.battleship.loadtest;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as --name=value:
+ * <pre>
+ *   --url=http://host:port   drive an already running backend; without it the backend is
+ *                            started in this JVM (see --stores)
+ *   --stores=local|embedded  in-process backend only: the dev containers on localhost
+ *                            (infra/docker-compose.dev.yml) or embedded Redis and Mongo
+ *   --matches=100            concurrent matches, each played back to back by two bots
+ *   --duration=60            seconds to keep starting new matches
+ *   --ramp-up=10             seconds over which the matches are started
+ *   --think-min=200          think time before each action, in milliseconds,
+ *   --think-max=800          drawn uniformly from [think-min, think-max]
+ *   --move-ratio=0           share of turns spent moving a ship instead of attacking
+ *   --variant=classic        game variant of the rooms
+ *   --trace-sample=1         share of actions sent with a sampled W3C traceparent, which the
+ *                            backend then traces; in-process, their spans are summarized too
+ *   --report-interval=5      seconds between progress lines
+ *   --out=dir                also write each histogram's percentile distribution (.hgrm) here
+ * </pre>
+ */
+public record LoadTestConfig(
+        String url,
+        Stores stores,
+        int matches,
+        int durationSec,
+        int rampUpSec,
+        int thinkMinMillis,
+        int thinkMaxMillis,
+        double moveRatio,
+        String variant,
+        double traceSample,
+        int reportIntervalSec,
+        Path out
+) {
+    
+    public enum Stores { LOCAL, EMBEDDED }
+    
+    public boolean inProcess() {
+        return url == null;
+    }
+    
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        LoadTestConfig config = new LoadTestConfig(
+                options.remove("url"),
+                Stores.valueOf(options.getOrDefault("stores", "local").toUpperCase()),
+                intOption(options, "matches", 100),
+                intOption(options, "duration", 60),
+                intOption(options, "ramp-up", 10),
+                intOption(options, "think-min", 200),
+                intOption(options, "think-max", 800),
+                Double.parseDouble(options.getOrDefault("move-ratio", "0")),
+                options.getOrDefault("variant", "classic"),
+                Double.parseDouble(options.getOrDefault("trace-sample", "1")),
+                intOption(options, "report-interval", 5),
+                options.containsKey("out") ? Path.of(options.get("out")) : null
+        );
+        options.keySet().removeAll(List.of("stores", "move-ratio", "variant", "trace-sample", "out"));
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + options.keySet());
+        }
+        if (config.matches() < 1 || config.thinkMinMillis() < 0 || config.thinkMaxMillis() < config.thinkMinMillis()) {
+            throw new IllegalArgumentException("Need matches >= 1 and 0 <= think-min <= think-max");
+        }
+        return config;
+    }
+    
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.remove(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
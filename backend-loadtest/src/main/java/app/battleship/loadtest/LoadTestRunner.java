@@ -0,0 +1,196 @@
+package app.battleship.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays many matches at once against the backend the way the web client does: every match
+ * slot signs up two bots, which then play games back to back for --duration seconds. One
+ * bot opens a room, the other joins it, both follow the game on /topic/rooms/{roomId} and
+ * take their turns over the action endpoints. Reports HDR histograms of every call and of
+ * event lag, the time from a bot sending its action to its opponent receiving the turn.
+ */
+public final class LoadTestRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+    
+    private static final String PASSWORD = "loadtest";
+    private static final long JOIN_TIMEOUT_MILLIS = 10_000;
+    
+    private final LoadTestConfig config;
+    private final URI base;
+    private final PrintStream console;
+    private final LoadMetrics metrics;
+    private final HttpClient http;
+    private final WebSocketStompClient stomp;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private volatile boolean running = true;
+    
+    private LoadTestRunner(LoadTestConfig config, URI base, PrintStream console, LoadMetrics metrics) {
+        this.config = config;
+        this.base = base;
+        this.console = console;
+        this.metrics = metrics;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        this.stomp.setMessageConverter(new MappingJackson2MessageConverter());
+        this.stomp.setDefaultHeartbeat(new long[] {0, 0});
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        PrintStream console = System.out;
+        LoadMetrics metrics = new LoadMetrics();
+        EmbeddedBackend backend = null;
+        if (config.inProcess()) {
+            // The game services trace every action on stdout; keep the report readable
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            backend = EmbeddedBackend.start(config.stores(), new SpanCollector(metrics));
+        }
+        try {
+            URI base = backend != null ? backend.baseUrl() : URI.create(config.url());
+            new LoadTestRunner(config, base, console, metrics).run();
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+        System.exit(0);
+    }
+    
+    private void run() throws Exception {
+        console.printf("Load test %s against %s: %d matches, %ds (ramp-up %ds), think %d-%d ms, move ratio %.2f%n",
+                runId, base, config.matches(), config.durationSec(), config.rampUpSec(),
+                config.thinkMinMillis(), config.thinkMaxMillis(), config.moveRatio());
+        
+        long start = System.nanoTime();
+        try (ExecutorService slots = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int slot = 0; slot < config.matches(); slot++) {
+                long delayMillis = TimeUnit.SECONDS.toMillis(config.rampUpSec()) * slot / config.matches();
+                int slotId = slot;
+                slots.submit(() -> runSlot(slotId, delayMillis));
+            }
+            
+            long deadline = start + TimeUnit.SECONDS.toNanos(config.durationSec());
+            long intervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.reportIntervalSec()));
+            long lastReport = start;
+            while (System.nanoTime() < deadline) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(intervalNanos, deadline - System.nanoTime()));
+                long now = System.nanoTime();
+                console.println(metrics.intervalReport(TimeUnit.NANOSECONDS.toSeconds(now - start),
+                        TimeUnit.NANOSECONDS.toSeconds(now - lastReport)));
+                lastReport = now;
+            }
+            // Games still in progress are abandoned; the slots wind down and the pool closes
+            running = false;
+        }
+        
+        metrics.printSummary(console, config.out());
+        stomp.stop();
+    }
+    
+    private void runSlot(int slot, long delayMillis) {
+        Bot host = null;
+        Bot guest = null;
+        try {
+            Thread.sleep(delayMillis);
+            host = newBot(slot, "a");
+            guest = newBot(slot, "b");
+            while (running) {
+                playMatch(host, guest);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            metrics.error("slot: " + e.getClass().getSimpleName());
+            log.warn("Match slot {} stopped", slot, e);
+        } finally {
+            if (host != null) {
+                host.client().close();
+            }
+            if (guest != null) {
+                guest.client().close();
+            }
+        }
+    }
+    
+    private Bot newBot(int slot, String seat) throws Exception {
+        BattleshipClient client = new BattleshipClient(http, stomp, base, metrics);
+        client.signIn("bot-" + runId + "-" + slot + seat + "@loadtest.local", PASSWORD);
+        return new Bot(client, config, metrics, () -> running);
+    }
+    
+    private void playMatch(Bot host, Bot guest) throws Exception {
+        String roomId = host.client().createRoom(config.variant());
+        if (roomId == null) {
+            Thread.sleep(1000);
+            return;
+        }
+        
+        Match match = new Match(roomId);
+        List<StompSession.Subscription> subscriptions = List.of(host.watch(match), guest.watch(match));
+        long start = System.nanoTime();
+        metrics.matchStarted();
+        try {
+            Map<String, Object> room = guest.client().joinRoom(roomId);
+            if (room == null) {
+                match.abandon();
+                return;
+            }
+            match.started((String) room.get("gameId"));
+            if (match.awaitGameId(JOIN_TIMEOUT_MILLIS) == null) {
+                metrics.error("match: no game started");
+                match.abandon();
+                return;
+            }
+            
+            Thread hostThread = Thread.ofVirtual().start(() -> play(host, match));
+            play(guest, match);
+            hostThread.join();
+        } finally {
+            metrics.matchFinished(match.hasWinner(), System.nanoTime() - start);
+            for (StompSession.Subscription subscription : subscriptions) {
+                try {
+                    subscription.unsubscribe();
+                } catch (Exception e) {
+                    log.debug("Failed to unsubscribe from room {}", roomId, e);
+                }
+            }
+            host.client().leaveRoom(roomId);
+            guest.client().leaveRoom(roomId);
+        }
+    }
+    
+    private void play(Bot bot, Match match) {
+        try {
+            bot.play(match);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            match.abandon();
+        } catch (Exception e) {
+            metrics.error("bot: " + e.getClass().getSimpleName());
+            log.debug("Bot failed in game {}", match.getGameId(), e);
+            // Don't leave the opponent waiting for turns that will never come
+            match.abandon();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package app.battleship.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the two bots of one game know about it, fed by room events and action responses
+ * alike. Turns only ever move forward, so a late event or response never rewinds the game.
+ */
+final class Match {
+    
+    private final String roomId;
+    // Turn an action was made in -> when its request was sent
+    private final Map<Integer, SentAction> actionsSent = new ConcurrentHashMap<>();
+    private String gameId;
+    private int turn;
+    private String currentPlayerId;
+    private boolean battle;
+    private boolean over;
+    private String winnerPlayerId;
+    
+    Match(String roomId) {
+        this.roomId = roomId;
+    }
+    
+    String getRoomId() {
+        return roomId;
+    }
+    
+    synchronized String getGameId() {
+        return gameId;
+    }
+    
+    synchronized int getTurn() {
+        return turn;
+    }
+    
+    synchronized boolean isOver() {
+        return over;
+    }
+    
+    synchronized boolean hasWinner() {
+        return winnerPlayerId != null;
+    }
+    
+    synchronized void started(String gameId) {
+        if (this.gameId == null && gameId != null) {
+            this.gameId = gameId;
+            notifyAll();
+        }
+    }
+    
+    synchronized void observe(int turn, String currentPlayerId) {
+        if (turn > this.turn || this.currentPlayerId == null) {
+            this.turn = Math.max(turn, this.turn);
+            this.currentPlayerId = currentPlayerId;
+            notifyAll();
+        }
+    }
+    
+    synchronized void battleStarted() {
+        if (!battle) {
+            battle = true;
+            notifyAll();
+        }
+    }
+    
+    synchronized void finish(String winnerPlayerId) {
+        this.winnerPlayerId = winnerPlayerId;
+        over = true;
+        notifyAll();
+    }
+    
+    synchronized void abandon() {
+        over = true;
+        notifyAll();
+    }
+    
+    synchronized String awaitGameId(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (gameId == null && !over) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return gameId;
+    }
+    
+    /**
+     * Wait until it is playerId's turn in a turn after afterTurn. Returns false on timeout
+     * or when the game is over.
+     */
+    synchronized boolean awaitTurn(String playerId, int afterTurn, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!over && !(battle && turn > afterTurn && playerId.equals(currentPlayerId))) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return !over;
+    }
+    
+    void actionSent(int turn, String traceId, long nanoTime) {
+        actionsSent.put(turn, new SentAction(traceId, nanoTime));
+    }
+    
+    SentAction takeActionSent(int turn) {
+        return actionsSent.remove(turn);
+    }
+    
+    /**
+     * An action's trace id (null if untraced) and System.nanoTime() when its request was sent.
+     */
+    record SentAction(String traceId, long nanoTime) {}
+}
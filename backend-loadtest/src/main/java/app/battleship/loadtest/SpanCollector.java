@@ -0,0 +1,41 @@
+package app.battleship.loadtest;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+
+/**
+ * In-memory stand-in for an OTLP collector, registered as the in-process backend's span
+ * exporter: every finished server span is recorded into LoadMetrics as "span: {name}", so the
+ * summary breaks action latency down into the phases and Redis and Mongo commands behind it.
+ */
+final class SpanCollector implements SpanExporter {
+    
+    static final String PREFIX = "span: ";
+    
+    private final LoadMetrics metrics;
+    
+    SpanCollector(LoadMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            metrics.record(PREFIX + span.getName(), span.getEndEpochNanos() - span.getStartEpochNanos());
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+    
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+    
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
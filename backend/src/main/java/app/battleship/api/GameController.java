@@ -1,39 +1,55 @@
 package app.battleship.api;
 
+import app.battleship.cluster.GameAffinityRouter;
 import app.battleship.model.AttackRequest;
 import app.battleship.model.GameState;
+import app.battleship.model.PlacementRequest;
 import app.battleship.model.ShipMoveRequest;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
 import app.battleship.persist.EventDoc;
-import app.battleship.persist.EventRepository;
+import app.battleship.service.GameEventLog;
 import app.battleship.service.GameService;
+import app.battleship.service.IdempotencyService;
 import app.battleship.service.ViewShapingService;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/games")
+@Profile("!reactive")
 public class GameController {
     
     private final GameService gameService;
     private final ViewShapingService viewShapingService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final EventRepository eventRepository;
-    private final StringRedisTemplate redis;
+    private final GameEventLog eventLog;
+    private final IdempotencyService idempotency;
+    private final GameAffinityRouter router;
+    private final GameMetrics metrics;
+    private final ActionLatencySlo slo;
     
     public GameController(GameService gameService, ViewShapingService viewShapingService,
-                         SimpMessagingTemplate messagingTemplate, EventRepository eventRepository,
-                         StringRedisTemplate redis) {
+                         SimpMessagingTemplate messagingTemplate, GameEventLog eventLog,
+                         IdempotencyService idempotency, GameAffinityRouter router, GameMetrics metrics,
+                         ActionLatencySlo slo) {
         this.gameService = gameService;
         this.viewShapingService = viewShapingService;
         this.messagingTemplate = messagingTemplate;
-        this.eventRepository = eventRepository;
-        this.redis = redis;
+        this.eventLog = eventLog;
+        this.idempotency = idempotency;
+        this.router = router;
+        this.metrics = metrics;
+        this.slo = slo;
     }
     
     @GetMapping("/{gameId}")
@@ -55,213 +71,239 @@ public class GameController {
         }
     }
     
-    @PostMapping("/{gameId}/action/attack")
-    public ResponseEntity<?> attack(@PathVariable String gameId, 
-                                   @Valid @RequestBody AttackRequest request,
-                                   Authentication auth) {
+    @GetMapping("/{gameId}/events")
+    public ResponseEntity<?> getEvents(@PathVariable String gameId,
+                                       @RequestParam(defaultValue = "0") long afterSeq,
+                                       Authentication auth) {
         try {
-            String attackerId = (String) auth.getPrincipal();
-            
-            // Check idempotency
-            String idempotencyKey = "attack:" + gameId + ":" + request.actionId();
-            Boolean alreadyProcessed = redis.opsForValue().setIfAbsent(idempotencyKey, "1");
-            if (Boolean.FALSE.equals(alreadyProcessed)) {
-                // Already processed, return cached result or current state
-                GameState state = gameService.getGameState(gameId);
-                Map<String, Object> view = viewShapingService.createPlayerView(state, attackerId);
-                return ResponseEntity.ok(Map.of("message", "Already processed", "yourView", view));
+            String userId = (String) auth.getPrincipal();
+            return ResponseEntity.ok(eventLog.eventsAfter(gameId, userId, afterSeq));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{gameId}/placement")
+    public ResponseEntity<?> submitPlacement(@PathVariable String gameId,
+                                             @Valid @RequestBody PlacementRequest request,
+                                             Authentication auth, HttpServletRequest httpRequest) {
+        try {
+            Optional<ResponseEntity<?>> forwarded = router.forwardIfRemote(gameId, httpRequest, request);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
             }
-            redis.expire(idempotencyKey, 60 * 5, java.util.concurrent.TimeUnit.SECONDS);
-            
-            // Process attack (this modifies and saves the state)
-            Map<String, Object> result = gameService.processAttack(gameId, attackerId, request);
+            String playerId = (String) auth.getPrincipal();
             
+            Timer.Sample sample = metrics.start();
+            Map<String, Object> result = gameService.submitPlacement(gameId, playerId, request);
             if (Boolean.FALSE.equals(result.get("success"))) {
-                // Broadcast rejection
-                Map<String, Object> event = Map.of(
-                        "eventId", UUID.randomUUID().toString(),
-                        "type", "ACTION_REJECTED",
-                        "payload", Map.of(
-                                "actionId", request.actionId(),
-                                "reason", result.get("reason")
-                        )
-                );
-                
-                messagingTemplate.convertAndSendToUser(attackerId, "/queue/errors", event);
+                metrics.recordAction(sample, "placement", "rejected");
                 return ResponseEntity.badRequest().body(result);
             }
             
-            // NOTE: processAttack saves state, so we need to reload to get the saved version
-            // Get fresh state from database
-            GameState state = gameService.getGameState(gameId);
-            
-            System.out.println("[GameController] ============ AFTER ATTACK ============");
-            System.out.println("[GameController] Attacker ID: " + attackerId);
-            System.out.println("[GameController] Turn: " + state.getTurn());
-            System.out.println("[GameController] Current player: " + state.getCurrentPlayerId());
-            System.out.println("[GameController] AttacksByMeHits: " + 
-                state.getPlayers().get(attackerId).getBoard().getAttacksByMeHits());
-            System.out.println("[GameController] AttacksByMeMisses: " + 
-                state.getPlayers().get(attackerId).getBoard().getAttacksByMeMisses());
-            
-            // Switch turn if not game ended
-            if (state.getWinnerPlayerId() == null) {
-                System.out.println("[GameController] Switching turn...");
-                gameService.switchTurn(state);
-                
-                // Reload to get updated state after switchTurn
-                state = gameService.getGameState(gameId);
-                
-                System.out.println("[GameController] After switchTurn:");
-                System.out.println("[GameController]   Turn: " + state.getTurn());
-                System.out.println("[GameController]   Current player: " + state.getCurrentPlayerId());
-                System.out.println("[GameController]   AttacksByMeHits: " + 
-                    state.getPlayers().get(attackerId).getBoard().getAttacksByMeHits());
+            if (Boolean.TRUE.equals(result.get("placementComplete"))) {
+                gameService.broadcastPlacementComplete(result);
+            } else {
+                // Let the opponent know without revealing anything about the fleet
+                eventLog.publish((String) result.get("roomId"), gameId, "PLACEMENT_SUBMITTED", Map.of(
+                        "gameId", gameId,
+                        "playerId", playerId
+                ));
             }
             
-            // Save event
-            Long eventSeq = redis.opsForValue().increment("game:" + gameId + ":eventSeq", 1L);
-            if (eventSeq == null) eventSeq = 1L;
-            
-            Map<String, Object> attackPayload = new HashMap<>(result);
-            attackPayload.put("gameId", gameId);
-            attackPayload.put("attackerId", attackerId);
-            attackPayload.put("actionId", request.actionId());
-            
-            EventDoc eventDoc = EventDoc.of(gameId, eventSeq, state.getTurn(), 
-                    "ATTACK_PROCESSED", attackPayload);
-            eventRepository.save(eventDoc);
-            
-            // Broadcast STATE_UPDATED to all players in room
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventId", eventDoc.getEventId());
-            event.put("eventSeq", eventSeq);
-            event.put("type", "STATE_UPDATED");
-            
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("gameId", gameId);
-            payload.put("stateVersion", state.getStateVersion());
-            payload.put("turn", state.getTurn());
-            payload.put("currentPlayerId", state.getCurrentPlayerId());
-            
-            event.put("payload", payload);
+            GameState state = gameService.getGameState(gameId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("placementComplete", result.get("placementComplete"));
+            response.put("yourView", viewShapingService.createPlayerView(state, playerId));
+            metrics.recordAction(sample, "placement", "success");
             
-            messagingTemplate.convertAndSend("/topic/rooms/" + state.getRoomId(), event);
+            return ResponseEntity.ok(response);
             
-            // Check if game ended
-            if (state.getWinnerPlayerId() != null) {
-                Long endSeq = redis.opsForValue().increment("game:" + gameId + ":eventSeq", 1L);
-                Map<String, Object> endEvent = Map.of(
-                        "eventId", UUID.randomUUID().toString(),
-                        "eventSeq", endSeq != null ? endSeq : eventSeq + 1,
-                        "type", "GAME_ENDED",
-                        "payload", Map.of(
-                                "winnerPlayerId", state.getWinnerPlayerId(),
-                                "reason", "ALL_SUNK"
-                        )
-                );
-                messagingTemplate.convertAndSend("/topic/rooms/" + state.getRoomId(), endEvent);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{gameId}/action/attack")
+    public ResponseEntity<?> attack(@PathVariable String gameId, 
+                                   @Valid @RequestBody AttackRequest request,
+                                   Authentication auth, HttpServletRequest httpRequest) {
+        try {
+            // Actions run on the game's owner so its state stays cached in one place
+            Optional<ResponseEntity<?>> forwarded = router.forwardIfRemote(gameId, httpRequest, request);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
             }
+            String attackerId = (String) auth.getPrincipal();
             
-            // Return shaped view
-            Map<String, Object> view = viewShapingService.createPlayerView(state, attackerId);
-            Map<String, Object> response = new HashMap<>(result);
-            response.put("yourView", view);
-            
-            System.out.println("[GameController] ============ ATTACK RESPONSE ============");
-            System.out.println("[GameController] Attack result: " + result);
-            System.out.println("[GameController] Returning view with opponent.revealed.attacksByMe: " + 
-                ((Map<?, ?>) ((Map<?, ?>) view.get("opponent")).get("revealed")).get("attacksByMe"));
-            
-            return ResponseEntity.ok(response);
-            
+            // Replays of an actionId get the original response back verbatim
+            String idempotencyKey = "attack:" + gameId + ":" + attackerId + ":" + request.actionId();
+            return timed("attack", () -> idempotency.execute(idempotencyKey, () -> processAttack(gameId, attackerId, request)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
+    private ResponseEntity<?> processAttack(String gameId, String attackerId, AttackRequest request) {
+        // Attack and pass the turn in one write
+        GameService.ActionResult outcome = gameService.processAttack(gameId, attackerId, request);
+        Map<String, Object> result = outcome.result();
+        
+        if (Boolean.FALSE.equals(result.get("success"))) {
+            // Broadcast rejection
+            Map<String, Object> event = Map.of(
+                    "eventId", UUID.randomUUID().toString(),
+                    "type", "ACTION_REJECTED",
+                    "payload", Map.of(
+                            "actionId", request.actionId(),
+                            "reason", result.get("reason")
+                    )
+            );
+            
+            messagingTemplate.convertAndSendToUser(attackerId, "/queue/errors", event);
+            return ResponseEntity.badRequest().body(result);
+        }
+        
+        GameState state = outcome.state();
+        
+        // Save event
+        Map<String, Object> attackPayload = new HashMap<>(result);
+        attackPayload.put("gameId", gameId);
+        attackPayload.put("attackerId", attackerId);
+        attackPayload.put("actionId", request.actionId());
+        Map<String, Object> payload = GameEventLog.stateUpdatedPayload(state);
+        attackPayload.put("STATE_UPDATED", payload);
+        
+        int turn = state.getTurn();
+        EventDoc eventDoc = metrics.time("attack", GameMetrics.Phase.EVENT_PERSIST, () -> eventLog.append(
+                EventDoc.of(gameId, eventLog.nextSeq(gameId), turn, "ATTACK_PROCESSED", attackPayload)));
+        
+        // Broadcast STATE_UPDATED to all players in room
+        Map<String, Object> event = GameEventLog.stateUpdated(eventDoc);
+        
+        String roomId = state.getRoomId();
+        metrics.time("attack", GameMetrics.Phase.BROADCAST, () -> eventLog.broadcast(roomId, event));
+        
+        // Check if game ended
+        if (state.getWinnerPlayerId() != null) {
+            eventLog.publish(state.getRoomId(), gameId, state.getTurn(), "GAME_ENDED", Map.of(
+                    "winnerPlayerId", state.getWinnerPlayerId(),
+                    "reason", "ALL_SUNK"
+            ));
+        }
+        
+        if (slo.deferViews()) {
+            return ResponseEntity.ok(deferredView(result, payload));
+        }
+        
+        // Return shaped view
+        Map<String, Object> view = metrics.time("attack", GameMetrics.Phase.VIEW,
+                () -> viewShapingService.createPlayerView(state, attackerId));
+        Map<String, Object> response = new HashMap<>(result);
+        response.put("yourView", view);
+        
+        System.out.println("[GameController] ============ ATTACK RESPONSE ============");
+        System.out.println("[GameController] Attack result: " + result);
+        System.out.println("[GameController] Returning view with opponent.revealed.attacksByMe: " + 
+            ((Map<?, ?>) ((Map<?, ?>) view.get("opponent")).get("revealed")).get("attacksByMe"));
+        
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/{gameId}/action/move")
     public ResponseEntity<?> moveShip(@PathVariable String gameId,
                                       @Valid @RequestBody ShipMoveRequest request,
-                                      Authentication auth) {
+                                      Authentication auth, HttpServletRequest httpRequest) {
         try {
-            String playerId = (String) auth.getPrincipal();
-            
-            // Check idempotency
-            String idempotencyKey = "move:" + gameId + ":" + request.actionId();
-            Boolean alreadyProcessed = redis.opsForValue().setIfAbsent(idempotencyKey, "1");
-            if (Boolean.FALSE.equals(alreadyProcessed)) {
-                // Already processed, return cached result or current state
-                GameState state = gameService.getGameState(gameId);
-                Map<String, Object> view = viewShapingService.createPlayerView(state, playerId);
-                return ResponseEntity.ok(Map.of("message", "Already processed", "yourView", view));
-            }
-            redis.expire(idempotencyKey, 60 * 5, java.util.concurrent.TimeUnit.SECONDS);
-            
-            // Process move
-            Map<String, Object> result = gameService.processShipMove(gameId, playerId, request);
-            
-            if (Boolean.FALSE.equals(result.get("success"))) {
-                // Broadcast rejection
-                Map<String, Object> event = Map.of(
-                        "eventId", UUID.randomUUID().toString(),
-                        "type", "ACTION_REJECTED",
-                        "payload", Map.of(
-                                "actionId", request.actionId(),
-                                "reason", result.get("reason")
-                        )
-                );
-                
-                messagingTemplate.convertAndSendToUser(playerId, "/queue/errors", event);
-                return ResponseEntity.badRequest().body(result);
+            Optional<ResponseEntity<?>> forwarded = router.forwardIfRemote(gameId, httpRequest, request);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
             }
+            String playerId = (String) auth.getPrincipal();
             
-            // Get updated state
-            GameState state = gameService.getGameState(gameId);
-            
-            // Switch turn after successful move
-            gameService.switchTurn(state);
-            state = gameService.getGameState(gameId);
-            
-            // Save event
-            Long eventSeq = redis.opsForValue().increment("game:" + gameId + ":eventSeq", 1L);
-            if (eventSeq == null) eventSeq = 1L;
-            
-            Map<String, Object> movePayload = new HashMap<>(result);
-            movePayload.put("gameId", gameId);
-            movePayload.put("playerId", playerId);
-            movePayload.put("actionId", request.actionId());
-            
-            EventDoc eventDoc = EventDoc.of(gameId, eventSeq, state.getTurn(),
-                    "SHIP_MOVED", movePayload);
-            eventRepository.save(eventDoc);
-            
-            // Broadcast STATE_UPDATED to all players in room
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventId", eventDoc.getEventId());
-            event.put("eventSeq", eventSeq);
-            event.put("type", "STATE_UPDATED");
-            
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("gameId", gameId);
-            payload.put("stateVersion", state.getStateVersion());
-            payload.put("turn", state.getTurn());
-            payload.put("currentPlayerId", state.getCurrentPlayerId());
-            
-            event.put("payload", payload);
-            
-            messagingTemplate.convertAndSend("/topic/rooms/" + state.getRoomId(), event);
-            
-            // Return shaped view
-            Map<String, Object> view = viewShapingService.createPlayerView(state, playerId);
-            Map<String, Object> response = new HashMap<>(result);
-            response.put("yourView", view);
-            
-            return ResponseEntity.ok(response);
-            
+            // Replays of an actionId get the original response back verbatim
+            String idempotencyKey = "move:" + gameId + ":" + playerId + ":" + request.actionId();
+            return timed("move", () -> idempotency.execute(idempotencyKey, () -> processShipMove(gameId, playerId, request)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+    
+    private ResponseEntity<?> processShipMove(String gameId, String playerId, ShipMoveRequest request) {
+        // Move and pass the turn in one write
+        GameService.ActionResult outcome = gameService.processShipMove(gameId, playerId, request);
+        Map<String, Object> result = outcome.result();
+        
+        if (Boolean.FALSE.equals(result.get("success"))) {
+            // Broadcast rejection
+            Map<String, Object> event = Map.of(
+                    "eventId", UUID.randomUUID().toString(),
+                    "type", "ACTION_REJECTED",
+                    "payload", Map.of(
+                            "actionId", request.actionId(),
+                            "reason", result.get("reason")
+                    )
+            );
+            
+            messagingTemplate.convertAndSendToUser(playerId, "/queue/errors", event);
+            return ResponseEntity.badRequest().body(result);
+        }
+        
+        GameState state = outcome.state();
+        
+        // Save event
+        Map<String, Object> movePayload = new HashMap<>(result);
+        movePayload.put("gameId", gameId);
+        movePayload.put("playerId", playerId);
+        movePayload.put("actionId", request.actionId());
+        Map<String, Object> payload = GameEventLog.stateUpdatedPayload(state);
+        movePayload.put("STATE_UPDATED", payload);
+        
+        EventDoc eventDoc = metrics.time("move", GameMetrics.Phase.EVENT_PERSIST, () -> eventLog.append(
+                EventDoc.of(gameId, eventLog.nextSeq(gameId), state.getTurn(), "SHIP_MOVED", movePayload)));
+        
+        // Broadcast STATE_UPDATED to all players in room
+        Map<String, Object> event = GameEventLog.stateUpdated(eventDoc);
+        
+        metrics.time("move", GameMetrics.Phase.BROADCAST, () -> eventLog.broadcast(state.getRoomId(), event));
+        
+        if (slo.deferViews()) {
+            return ResponseEntity.ok(deferredView(result, payload));
+        }
+        
+        // Return shaped view
+        Map<String, Object> view = metrics.time("move", GameMetrics.Phase.VIEW,
+                () -> viewShapingService.createPlayerView(state, playerId));
+        Map<String, Object> response = new HashMap<>(result);
+        response.put("yourView", view);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * The action's result and the STATE_UPDATED payload without the player view, sent while the
+     * latency SLO is breached; the client re-reads its view on the event.
+     */
+    private static Map<String, Object> deferredView(Map<String, Object> result, Map<String, Object> statePayload) {
+        Map<String, Object> response = new HashMap<>(result);
+        response.putAll(statePayload);
+        response.put("viewDeferred", true);
+        return response;
+    }
+    
+    /**
+     * Record an action's end-to-end latency; 4xx responses (rejected or replayed-rejected) count as rejected.
+     */
+    private ResponseEntity<?> timed(String action, Callable<ResponseEntity<?>> handler) throws Exception {
+        Timer.Sample sample = metrics.start();
+        String outcome = "error";
+        try {
+            ResponseEntity<?> response = handler.call();
+            outcome = response.getStatusCode().is2xxSuccessful() ? "success" : "rejected";
+            return response;
+        } finally {
+            metrics.recordAction(sample, action, outcome);
+        }
+    }
 }
-
@@ -0,0 +1,203 @@
+package app.battleship.api;
+
+import app.battleship.cluster.GameAffinityRouter;
+import app.battleship.model.AttackRequest;
+import app.battleship.model.GameState;
+import app.battleship.model.PlacementRequest;
+import app.battleship.model.ShipMoveRequest;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
+import app.battleship.service.GameEventLog;
+import app.battleship.service.GameService;
+import app.battleship.service.ReactiveGameService;
+import app.battleship.service.ReactiveIdempotencyService;
+import app.battleship.service.ViewShapingService;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+
+/**
+ * The game API of the reactive profile, with the same paths, payloads and responses as
+ * GameController. Handlers return Mono, so the request thread is released while Redis and Mongo
+ * work is in flight and open connections no longer cost a thread each. Placement and event
+ * catch-up are rare and still run the blocking services, on boundedElastic.
+ */
+@RestController
+@RequestMapping("/api/games")
+@Profile("reactive")
+public class ReactiveGameController {
+    
+    private final ReactiveGameService reactiveGameService;
+    private final GameService gameService;
+    private final ViewShapingService viewShapingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventLog eventLog;
+    private final ReactiveIdempotencyService idempotency;
+    private final GameAffinityRouter router;
+    private final GameMetrics metrics;
+    private final ActionLatencySlo slo;
+    
+    public ReactiveGameController(ReactiveGameService reactiveGameService, GameService gameService,
+                                  ViewShapingService viewShapingService, SimpMessagingTemplate messagingTemplate,
+                                  GameEventLog eventLog, ReactiveIdempotencyService idempotency,
+                                  GameAffinityRouter router, GameMetrics metrics, ActionLatencySlo slo) {
+        this.reactiveGameService = reactiveGameService;
+        this.gameService = gameService;
+        this.viewShapingService = viewShapingService;
+        this.messagingTemplate = messagingTemplate;
+        this.eventLog = eventLog;
+        this.idempotency = idempotency;
+        this.router = router;
+        this.metrics = metrics;
+        this.slo = slo;
+    }
+    
+    @GetMapping("/{gameId}")
+    public Mono<ResponseEntity<?>> getGameState(@PathVariable String gameId, Authentication auth) {
+        String userId = (String) auth.getPrincipal();
+        return reactiveGameService.getGameState(gameId)
+                .<ResponseEntity<?>>map(state -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("gameId", gameId);
+                    response.put("roomId", state.getRoomId());
+                    response.put("yourView", viewShapingService.createPlayerView(state, userId));
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(ReactiveGameController::badRequest);
+    }
+    
+    @GetMapping("/{gameId}/events")
+    public Mono<ResponseEntity<?>> getEvents(@PathVariable String gameId,
+                                             @RequestParam(defaultValue = "0") long afterSeq,
+                                             Authentication auth) {
+        String userId = (String) auth.getPrincipal();
+        return Mono.<ResponseEntity<?>>fromCallable(() -> ResponseEntity.ok(eventLog.eventsAfter(gameId, userId, afterSeq)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ReactiveGameController::badRequest);
+    }
+    
+    @PostMapping("/{gameId}/placement")
+    public Mono<ResponseEntity<?>> submitPlacement(@PathVariable String gameId,
+                                                   @Valid @RequestBody PlacementRequest request,
+                                                   Authentication auth, HttpServletRequest httpRequest) {
+        String playerId = (String) auth.getPrincipal();
+        return forwardIfRemote(gameId, httpRequest, request)
+                .switchIfEmpty(Mono.fromCallable(() -> placeFleet(gameId, playerId, request))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .onErrorResume(ReactiveGameController::badRequest);
+    }
+    
+    private ResponseEntity<?> placeFleet(String gameId, String playerId, PlacementRequest request) {
+        Map<String, Object> result = gameService.submitPlacement(gameId, playerId, request);
+        if (Boolean.FALSE.equals(result.get("success"))) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        
+        if (Boolean.TRUE.equals(result.get("placementComplete"))) {
+            gameService.broadcastPlacementComplete(result);
+        } else {
+            // Let the opponent know without revealing anything about the fleet
+            eventLog.publish((String) result.get("roomId"), gameId, "PLACEMENT_SUBMITTED", Map.of(
+                    "gameId", gameId,
+                    "playerId", playerId
+            ));
+        }
+        
+        GameState state = gameService.getGameState(gameId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("placementComplete", result.get("placementComplete"));
+        response.put("yourView", viewShapingService.createPlayerView(state, playerId));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{gameId}/action/attack")
+    public Mono<ResponseEntity<?>> attack(@PathVariable String gameId,
+                                          @Valid @RequestBody AttackRequest request,
+                                          Authentication auth, HttpServletRequest httpRequest) {
+        String attackerId = (String) auth.getPrincipal();
+        String idempotencyKey = "attack:" + gameId + ":" + attackerId + ":" + request.actionId();
+        return forwardIfRemote(gameId, httpRequest, request)
+                .switchIfEmpty(Mono.defer(() -> timed("attack", idempotency.execute(idempotencyKey, () ->
+                        reactiveGameService.processAttack(gameId, attackerId, request)
+                                .map(outcome -> respond(outcome, attackerId, request.actionId()))))))
+                .onErrorResume(ReactiveGameController::badRequest);
+    }
+    
+    @PostMapping("/{gameId}/action/move")
+    public Mono<ResponseEntity<?>> moveShip(@PathVariable String gameId,
+                                            @Valid @RequestBody ShipMoveRequest request,
+                                            Authentication auth, HttpServletRequest httpRequest) {
+        String playerId = (String) auth.getPrincipal();
+        String idempotencyKey = "move:" + gameId + ":" + playerId + ":" + request.actionId();
+        return forwardIfRemote(gameId, httpRequest, request)
+                .switchIfEmpty(Mono.defer(() -> timed("move", idempotency.execute(idempotencyKey, () ->
+                        reactiveGameService.processShipMove(gameId, playerId, request)
+                                .map(outcome -> respond(outcome, playerId, request.actionId()))))))
+                .onErrorResume(ReactiveGameController::badRequest);
+    }
+    
+    private ResponseEntity<?> respond(GameService.ActionResult outcome, String playerId, String actionId) {
+        Map<String, Object> result = outcome.result();
+        if (Boolean.FALSE.equals(result.get("success"))) {
+            // Broadcast rejection
+            messagingTemplate.convertAndSendToUser(playerId, "/queue/errors", Map.of(
+                    "eventId", UUID.randomUUID().toString(),
+                    "type", "ACTION_REJECTED",
+                    "payload", Map.of(
+                            "actionId", actionId,
+                            "reason", result.get("reason")
+                    )
+            ));
+            return ResponseEntity.badRequest().body(result);
+        }
+        
+        Map<String, Object> response = new HashMap<>(result);
+        if (slo.deferViews()) {
+            // Same shape as GameController's: the client re-reads its view on STATE_UPDATED
+            response.put("gameId", outcome.state().getGameId());
+            response.put("stateVersion", outcome.state().getStateVersion());
+            response.put("turn", outcome.state().getTurn());
+            response.put("currentPlayerId", outcome.state().getCurrentPlayerId());
+            response.put("viewDeferred", true);
+        } else {
+            response.put("yourView", viewShapingService.createPlayerView(outcome.state(), playerId));
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Record an action's end-to-end latency, as GameController does, once the response is ready.
+     */
+    private Mono<ResponseEntity<?>> timed(String action, Mono<ResponseEntity<?>> handler) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = metrics.start();
+            return handler
+                    .doOnNext(response -> metrics.recordAction(sample, action,
+                            response.getStatusCode().is2xxSuccessful() ? "success" : "rejected"))
+                    .doOnError(e -> metrics.recordAction(sample, action, "error"));
+        });
+    }
+    
+    private Mono<ResponseEntity<?>> forwardIfRemote(String gameId, HttpServletRequest httpRequest, Object body) {
+        if (!router.isRemote(gameId, httpRequest)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> router.forwardIfRemote(gameId, httpRequest, body))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty);
+    }
+    
+    private static Mono<ResponseEntity<?>> badRequest(Throwable e) {
+        return Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage()))));
+    }
+}
@@ -1,11 +1,14 @@
 package app.battleship.api;
 
+import app.battleship.model.GameVariant;
 import app.battleship.model.Room;
+import app.battleship.service.GameVariantService;
 import app.battleship.service.RoomService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -14,9 +17,11 @@ import java.util.Map;
 public class RoomController {
     
     private final RoomService roomService;
+    private final GameVariantService variantService;
     
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, GameVariantService variantService) {
         this.roomService = roomService;
+        this.variantService = variantService;
     }
     
     @GetMapping("/health")
@@ -24,16 +29,21 @@ public class RoomController {
         return Map.of("status", "ok");
     }
     
+    @GetMapping("/variants")
+    public Collection<GameVariant> getVariants() {
+        return variantService.getVariants();
+    }
+    
     @GetMapping("/rooms")
     public List<Room> getRooms() {
         return roomService.getWaitingRooms();
     }
     
     @PostMapping("/rooms")
-    public ResponseEntity<?> createRoom(Authentication auth) {
+    public ResponseEntity<?> createRoom(@RequestParam(required = false) String variant, Authentication auth) {
         try {
             String userId = (String) auth.getPrincipal();
-            Room room = roomService.createRoom(userId);
+            Room room = roomService.createRoom(userId, variant);
             return ResponseEntity.ok(Map.of("roomId", room.getId()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -0,0 +1,35 @@
+package app.battleship.api;
+
+import app.battleship.service.GameService;
+import app.battleship.service.SpectatorService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/games")
+public class SpectatorController {
+    
+    private final SpectatorService spectatorService;
+    private final GameService gameService;
+    
+    public SpectatorController(SpectatorService spectatorService, GameService gameService) {
+        this.spectatorService = spectatorService;
+        this.gameService = gameService;
+    }
+    
+    /**
+     * The current spectator frame; later ones arrive on /topic/games/{gameId}/spectate.
+     */
+    @GetMapping("/{gameId}/spectate")
+    public ResponseEntity<?> spectate(@PathVariable String gameId, Authentication auth) {
+        try {
+            String userId = (String) auth.getPrincipal();
+            return ResponseEntity.ok(spectatorService.currentFrame(gameId, userId, () -> gameService.getGameState(gameId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
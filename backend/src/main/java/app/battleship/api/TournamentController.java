@@ -0,0 +1,72 @@
+package app.battleship.api;
+
+import app.battleship.model.Tournament;
+import app.battleship.service.TournamentService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tournaments")
+public class TournamentController {
+    
+    private final TournamentService tournamentService;
+    
+    public TournamentController(TournamentService tournamentService) {
+        this.tournamentService = tournamentService;
+    }
+    
+    @GetMapping
+    public List<Tournament> getTournaments() {
+        return tournamentService.getOpenTournaments();
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> createTournament(@RequestParam(required = false) String name,
+                                              @RequestParam(required = false) String variant,
+                                              @RequestParam(required = false) Integer maxPlayers,
+                                              Authentication auth) {
+        try {
+            String userId = (String) auth.getPrincipal();
+            Tournament tournament = tournamentService.create(userId, name, variant, maxPlayers);
+            return ResponseEntity.ok(Map.of("tournamentId", tournament.getId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * The tournament and its matches, round by round; changes arrive on /topic/tournaments/{id}.
+     */
+    @GetMapping("/{tournamentId}")
+    public ResponseEntity<?> getTournament(@PathVariable String tournamentId) {
+        try {
+            return ResponseEntity.ok(tournamentService.getBracket(tournamentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{tournamentId}/join")
+    public ResponseEntity<?> joinTournament(@PathVariable String tournamentId, Authentication auth) {
+        try {
+            String userId = (String) auth.getPrincipal();
+            return ResponseEntity.ok(tournamentService.join(tournamentId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{tournamentId}/start")
+    public ResponseEntity<?> startTournament(@PathVariable String tournamentId, Authentication auth) {
+        try {
+            String userId = (String) auth.getPrincipal();
+            return ResponseEntity.ok(tournamentService.start(tournamentId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package app.battleship.cluster;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.ClusterTopologyChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the live nodes of the cluster and assigns every game an owner on a consistent-hash
+ * ring. Nodes heartbeat into the sorted set cluster:heartbeats (score = last beat) and publish
+ * their URL in cluster:nodes; a node missing heartbeats for cluster.node-ttl-millis is pruned
+ * by whichever node notices first. With cluster.enabled off the ring holds this node only.
+ */
+@Component
+public class ClusterMembership {
+    
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+    
+    private static final String NODES_KEY = "cluster:nodes";
+    private static final String HEARTBEATS_KEY = "cluster:heartbeats";
+    
+    private final StringRedisTemplate redis;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BattleshipProperties.Cluster config;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService heartbeat;
+    
+    private volatile ConsistentHashRing ring;
+    
+    public ClusterMembership(StringRedisTemplate redis, ApplicationEventPublisher eventPublisher,
+                             BattleshipProperties properties, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.eventPublisher = eventPublisher;
+        this.config = properties.getCluster();
+        this.ring = new ConsistentHashRing(Map.of(nodeId, config.getAdvertisedUrl()), config.getVirtualNodes());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        Gauge.builder("battleship.cluster.nodes", this, m -> m.ring.getNodes().size())
+                .description("Live nodes on the game ownership ring")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        if (config.isEnabled()) {
+            heartbeat.scheduleWithFixedDelay(this::beat, 0, config.getHeartbeatMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+        if (config.isEnabled()) {
+            try {
+                redis.opsForZSet().remove(HEARTBEATS_KEY, nodeId);
+                redis.opsForHash().delete(NODES_KEY, nodeId);
+            } catch (Exception e) {
+                log.debug("Failed to leave the cluster cleanly", e);
+            }
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public boolean isLocal(String gameId) {
+        return nodeId.equals(ring.ownerOf(gameId));
+    }
+    
+    /**
+     * Base URL of the node owning the game, or null when this node owns it.
+     */
+    public String ownerUrl(String gameId) {
+        ConsistentHashRing current = ring;
+        String owner = current.ownerOf(gameId);
+        return owner == null || owner.equals(nodeId) ? null : current.urlOf(owner);
+    }
+    
+    private void beat() {
+        try {
+            long now = System.currentTimeMillis();
+            redis.opsForHash().put(NODES_KEY, nodeId, config.getAdvertisedUrl());
+            redis.opsForZSet().add(HEARTBEATS_KEY, nodeId, now);
+            
+            Set<String> dead = redis.opsForZSet().rangeByScore(HEARTBEATS_KEY, 0, now - config.getNodeTtlMillis());
+            if (dead != null && !dead.isEmpty()) {
+                redis.opsForZSet().remove(HEARTBEATS_KEY, dead.toArray());
+                redis.opsForHash().delete(NODES_KEY, dead.toArray());
+                log.info("Pruned unresponsive nodes {}", dead);
+            }
+            
+            Map<String, String> live = new HashMap<>();
+            for (Map.Entry<Object, Object> entry : redis.opsForHash().entries(NODES_KEY).entrySet()) {
+                live.put(entry.getKey().toString(), entry.getValue().toString());
+            }
+            live.put(nodeId, config.getAdvertisedUrl());
+            
+            if (!live.equals(ring.getNodes())) {
+                ring = new ConsistentHashRing(live, config.getVirtualNodes());
+                log.info("Cluster topology changed: {} nodes", live.size());
+                eventPublisher.publishEvent(new ClusterTopologyChangedEvent(Set.copyOf(live.keySet())));
+            }
+        } catch (Exception e) {
+            log.warn("Cluster heartbeat failed", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package app.battleship.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring mapping keys to node ids. Each node is placed at
+ * virtualNodes points so load stays even, and adding or removing a node only moves the keys
+ * between it and its ring neighbours.
+ */
+public final class ConsistentHashRing {
+    
+    private final NavigableMap<Long, String> ring;
+    private final Map<String, String> nodes;
+    
+    public ConsistentHashRing(Map<String, String> nodes, int virtualNodes) {
+        NavigableMap<Long, String> points = new TreeMap<>();
+        for (String nodeId : nodes.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        this.ring = Collections.unmodifiableNavigableMap(points);
+        this.nodes = Map.copyOf(nodes);
+    }
+    
+    /**
+     * Node id owning the key, or null when the ring is empty.
+     */
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+    
+    public String urlOf(String nodeId) {
+        return nodes.get(nodeId);
+    }
+    
+    public Map<String, String> getNodes() {
+        return nodes;
+    }
+    
+    // 64-bit FNV-1a with a murmur finalizer so similar ids spread over the whole ring
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
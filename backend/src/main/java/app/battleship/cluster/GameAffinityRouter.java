@@ -0,0 +1,171 @@
+package app.battleship.cluster;
+
+import app.battleship.config.BattleshipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Sends game actions to the node that owns the game, so that its state stays hot in one
+ * process. Forwarded requests carry X-Battleship-Forwarded and are always handled where they
+ * land, which stops loops while the ring is converging. The header is signed with the cluster's
+ * forward secret; a client that sends its own is routed like any other request. If the owner
+ * can't be reached the action is handled locally: every state write, an action together with
+ * its turn switch, is a compare-and-set on the game's revision, so two nodes acting on one game
+ * cost a retry rather than a lost update.
+ */
+@Component
+public class GameAffinityRouter {
+    
+    private static final Logger log = LoggerFactory.getLogger(GameAffinityRouter.class);
+    
+    public static final String FORWARDED_HEADER = "X-Battleship-Forwarded";
+    
+    // How old a forward signature may be, allowing for clock skew between nodes
+    private static final long SIGNATURE_MAX_AGE_MILLIS = 60_000;
+    
+    private final ClusterMembership membership;
+    private final SecretKeySpec forwardKey;
+    private final RestClient restClient;
+    private final Counter forwarded;
+    private final Counter forwardFailures;
+    
+    public GameAffinityRouter(ClusterMembership membership, BattleshipProperties properties, MeterRegistry meterRegistry,
+                              ObservationRegistry observationRegistry) {
+        this.membership = membership;
+        String secret = properties.getCluster().getForwardSecret();
+        this.forwardKey = new SecretKeySpec((secret == null || secret.isEmpty() ? properties.getJwt().getSecret() : secret)
+                .getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        
+        int timeoutMillis = (int) properties.getCluster().getForwardTimeoutMillis();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        // Observed, so the forwarded request continues the caller's trace
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .observationRegistry(observationRegistry)
+                .build();
+        
+        this.forwarded = Counter.builder("battleship.cluster.forwarded")
+                .description("Game actions forwarded to the owning node")
+                .register(meterRegistry);
+        this.forwardFailures = Counter.builder("battleship.cluster.forward.failures")
+                .description("Forwards that failed and were handled locally instead")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether forwardIfRemote would send the request elsewhere; lets non-blocking callers skip
+     * the hop off the event loop for games they own.
+     */
+    public boolean isRemote(String gameId, HttpServletRequest request) {
+        return !isForwarded(request) && membership.ownerUrl(gameId) != null;
+    }
+    
+    /**
+     * Whether another node forwarded the request: the header is {nodeId}.{epochMillis}.{signature}
+     * over the method and path, and must be recent.
+     */
+    public boolean isForwarded(HttpServletRequest request) {
+        String header = request.getHeader(FORWARDED_HEADER);
+        if (header == null) {
+            return false;
+        }
+        int signatureStart = header.lastIndexOf('.');
+        int timestampStart = header.lastIndexOf('.', signatureStart - 1);
+        if (timestampStart <= 0) {
+            return false;
+        }
+        try {
+            long signedAt = Long.parseLong(header.substring(timestampStart + 1, signatureStart));
+            if (Math.abs(System.currentTimeMillis() - signedAt) > SIGNATURE_MAX_AGE_MILLIS) {
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        byte[] expected = sign(header.substring(0, signatureStart), request.getMethod(), request.getRequestURI());
+        return MessageDigest.isEqual(expected, header.substring(signatureStart + 1).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * The owner's response when the game belongs to another node; empty when the request
+     * should be handled here.
+     */
+    public Optional<ResponseEntity<?>> forwardIfRemote(String gameId, HttpServletRequest request, Object body) {
+        if (isForwarded(request)) {
+            return Optional.empty();
+        }
+        String ownerUrl = membership.ownerUrl(gameId);
+        if (ownerUrl == null) {
+            return Optional.empty();
+        }
+        
+        String uri = ownerUrl + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        try {
+            ResponseEntity<?> response = restClient.method(HttpMethod.valueOf(request.getMethod()))
+                    .uri(uri)
+                    .headers(headers -> copyCredentials(request, headers))
+                    .header(FORWARDED_HEADER, forwardedHeader(request))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body)
+                    .exchange((req, res) -> ResponseEntity.status(res.getStatusCode())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(new String(res.getBody().readAllBytes(), StandardCharsets.UTF_8)));
+            forwarded.increment();
+            return Optional.of(response);
+        } catch (Exception e) {
+            forwardFailures.increment();
+            log.warn("Forwarding {} to owner {} failed, handling locally", uri, ownerUrl, e);
+            return Optional.empty();
+        }
+    }
+    
+    private String forwardedHeader(HttpServletRequest request) {
+        String signed = membership.getNodeId() + "." + System.currentTimeMillis();
+        return signed + "." + new String(sign(signed, request.getMethod(), request.getRequestURI()), StandardCharsets.UTF_8);
+    }
+    
+    private byte[] sign(String signed, String method, String path) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(forwardKey);
+            byte[] signature = mac.doFinal((signed + "\n" + method + " " + path).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encode(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+    
+    // Clients authenticate with either a bearer token or the jwt cookie; the owner needs the same
+    private static void copyCredentials(HttpServletRequest request, HttpHeaders headers) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        String cookie = request.getHeader(HttpHeaders.COOKIE);
+        if (cookie != null) {
+            headers.set(HttpHeaders.COOKIE, cookie);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package app.battleship.config;
 
+import app.battleship.model.GameVariant;
+import app.battleship.model.ShipKind;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties
 public class BattleshipProperties {
@@ -12,15 +19,32 @@ public class BattleshipProperties {
     private Room room = new Room();
     private Turn turn = new Turn();
     private Reconnect reconnect = new Reconnect();
+    private Placement placement = new Placement();
+    private Variants variants = new Variants();
+    private Events events = new Events();
+    private Archive archive = new Archive();
+    private Keys keys = new Keys();
+    private Snapshot snapshot = new Snapshot();
+    private Leader leader = new Leader();
+    private Cluster cluster = new Cluster();
+    private VirtualThreads virtualThreads = new VirtualThreads();
+    private Profiling profiling = new Profiling();
+    private Slo slo = new Slo();
+    private RateLimit rateLimit = new RateLimit();
+    private Spectate spectate = new Spectate();
+    private Tournament tournament = new Tournament();
     
     public static class Jwt {
         private String secret = "please_change_me_this_is_a_very_long_secret_key_for_jwt_signing";
         private long expiration = 86400;
+        private List<String> adminUserIds = new ArrayList<>();
         
         public String getSecret() { return secret; }
         public void setSecret(String secret) { this.secret = secret; }
         public long getExpiration() { return expiration; }
         public void setExpiration(long expiration) { this.expiration = expiration; }
+        public List<String> getAdminUserIds() { return adminUserIds; }
+        public void setAdminUserIds(List<String> adminUserIds) { this.adminUserIds = adminUserIds; }
     }
     
     public static class OpenAI {
@@ -40,11 +64,14 @@ public class BattleshipProperties {
     public static class Room {
         private Empty empty = new Empty();
         private Cleanup cleanup = new Cleanup();
+        private int startParallelism = 32;
         
         public Empty getEmpty() { return empty; }
         public void setEmpty(Empty empty) { this.empty = empty; }
         public Cleanup getCleanup() { return cleanup; }
         public void setCleanup(Cleanup cleanup) { this.cleanup = cleanup; }
+        public int getStartParallelism() { return startParallelism; }
+        public void setStartParallelism(int startParallelism) { this.startParallelism = startParallelism; }
         
         public static class Empty {
             private long ttl = 60;
@@ -69,17 +96,45 @@ public class BattleshipProperties {
         
         public static class Timeout {
             private long sec = 30;
+            private Action action = Action.SKIP;
+            private long tickMillis = 100;
+            private int wheelSize = 512;
+            private long sweepInterval = 5000;
+            private long sweepSlackMillis = 5000;
+            private int maxConsecutive = 4;
             
             public long getSec() { return sec; }
             public void setSec(long sec) { this.sec = sec; }
+            public Action getAction() { return action; }
+            public void setAction(Action action) { this.action = action; }
+            public long getTickMillis() { return tickMillis; }
+            public void setTickMillis(long tickMillis) { this.tickMillis = tickMillis; }
+            public int getWheelSize() { return wheelSize; }
+            public void setWheelSize(int wheelSize) { this.wheelSize = wheelSize; }
+            public long getSweepInterval() { return sweepInterval; }
+            public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+            public long getSweepSlackMillis() { return sweepSlackMillis; }
+            public void setSweepSlackMillis(long sweepSlackMillis) { this.sweepSlackMillis = sweepSlackMillis; }
+            public int getMaxConsecutive() { return maxConsecutive; }
+            public void setMaxConsecutive(int maxConsecutive) { this.maxConsecutive = maxConsecutive; }
+            
+            public enum Action {
+                SKIP, FORFEIT
+            }
         }
     }
     
     public static class Reconnect {
         private Grace grace = new Grace();
+        private long heartbeatMillis = 5000;
+        private long nodeTtlMillis = 20000;
         
         public Grace getGrace() { return grace; }
         public void setGrace(Grace grace) { this.grace = grace; }
+        public long getHeartbeatMillis() { return heartbeatMillis; }
+        public void setHeartbeatMillis(long heartbeatMillis) { this.heartbeatMillis = heartbeatMillis; }
+        public long getNodeTtlMillis() { return nodeTtlMillis; }
+        public void setNodeTtlMillis(long nodeTtlMillis) { this.nodeTtlMillis = nodeTtlMillis; }
         
         public static class Grace {
             private long sec = 60;
@@ -89,6 +144,345 @@ public class BattleshipProperties {
         }
     }
     
+    public static class Placement {
+        private Pool pool = new Pool();
+        private Phase phase = new Phase();
+        private Timeout timeout = new Timeout();
+        
+        public Pool getPool() { return pool; }
+        public void setPool(Pool pool) { this.pool = pool; }
+        public Phase getPhase() { return phase; }
+        public void setPhase(Phase phase) { this.phase = phase; }
+        public Timeout getTimeout() { return timeout; }
+        public void setTimeout(Timeout timeout) { this.timeout = timeout; }
+        
+        public static class Phase {
+            private boolean enabled = false;
+            
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        }
+        
+        public static class Timeout {
+            private long sec = 60;
+            
+            public long getSec() { return sec; }
+            public void setSec(long sec) { this.sec = sec; }
+        }
+        
+        public static class Pool {
+            private int capacity = 256;
+            private int refillThreshold = 64;
+            private int parallelism = 2;
+            
+            public int getCapacity() { return capacity; }
+            public void setCapacity(int capacity) { this.capacity = capacity; }
+            public int getRefillThreshold() { return refillThreshold; }
+            public void setRefillThreshold(int refillThreshold) { this.refillThreshold = refillThreshold; }
+            public int getParallelism() { return parallelism; }
+            public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        }
+    }
+    
+    public static class Variants {
+        private String defaultVariant = GameVariant.CLASSIC_NAME;
+        private Map<String, Variant> definitions = new LinkedHashMap<>(Map.of(GameVariant.CLASSIC_NAME, new Variant()));
+        
+        public String getDefaultVariant() { return defaultVariant; }
+        public void setDefaultVariant(String defaultVariant) { this.defaultVariant = defaultVariant; }
+        public Map<String, Variant> getDefinitions() { return definitions; }
+        public void setDefinitions(Map<String, Variant> definitions) { this.definitions = definitions; }
+    }
+    
+    public static class Variant {
+        private int boardSize = GameVariant.CLASSIC_BOARD_SIZE;
+        private List<ShipKind> fleet = new ArrayList<>(GameVariant.CLASSIC_FLEET);
+        
+        public int getBoardSize() { return boardSize; }
+        public void setBoardSize(int boardSize) { this.boardSize = boardSize; }
+        public List<ShipKind> getFleet() { return fleet; }
+        public void setFleet(List<ShipKind> fleet) { this.fleet = fleet; }
+    }
+    
+    public static class Events {
+        private Buffer buffer = new Buffer();
+        
+        public Buffer getBuffer() { return buffer; }
+        public void setBuffer(Buffer buffer) { this.buffer = buffer; }
+        
+        public static class Buffer {
+            private int capacity = 256;
+            private long retainSec = 300;
+            private int maxBatch = 200;
+            private long idleSec = 1800;
+            private long sweepInterval = 60000;
+            
+            public int getCapacity() { return capacity; }
+            public void setCapacity(int capacity) { this.capacity = capacity; }
+            public long getRetainSec() { return retainSec; }
+            public void setRetainSec(long retainSec) { this.retainSec = retainSec; }
+            public int getMaxBatch() { return maxBatch; }
+            public void setMaxBatch(int maxBatch) { this.maxBatch = maxBatch; }
+            public long getIdleSec() { return idleSec; }
+            public void setIdleSec(long idleSec) { this.idleSec = idleSec; }
+            public long getSweepInterval() { return sweepInterval; }
+            public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+        }
+    }
+    
+    public static class Archive {
+        private boolean enabled = true;
+        private long delaySec = 300;
+        private long sweepInterval = 60000;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getDelaySec() { return delaySec; }
+        public void setDelaySec(long delaySec) { this.delaySec = delaySec; }
+        public long getSweepInterval() { return sweepInterval; }
+        public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+    }
+    
+    public static class Keys {
+        private long gameTtlSec = 86400;
+        private long idempotencyTtlSec = 300;
+        private long idempotencyWaitMillis = 5000;
+        private long metricsInterval = 60000;
+        private int metricsSampleSize = 100;
+        
+        public long getGameTtlSec() { return gameTtlSec; }
+        public void setGameTtlSec(long gameTtlSec) { this.gameTtlSec = gameTtlSec; }
+        public long getIdempotencyTtlSec() { return idempotencyTtlSec; }
+        public void setIdempotencyTtlSec(long idempotencyTtlSec) { this.idempotencyTtlSec = idempotencyTtlSec; }
+        public long getIdempotencyWaitMillis() { return idempotencyWaitMillis; }
+        public void setIdempotencyWaitMillis(long idempotencyWaitMillis) { this.idempotencyWaitMillis = idempotencyWaitMillis; }
+        public long getMetricsInterval() { return metricsInterval; }
+        public void setMetricsInterval(long metricsInterval) { this.metricsInterval = metricsInterval; }
+        public int getMetricsSampleSize() { return metricsSampleSize; }
+        public void setMetricsSampleSize(int metricsSampleSize) { this.metricsSampleSize = metricsSampleSize; }
+    }
+    
+    public static class Snapshot {
+        private int maxEvents = 20;
+        private long maxBytes = 262144;
+        private boolean diffEnabled = true;
+        private long idleSec = 1800;
+        private long sweepInterval = 60000;
+        
+        public int getMaxEvents() { return maxEvents; }
+        public void setMaxEvents(int maxEvents) { this.maxEvents = maxEvents; }
+        public long getMaxBytes() { return maxBytes; }
+        public void setMaxBytes(long maxBytes) { this.maxBytes = maxBytes; }
+        public boolean isDiffEnabled() { return diffEnabled; }
+        public void setDiffEnabled(boolean diffEnabled) { this.diffEnabled = diffEnabled; }
+        public long getIdleSec() { return idleSec; }
+        public void setIdleSec(long idleSec) { this.idleSec = idleSec; }
+        public long getSweepInterval() { return sweepInterval; }
+        public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+    }
+    
+    public static class Leader {
+        private long leaseMillis = 3000;
+        private long renewIntervalMillis = 1000;
+        
+        public long getLeaseMillis() { return leaseMillis; }
+        public void setLeaseMillis(long leaseMillis) { this.leaseMillis = leaseMillis; }
+        public long getRenewIntervalMillis() { return renewIntervalMillis; }
+        public void setRenewIntervalMillis(long renewIntervalMillis) { this.renewIntervalMillis = renewIntervalMillis; }
+    }
+    
+    public static class Cluster {
+        private boolean enabled = false;
+        private String advertisedUrl = "http://localhost:8080";
+        private long heartbeatMillis = 1000;
+        private long nodeTtlMillis = 5000;
+        private int virtualNodes = 128;
+        private long forwardTimeoutMillis = 2000;
+        private String forwardSecret = "";
+        private int cacheMaxEntries = 10000;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getAdvertisedUrl() { return advertisedUrl; }
+        public void setAdvertisedUrl(String advertisedUrl) { this.advertisedUrl = advertisedUrl; }
+        public long getHeartbeatMillis() { return heartbeatMillis; }
+        public void setHeartbeatMillis(long heartbeatMillis) { this.heartbeatMillis = heartbeatMillis; }
+        public long getNodeTtlMillis() { return nodeTtlMillis; }
+        public void setNodeTtlMillis(long nodeTtlMillis) { this.nodeTtlMillis = nodeTtlMillis; }
+        public int getVirtualNodes() { return virtualNodes; }
+        public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+        public long getForwardTimeoutMillis() { return forwardTimeoutMillis; }
+        public void setForwardTimeoutMillis(long forwardTimeoutMillis) { this.forwardTimeoutMillis = forwardTimeoutMillis; }
+        public String getForwardSecret() { return forwardSecret; }
+        public void setForwardSecret(String forwardSecret) { this.forwardSecret = forwardSecret; }
+        public int getCacheMaxEntries() { return cacheMaxEntries; }
+        public void setCacheMaxEntries(int cacheMaxEntries) { this.cacheMaxEntries = cacheMaxEntries; }
+    }
+    
+    public static class VirtualThreads {
+        private long pinnedThresholdMillis = 20;
+        private int pinnedStackDepth = 8;
+        
+        public long getPinnedThresholdMillis() { return pinnedThresholdMillis; }
+        public void setPinnedThresholdMillis(long pinnedThresholdMillis) { this.pinnedThresholdMillis = pinnedThresholdMillis; }
+        public int getPinnedStackDepth() { return pinnedStackDepth; }
+        public void setPinnedStackDepth(int pinnedStackDepth) { this.pinnedStackDepth = pinnedStackDepth; }
+    }
+    
+    public static class Profiling {
+        private String directory = System.getProperty("java.io.tmpdir") + "/battleship-jfr";
+        private boolean continuous = true;
+        private int continuousMaxAgeMinutes = 30;
+        private int continuousMaxSizeMb = 100;
+        private int defaultDurationSeconds = 60;
+        private int maxDurationSeconds = 900;
+        private int maxFiles = 20;
+        private int diskCapMb = 1024;
+        private long lockThresholdMillis = 10;
+        private long socketThresholdMillis = 10;
+        
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public boolean isContinuous() { return continuous; }
+        public void setContinuous(boolean continuous) { this.continuous = continuous; }
+        public int getContinuousMaxAgeMinutes() { return continuousMaxAgeMinutes; }
+        public void setContinuousMaxAgeMinutes(int continuousMaxAgeMinutes) { this.continuousMaxAgeMinutes = continuousMaxAgeMinutes; }
+        public int getContinuousMaxSizeMb() { return continuousMaxSizeMb; }
+        public void setContinuousMaxSizeMb(int continuousMaxSizeMb) { this.continuousMaxSizeMb = continuousMaxSizeMb; }
+        public int getDefaultDurationSeconds() { return defaultDurationSeconds; }
+        public void setDefaultDurationSeconds(int defaultDurationSeconds) { this.defaultDurationSeconds = defaultDurationSeconds; }
+        public int getMaxDurationSeconds() { return maxDurationSeconds; }
+        public void setMaxDurationSeconds(int maxDurationSeconds) { this.maxDurationSeconds = maxDurationSeconds; }
+        public int getMaxFiles() { return maxFiles; }
+        public void setMaxFiles(int maxFiles) { this.maxFiles = maxFiles; }
+        public int getDiskCapMb() { return diskCapMb; }
+        public void setDiskCapMb(int diskCapMb) { this.diskCapMb = diskCapMb; }
+        public long getLockThresholdMillis() { return lockThresholdMillis; }
+        public void setLockThresholdMillis(long lockThresholdMillis) { this.lockThresholdMillis = lockThresholdMillis; }
+        public long getSocketThresholdMillis() { return socketThresholdMillis; }
+        public void setSocketThresholdMillis(long socketThresholdMillis) { this.socketThresholdMillis = socketThresholdMillis; }
+    }
+    
+    public static class Slo {
+        private boolean enabled = true;
+        private long actionP99Millis = 250;
+        private int windowSeconds = 60;
+        private int minSamples = 100;
+        private long evaluateIntervalMillis = 5000;
+        private int breachEvaluations = 3;
+        private double recoverRatio = 0.7;
+        private int recoverEvaluations = 6;
+        private boolean degradeSuggestions = true;
+        private int snapshotBackoffFactor = 4;
+        private boolean deferViews = true;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getActionP99Millis() { return actionP99Millis; }
+        public void setActionP99Millis(long actionP99Millis) { this.actionP99Millis = actionP99Millis; }
+        public int getWindowSeconds() { return windowSeconds; }
+        public void setWindowSeconds(int windowSeconds) { this.windowSeconds = windowSeconds; }
+        public int getMinSamples() { return minSamples; }
+        public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+        public long getEvaluateIntervalMillis() { return evaluateIntervalMillis; }
+        public void setEvaluateIntervalMillis(long evaluateIntervalMillis) { this.evaluateIntervalMillis = evaluateIntervalMillis; }
+        public int getBreachEvaluations() { return breachEvaluations; }
+        public void setBreachEvaluations(int breachEvaluations) { this.breachEvaluations = breachEvaluations; }
+        public double getRecoverRatio() { return recoverRatio; }
+        public void setRecoverRatio(double recoverRatio) { this.recoverRatio = recoverRatio; }
+        public int getRecoverEvaluations() { return recoverEvaluations; }
+        public void setRecoverEvaluations(int recoverEvaluations) { this.recoverEvaluations = recoverEvaluations; }
+        public boolean isDegradeSuggestions() { return degradeSuggestions; }
+        public void setDegradeSuggestions(boolean degradeSuggestions) { this.degradeSuggestions = degradeSuggestions; }
+        public int getSnapshotBackoffFactor() { return snapshotBackoffFactor; }
+        public void setSnapshotBackoffFactor(int snapshotBackoffFactor) { this.snapshotBackoffFactor = snapshotBackoffFactor; }
+        public boolean isDeferViews() { return deferViews; }
+        public void setDeferViews(boolean deferViews) { this.deferViews = deferViews; }
+    }
+    
+    public static class RateLimit {
+        private boolean enabled = true;
+        private Limit userActions = new Limit(10, 5);
+        private Limit gameActions = new Limit(20, 10);
+        private Limit userSuggestions = new Limit(2, 0.125);
+        private Limit gameSuggestions = new Limit(4, 0.25);
+        private boolean redisSync = false;
+        private long redisWindowMillis = 10000;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public Limit getUserActions() { return userActions; }
+        public void setUserActions(Limit userActions) { this.userActions = userActions; }
+        public Limit getGameActions() { return gameActions; }
+        public void setGameActions(Limit gameActions) { this.gameActions = gameActions; }
+        public Limit getUserSuggestions() { return userSuggestions; }
+        public void setUserSuggestions(Limit userSuggestions) { this.userSuggestions = userSuggestions; }
+        public Limit getGameSuggestions() { return gameSuggestions; }
+        public void setGameSuggestions(Limit gameSuggestions) { this.gameSuggestions = gameSuggestions; }
+        public boolean isRedisSync() { return redisSync; }
+        public void setRedisSync(boolean redisSync) { this.redisSync = redisSync; }
+        public long getRedisWindowMillis() { return redisWindowMillis; }
+        public void setRedisWindowMillis(long redisWindowMillis) { this.redisWindowMillis = redisWindowMillis; }
+        
+        public static class Limit {
+            private int capacity;
+            private double refillPerSecond;
+            
+            public Limit() {}
+            
+            public Limit(int capacity, double refillPerSecond) {
+                this.capacity = capacity;
+                this.refillPerSecond = refillPerSecond;
+            }
+            
+            public int getCapacity() { return capacity; }
+            public void setCapacity(int capacity) { this.capacity = capacity; }
+            public double getRefillPerSecond() { return refillPerSecond; }
+            public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+        }
+    }
+    
+    public static class Spectate {
+        private boolean enabled = true;
+        private boolean revealShips = true;
+        private int delayTurns = 3;
+        private long idleSec = 60;
+        private long retainSec = 300;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public boolean isRevealShips() { return revealShips; }
+        public void setRevealShips(boolean revealShips) { this.revealShips = revealShips; }
+        public int getDelayTurns() { return delayTurns; }
+        public void setDelayTurns(int delayTurns) { this.delayTurns = delayTurns; }
+        public long getIdleSec() { return idleSec; }
+        public void setIdleSec(long idleSec) { this.idleSec = idleSec; }
+        public long getRetainSec() { return retainSec; }
+        public void setRetainSec(long retainSec) { this.retainSec = retainSec; }
+    }
+    
+    public static class Tournament {
+        private int maxPlayers = 1024;
+        private long roundBreakSec = 30;
+        private long flushInterval = 500;
+        private int flushBatch = 500;
+        private long sweepInterval = 30000;
+        private long noShowSec = 180;
+        
+        public int getMaxPlayers() { return maxPlayers; }
+        public void setMaxPlayers(int maxPlayers) { this.maxPlayers = maxPlayers; }
+        public long getRoundBreakSec() { return roundBreakSec; }
+        public void setRoundBreakSec(long roundBreakSec) { this.roundBreakSec = roundBreakSec; }
+        public long getFlushInterval() { return flushInterval; }
+        public void setFlushInterval(long flushInterval) { this.flushInterval = flushInterval; }
+        public int getFlushBatch() { return flushBatch; }
+        public void setFlushBatch(int flushBatch) { this.flushBatch = flushBatch; }
+        public long getSweepInterval() { return sweepInterval; }
+        public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+        public long getNoShowSec() { return noShowSec; }
+        public void setNoShowSec(long noShowSec) { this.noShowSec = noShowSec; }
+    }
+    
     // Getters and setters
     public Jwt getJwt() { return jwt; }
     public void setJwt(Jwt jwt) { this.jwt = jwt; }
@@ -100,5 +494,33 @@ public class BattleshipProperties {
     public void setTurn(Turn turn) { this.turn = turn; }
     public Reconnect getReconnect() { return reconnect; }
     public void setReconnect(Reconnect reconnect) { this.reconnect = reconnect; }
+    public Placement getPlacement() { return placement; }
+    public void setPlacement(Placement placement) { this.placement = placement; }
+    public Variants getVariants() { return variants; }
+    public void setVariants(Variants variants) { this.variants = variants; }
+    public Events getEvents() { return events; }
+    public void setEvents(Events events) { this.events = events; }
+    public Archive getArchive() { return archive; }
+    public void setArchive(Archive archive) { this.archive = archive; }
+    public Keys getKeys() { return keys; }
+    public void setKeys(Keys keys) { this.keys = keys; }
+    public Snapshot getSnapshot() { return snapshot; }
+    public void setSnapshot(Snapshot snapshot) { this.snapshot = snapshot; }
+    public Leader getLeader() { return leader; }
+    public void setLeader(Leader leader) { this.leader = leader; }
+    public Cluster getCluster() { return cluster; }
+    public void setCluster(Cluster cluster) { this.cluster = cluster; }
+    public VirtualThreads getVirtualThreads() { return virtualThreads; }
+    public void setVirtualThreads(VirtualThreads virtualThreads) { this.virtualThreads = virtualThreads; }
+    public Profiling getProfiling() { return profiling; }
+    public void setProfiling(Profiling profiling) { this.profiling = profiling; }
+    public Slo getSlo() { return slo; }
+    public void setSlo(Slo slo) { this.slo = slo; }
+    public RateLimit getRateLimit() { return rateLimit; }
+    public void setRateLimit(RateLimit rateLimit) { this.rateLimit = rateLimit; }
+    public Spectate getSpectate() { return spectate; }
+    public void setSpectate(Spectate spectate) { this.spectate = spectate; }
+    public Tournament getTournament() { return tournament; }
+    public void setTournament(Tournament tournament) { this.tournament = tournament; }
 }
 
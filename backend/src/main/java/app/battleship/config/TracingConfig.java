@@ -0,0 +1,30 @@
+package app.battleship.config;
+
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Spans for every Redis and Mongo command, as children of the request being served. HTTP
+ * requests (in and forwarded) are observed by Boot; W3C traceparent is propagated.
+ */
+@Configuration
+public class TracingConfig {
+    
+    @Bean
+    public ClientResourcesBuilderCustomizer redisTracing(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "battleship-redis"));
+    }
+    
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoTracing(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -1,7 +1,9 @@
 package app.battleship.config;
 
+import app.battleship.security.SpectatorSubscriptionInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
 
@@ -9,6 +11,12 @@ import org.springframework.web.socket.config.annotation.*;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    private final SpectatorSubscriptionInterceptor spectatorSubscriptionInterceptor;
+    
+    public WebSocketConfig(SpectatorSubscriptionInterceptor spectatorSubscriptionInterceptor) {
+        this.spectatorSubscriptionInterceptor = spectatorSubscriptionInterceptor;
+    }
+    
     @Override 
     public void registerStompEndpoints(@NonNull StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -23,4 +31,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setApplicationDestinationPrefixes("/app");
         config.enableSimpleBroker("/topic", "/queue");
     }
+    
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(spectatorSubscriptionInterceptor);
+    }
 }
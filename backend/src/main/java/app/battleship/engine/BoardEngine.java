@@ -0,0 +1,218 @@
+package app.battleship.engine;
+
+import app.battleship.model.FleetLayout;
+import app.battleship.model.ShipKind;
+import app.battleship.model.ShipPlacement;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Board operations for one board size. Subclasses pick the cheapest mask
+ * representation for their size; obtain instances through BoardEngines.forSize.
+ */
+public abstract class BoardEngine {
+    
+    private static final int UNIFORM_ATTEMPTS = 1_000;
+    private static final int SHIP_ATTEMPTS = 100;
+    private static final int MAX_FLEET_RESTARTS = 1_000;
+    
+    protected final int size;
+    protected final int cells;
+    private final ConcurrentMap<Integer, PlacementTable> placementTables = new ConcurrentHashMap<>();
+    
+    protected BoardEngine(int size) {
+        this.size = size;
+        this.cells = size * size;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int cells() {
+        return cells;
+    }
+    
+    public abstract BoardMask newMask();
+    
+    public boolean isValidCoord(int r, int c) {
+        return r >= 0 && r < size && c >= 0 && c < size;
+    }
+    
+    public int cellOf(int r, int c) {
+        return r * size + c;
+    }
+    
+    /**
+     * Generate one fleet by whole-fleet rejection sampling: every ship picks uniformly
+     * among all of its legal placements and the attempt restarts from scratch on any overlap.
+     * Unlike per-ship retries this keeps every non-overlapping fleet equally likely.
+     * The acceptance rate falls off quickly with the number of ships, so a fleet that keeps
+     * colliding is placed ship by ship instead (see placeShipByShip).
+     */
+    public FleetLayout randomLayout(List<ShipKind> fleet, RandomGenerator random) {
+        PlacementTable[] tables = new PlacementTable[fleet.size()];
+        for (int slot = 0; slot < tables.length; slot++) {
+            tables[slot] = placementTable(fleet.get(slot).getLength());
+        }
+        
+        int[] packed = new int[tables.length];
+        BoardMask occupied = newMask();
+        
+        for (int attempt = 0; attempt < UNIFORM_ATTEMPTS; attempt++) {
+            occupied.clear();
+            boolean valid = true;
+            
+            for (int slot = 0; slot < tables.length; slot++) {
+                PlacementTable table = tables[slot];
+                int choice = random.nextInt(table.packed.length);
+                BoardMask ship = table.masks[choice];
+                
+                if (occupied.intersects(ship)) {
+                    valid = false;
+                    break;
+                }
+                occupied.or(ship);
+                packed[slot] = table.packed[choice];
+            }
+            
+            if (valid) {
+                return new FleetLayout(packed, occupied);
+            }
+        }
+        
+        return placeShipByShip(tables, random);
+    }
+    
+    /**
+     * Longest ships first, each retrying only its own placement up to SHIP_ATTEMPTS times;
+     * a ship that finds no room restarts the fleet. Cost is bounded by ships * SHIP_ATTEMPTS
+     * per restart however many ships the variant has.
+     */
+    private FleetLayout placeShipByShip(PlacementTable[] tables, RandomGenerator random) {
+        Integer[] order = new Integer[tables.length];
+        for (int slot = 0; slot < order.length; slot++) {
+            order[slot] = slot;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer slot) -> tables[slot].packed.length));
+        
+        int[] packed = new int[tables.length];
+        BoardMask occupied = newMask();
+        
+        for (int restart = 0; restart < MAX_FLEET_RESTARTS; restart++) {
+            occupied.clear();
+            boolean valid = true;
+            
+            for (int slot : order) {
+                PlacementTable table = tables[slot];
+                int choice = -1;
+                for (int attempt = 0; attempt < SHIP_ATTEMPTS; attempt++) {
+                    int candidate = random.nextInt(table.packed.length);
+                    if (!occupied.intersects(table.masks[candidate])) {
+                        choice = candidate;
+                        break;
+                    }
+                }
+                if (choice < 0) {
+                    valid = false;
+                    break;
+                }
+                occupied.or(table.masks[choice]);
+                packed[slot] = table.packed[choice];
+            }
+            
+            if (valid) {
+                return new FleetLayout(packed, occupied);
+            }
+        }
+        
+        throw new RuntimeException("Failed to place fleet after " + MAX_FLEET_RESTARTS + " restarts");
+    }
+    
+    /**
+     * Validate a player-submitted fleet: exact composition, bounds and overlap.
+     * Allocation-free; returns null when the fleet is valid, otherwise a rejection reason.
+     */
+    public final String validateFleet(List<ShipPlacement> ships, List<ShipKind> fleet) {
+        if (ships == null || ships.size() != fleet.size()) {
+            return "INVALID_FLEET_SIZE";
+        }
+        
+        long usedSlots = 0L;
+        for (int i = 0; i < ships.size(); i++) {
+            ShipPlacement placement = ships.get(i);
+            if (placement == null || placement.kind() == null || placement.r() == null
+                    || placement.c() == null || placement.horizontal() == null) {
+                return "INVALID_PLACEMENT";
+            }
+            
+            int slot = freeSlotFor(fleet, placement.kind(), usedSlots);
+            if (slot < 0) {
+                return "INVALID_FLEET_COMPOSITION";
+            }
+            usedSlots |= 1L << slot;
+            
+            int length = placement.kind().getLength();
+            int r = placement.r();
+            int c = placement.c();
+            int endR = placement.horizontal() ? r : r + length - 1;
+            int endC = placement.horizontal() ? c + length - 1 : c;
+            if (!isValidCoord(r, c) || !isValidCoord(endR, endC)) {
+                return "OUT_OF_BOUNDS";
+            }
+        }
+        
+        return hasOverlap(ships) ? "OVERLAPS_WITH_OTHER_SHIP" : null;
+    }
+    
+    /**
+     * Overlap check for ships that already passed composition and bounds checks.
+     */
+    protected abstract boolean hasOverlap(List<ShipPlacement> ships);
+    
+    PlacementTable placementTable(int length) {
+        return placementTables.computeIfAbsent(length, this::buildPlacementTable);
+    }
+    
+    private PlacementTable buildPlacementTable(int length) {
+        int perOrientation = size * (size - length + 1);
+        BoardMask[] masks = new BoardMask[perOrientation * 2];
+        int[] packed = new int[perOrientation * 2];
+        
+        int n = 0;
+        for (int h = 0; h < 2; h++) {
+            boolean horizontal = h == 0;
+            int maxR = horizontal ? size : size - length + 1;
+            int maxC = horizontal ? size - length + 1 : size;
+            for (int r = 0; r < maxR; r++) {
+                for (int c = 0; c < maxC; c++) {
+                    BoardMask mask = newMask();
+                    for (int i = 0; i < length; i++) {
+                        mask.set(horizontal ? cellOf(r, c + i) : cellOf(r + i, c));
+                    }
+                    masks[n] = mask;
+                    packed[n] = FleetLayout.pack(cellOf(r, c), horizontal);
+                    n++;
+                }
+            }
+        }
+        
+        return new PlacementTable(masks, packed);
+    }
+    
+    private static int freeSlotFor(List<ShipKind> fleet, ShipKind kind, long usedSlots) {
+        for (int slot = 0; slot < fleet.size(); slot++) {
+            if (fleet.get(slot) == kind && (usedSlots & (1L << slot)) == 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    record PlacementTable(BoardMask[] masks, int[] packed) {}
+}
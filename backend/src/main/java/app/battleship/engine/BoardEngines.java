@@ -0,0 +1,36 @@
+package app.battleship.engine;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks and caches the specialized engine for a board size.
+ */
+public final class BoardEngines {
+    
+    public static final int MIN_SIZE = 5;
+    public static final int MAX_SIZE = 32;
+    
+    private static final ConcurrentMap<Integer, BoardEngine> ENGINES = new ConcurrentHashMap<>();
+    
+    private BoardEngines() {
+    }
+    
+    public static BoardEngine forSize(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, BoardEngines::create);
+    }
+    
+    private static BoardEngine create(int size) {
+        int cells = size * size;
+        if (cells <= 64) {
+            return new SingleLongBoardEngine(size);
+        }
+        if (cells <= 128) {
+            return new DualLongBoardEngine(size);
+        }
+        return new LongArrayBoardEngine(size);
+    }
+}
@@ -0,0 +1,33 @@
+package app.battleship.engine;
+
+/**
+ * Mutable set of board cells (cell index = r * boardSize + c).
+ * Each BoardEngine has its own representation; masks from different engines are never mixed.
+ */
+public abstract class BoardMask {
+    
+    public abstract boolean get(int cell);
+    
+    public abstract void set(int cell);
+    
+    public abstract void clear();
+    
+    public abstract boolean intersects(BoardMask other);
+    
+    public abstract void or(BoardMask other);
+    
+    public abstract int cardinality();
+    
+    /**
+     * Index of the n-th (0-based) clear cell below limit, or -1 if there are not that many.
+     */
+    public abstract int nthClearBit(int n, int limit);
+    
+    static int nthClearBitInWord(long word, int n) {
+        long clear = ~word;
+        for (int i = 0; i < n; i++) {
+            clear &= clear - 1;
+        }
+        return clear == 0 ? -1 : Long.numberOfTrailingZeros(clear);
+    }
+}
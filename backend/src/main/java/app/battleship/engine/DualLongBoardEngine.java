@@ -0,0 +1,99 @@
+package app.battleship.engine;
+
+import app.battleship.model.ShipPlacement;
+
+import java.util.List;
+
+/**
+ * Boards up to 11x11: cells 0-63 in one long, 64-127 in a second.
+ */
+final class DualLongBoardEngine extends BoardEngine {
+    
+    DualLongBoardEngine(int size) {
+        super(size);
+    }
+    
+    @Override
+    public BoardMask newMask() {
+        return new Mask();
+    }
+    
+    @Override
+    protected boolean hasOverlap(List<ShipPlacement> ships) {
+        long occupiedLo = 0L;
+        long occupiedHi = 0L;
+        for (int i = 0; i < ships.size(); i++) {
+            ShipPlacement ship = ships.get(i);
+            int step = ship.horizontal() ? 1 : size;
+            long lo = 0L;
+            long hi = 0L;
+            for (int k = 0, cell = cellOf(ship.r(), ship.c()); k < ship.kind().getLength(); k++, cell += step) {
+                if (cell < 64) {
+                    lo |= 1L << cell;
+                } else {
+                    hi |= 1L << (cell - 64);
+                }
+            }
+            if ((occupiedLo & lo) != 0 || (occupiedHi & hi) != 0) {
+                return true;
+            }
+            occupiedLo |= lo;
+            occupiedHi |= hi;
+        }
+        return false;
+    }
+    
+    static final class Mask extends BoardMask {
+        private long lo;
+        private long hi;
+        
+        @Override
+        public boolean get(int cell) {
+            return cell < 64 ? (lo & (1L << cell)) != 0 : (hi & (1L << (cell - 64))) != 0;
+        }
+        
+        @Override
+        public void set(int cell) {
+            if (cell < 64) {
+                lo |= 1L << cell;
+            } else {
+                hi |= 1L << (cell - 64);
+            }
+        }
+        
+        @Override
+        public void clear() {
+            lo = 0L;
+            hi = 0L;
+        }
+        
+        @Override
+        public boolean intersects(BoardMask other) {
+            Mask o = (Mask) other;
+            return (lo & o.lo) != 0 || (hi & o.hi) != 0;
+        }
+        
+        @Override
+        public void or(BoardMask other) {
+            Mask o = (Mask) other;
+            lo |= o.lo;
+            hi |= o.hi;
+        }
+        
+        @Override
+        public int cardinality() {
+            return Long.bitCount(lo) + Long.bitCount(hi);
+        }
+        
+        @Override
+        public int nthClearBit(int n, int limit) {
+            int clearLo = 64 - Long.bitCount(lo);
+            if (n < clearLo) {
+                int cell = nthClearBitInWord(lo, n);
+                return cell < limit ? cell : -1;
+            }
+            int inHi = nthClearBitInWord(hi, n - clearLo);
+            return inHi >= 0 && 64 + inHi < limit ? 64 + inHi : -1;
+        }
+    }
+}
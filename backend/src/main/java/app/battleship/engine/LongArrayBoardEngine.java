@@ -0,0 +1,111 @@
+package app.battleship.engine;
+
+import app.battleship.model.ShipPlacement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boards larger than 11x11: one long per 64 cells.
+ */
+final class LongArrayBoardEngine extends BoardEngine {
+    
+    private final int words;
+    
+    LongArrayBoardEngine(int size) {
+        super(size);
+        this.words = (cells + 63) >>> 6;
+    }
+    
+    @Override
+    public BoardMask newMask() {
+        return new Mask(words);
+    }
+    
+    /**
+     * Pairwise segment test instead of a scratch mask, so the check stays
+     * allocation-free however large the board is (fleets are small).
+     */
+    @Override
+    protected boolean hasOverlap(List<ShipPlacement> ships) {
+        for (int i = 0; i < ships.size(); i++) {
+            ShipPlacement a = ships.get(i);
+            int aEndR = a.horizontal() ? a.r() : a.r() + a.kind().getLength() - 1;
+            int aEndC = a.horizontal() ? a.c() + a.kind().getLength() - 1 : a.c();
+            for (int j = i + 1; j < ships.size(); j++) {
+                ShipPlacement b = ships.get(j);
+                int bEndR = b.horizontal() ? b.r() : b.r() + b.kind().getLength() - 1;
+                int bEndC = b.horizontal() ? b.c() + b.kind().getLength() - 1 : b.c();
+                if (a.r() <= bEndR && b.r() <= aEndR && a.c() <= bEndC && b.c() <= aEndC) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    static final class Mask extends BoardMask {
+        private final long[] bits;
+        
+        Mask(int words) {
+            this.bits = new long[words];
+        }
+        
+        @Override
+        public boolean get(int cell) {
+            return (bits[cell >>> 6] & (1L << cell)) != 0;
+        }
+        
+        @Override
+        public void set(int cell) {
+            bits[cell >>> 6] |= 1L << cell;
+        }
+        
+        @Override
+        public void clear() {
+            Arrays.fill(bits, 0L);
+        }
+        
+        @Override
+        public boolean intersects(BoardMask other) {
+            long[] o = ((Mask) other).bits;
+            for (int i = 0; i < bits.length; i++) {
+                if ((bits[i] & o[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public void or(BoardMask other) {
+            long[] o = ((Mask) other).bits;
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] |= o[i];
+            }
+        }
+        
+        @Override
+        public int cardinality() {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+        
+        @Override
+        public int nthClearBit(int n, int limit) {
+            int remaining = n;
+            for (int i = 0; i < bits.length; i++) {
+                int clear = 64 - Long.bitCount(bits[i]);
+                if (remaining < clear) {
+                    int cell = (i << 6) + nthClearBitInWord(bits[i], remaining);
+                    return cell < limit ? cell : -1;
+                }
+                remaining -= clear;
+            }
+            return -1;
+        }
+    }
+}
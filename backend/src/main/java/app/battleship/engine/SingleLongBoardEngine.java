@@ -0,0 +1,78 @@
+package app.battleship.engine;
+
+import app.battleship.model.ShipPlacement;
+
+import java.util.List;
+
+/**
+ * Boards up to 8x8: the whole board fits in a single long.
+ */
+final class SingleLongBoardEngine extends BoardEngine {
+    
+    SingleLongBoardEngine(int size) {
+        super(size);
+    }
+    
+    @Override
+    public BoardMask newMask() {
+        return new Mask();
+    }
+    
+    @Override
+    protected boolean hasOverlap(List<ShipPlacement> ships) {
+        long occupied = 0L;
+        for (int i = 0; i < ships.size(); i++) {
+            ShipPlacement ship = ships.get(i);
+            int step = ship.horizontal() ? 1 : size;
+            long mask = 0L;
+            for (int k = 0, cell = cellOf(ship.r(), ship.c()); k < ship.kind().getLength(); k++, cell += step) {
+                mask |= 1L << cell;
+            }
+            if ((occupied & mask) != 0) {
+                return true;
+            }
+            occupied |= mask;
+        }
+        return false;
+    }
+    
+    static final class Mask extends BoardMask {
+        private long bits;
+        
+        @Override
+        public boolean get(int cell) {
+            return (bits & (1L << cell)) != 0;
+        }
+        
+        @Override
+        public void set(int cell) {
+            bits |= 1L << cell;
+        }
+        
+        @Override
+        public void clear() {
+            bits = 0L;
+        }
+        
+        @Override
+        public boolean intersects(BoardMask other) {
+            return (bits & ((Mask) other).bits) != 0;
+        }
+        
+        @Override
+        public void or(BoardMask other) {
+            bits |= ((Mask) other).bits;
+        }
+        
+        @Override
+        public int cardinality() {
+            return Long.bitCount(bits);
+        }
+        
+        @Override
+        public int nthClearBit(int n, int limit) {
+            int cell = nthClearBitInWord(bits, n);
+            return cell >= 0 && cell < limit ? cell : -1;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package app.battleship.model;
+
+import java.util.Set;
+
+/**
+ * Published when the set of live nodes changes and game ownership has been reassigned.
+ */
+public record ClusterTopologyChangedEvent(Set<String> nodeIds) {}
@@ -0,0 +1,39 @@
+package app.battleship.model;
+
+import app.battleship.engine.BoardMask;
+
+/**
+ * Compact, pre-validated fleet placement.
+ * Each fleet slot is packed as (originCellIndex << 1) | horizontal, alongside the
+ * occupancy mask of the whole fleet in the representation of the board's engine.
+ */
+public final class FleetLayout {
+    
+    private final int[] placements;
+    private final BoardMask occupancy;
+    
+    public FleetLayout(int[] placements, BoardMask occupancy) {
+        this.placements = placements;
+        this.occupancy = occupancy;
+    }
+    
+    public static int pack(int originCell, boolean horizontal) {
+        return (originCell << 1) | (horizontal ? 1 : 0);
+    }
+    
+    public int size() {
+        return placements.length;
+    }
+    
+    public int originCell(int slot) {
+        return placements[slot] >>> 1;
+    }
+    
+    public boolean isHorizontal(int slot) {
+        return (placements[slot] & 1) != 0;
+    }
+    
+    public BoardMask getOccupancy() {
+        return occupancy;
+    }
+}
@@ -4,11 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "games")
+@CompoundIndex(name = "status_archived_ended_idx", def = "{'status': 1, 'archivedAt': 1, 'endedAt': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +19,7 @@ public class Game {
     @Id
     private String id;
     
+    @Indexed(name = "room_idx")
     private String roomId;
     
     private GameStatus status;
@@ -34,6 +38,8 @@ public class Game {
     
     private Instant endedAt;
     
+    private Instant archivedAt;
+    
     public Game(String id, String roomId, String firstPlayerId, String secondPlayerId) {
         this.id = id;
         this.roomId = roomId;
@@ -0,0 +1,8 @@
+package app.battleship.model;
+
+import java.util.List;
+
+/**
+ * Published after a game's final state has been saved, whatever ended it.
+ */
+public record GameEndedEvent(String gameId, String roomId, List<String> playerIds, String winnerPlayerId, String reason) {}
@@ -0,0 +1,5 @@
+package app.battleship.model;
+
+public enum GamePhase {
+    PLACEMENT, BATTLE, ENDED
+}
@@ -4,11 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "snapshots")
+@CompoundIndex(name = "game_turn_idx", def = "{'gameId': 1, 'turn': -1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +24,12 @@ public class GameSnapshot {
     
     private GameState state;
     
+    private long revision;
+    
     private Instant createdAt;
     
+    private Instant updatedAt;
+    
     public GameSnapshot(String gameId, int turn, GameState state) {
         this.gameId = gameId;
         this.turn = turn;
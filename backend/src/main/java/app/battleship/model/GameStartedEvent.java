@@ -0,0 +1,8 @@
+package app.battleship.model;
+
+import java.util.List;
+
+/**
+ * Published once a room's game has been created and its state initialized.
+ */
+public record GameStartedEvent(String gameId, String roomId, List<String> playerIds) {}
@@ -1,10 +1,13 @@
 package app.battleship.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -18,6 +21,13 @@ public class GameState {
     private Map<String, PlayerState> players = new HashMap<>();
     private String winnerPlayerId;
     private int stateVersion;
+    private GamePhase phase = GamePhase.BATTLE;
+    private long placementDeadline;  // Epoch millis; only meaningful during PLACEMENT
+    private int consecutiveTimeouts;  // Turns timed out in a row; reset whenever a player acts
+    // States saved before variants existed carry no rules and are classic 10x10
+    private String variant = GameVariant.CLASSIC_NAME;
+    private int boardSize = GameVariant.CLASSIC_BOARD_SIZE;
+    private List<ShipKind> fleet = new ArrayList<>(GameVariant.CLASSIC_FLEET);
     
     public GameState(String gameId, String roomId, String firstPlayerId, String secondPlayerId) {
         this.gameId = gameId;
@@ -28,6 +38,20 @@ public class GameState {
         this.players.put(firstPlayerId, new PlayerState(firstPlayerId));
         this.players.put(secondPlayerId, new PlayerState(secondPlayerId));
         this.stateVersion = 1;
+        this.phase = GamePhase.BATTLE;
+    }
+    
+    @JsonIgnore
+    public boolean isPlacementPhase() {
+        return phase == GamePhase.PLACEMENT;
+    }
+    
+    /**
+     * Won, or ended without a winner (phase ENDED, e.g. abandoned).
+     */
+    @JsonIgnore
+    public boolean isEnded() {
+        return phase == GamePhase.ENDED || winnerPlayerId != null;
     }
 }
 
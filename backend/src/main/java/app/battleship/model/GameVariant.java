@@ -0,0 +1,25 @@
+package app.battleship.model;
+
+import java.util.List;
+
+/**
+ * Resolved game rules for a room: board size and fleet composition.
+ */
+public record GameVariant(String name, int boardSize, List<ShipKind> fleet) {
+    
+    public static final String CLASSIC_NAME = "classic";
+    public static final int CLASSIC_BOARD_SIZE = 10;
+    public static final List<ShipKind> CLASSIC_FLEET = List.of(
+            ShipKind.CARRIER_5,
+            ShipKind.BATTLESHIP_4,
+            ShipKind.CRUISER_3,
+            ShipKind.SUBMARINE_3,
+            ShipKind.DESTROYER_2
+    );
+    
+    public static final GameVariant CLASSIC = new GameVariant(CLASSIC_NAME, CLASSIC_BOARD_SIZE, CLASSIC_FLEET);
+    
+    public static GameVariant of(GameState state) {
+        return new GameVariant(state.getVariant(), state.getBoardSize(), state.getFleet());
+    }
+}
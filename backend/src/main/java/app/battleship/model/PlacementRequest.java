@@ -0,0 +1,10 @@
+package app.battleship.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record PlacementRequest(
+    @NotNull List<@Valid ShipPlacement> ships
+) {}
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 public class PlayerState {
     private String playerId;
     private Board board;
+    private boolean placementSubmitted;
     
     public PlayerState(String playerId) {
         this.playerId = playerId;
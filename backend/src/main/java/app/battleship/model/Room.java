@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -11,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "rooms")
+@CompoundIndex(name = "status_last_empty_idx", def = "{'status': 1, 'lastEmptyAt': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,8 +31,14 @@ public class Room {
     
     private Instant lastEmptyAt;
     
+    // Set while the room is empty; Mongo's TTL monitor deletes the room once it passes
+    @Indexed(name = "expire_at_ttl", expireAfter = "0s")
+    private Instant expireAt;
+    
     private String gameId;
     
+    private String variant = GameVariant.CLASSIC_NAME;
+    
     public Room(String id) {
         this.id = id;
         this.status = RoomStatus.WAITING;
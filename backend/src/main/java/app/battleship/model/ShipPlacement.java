@@ -0,0 +1,10 @@
+package app.battleship.model;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ShipPlacement(
+    @NotNull ShipKind kind,
+    @NotNull Integer r,
+    @NotNull Integer c,
+    @NotNull Boolean horizontal
+) {}
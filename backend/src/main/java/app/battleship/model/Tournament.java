@@ -0,0 +1,68 @@
+package app.battleship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "tournaments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tournament {
+    @Id
+    private String id;
+    
+    private String name;
+    
+    private String createdBy;
+    
+    @Indexed(name = "status_idx")
+    private TournamentStatus status;
+    
+    private String variant = GameVariant.CLASSIC_NAME;
+    
+    private int maxPlayers;
+    
+    // Registration order, then the seeding once the tournament has started
+    private List<String> playerIds = new ArrayList<>();
+    
+    private int rounds;
+    
+    private int currentRound;
+    
+    // Set once currentRound's games have been spawned
+    private boolean roundStarted;
+    
+    // When currentRound is due to start, or started
+    private Instant nextRoundAt;
+    
+    private String winnerPlayerId;
+    
+    private Instant createdAt;
+    
+    private Instant startedAt;
+    
+    private Instant endedAt;
+    
+    public Tournament(String id, String name, String createdBy, String variant, int maxPlayers) {
+        this.id = id;
+        this.name = name;
+        this.createdBy = createdBy;
+        this.status = TournamentStatus.REGISTERING;
+        this.variant = variant;
+        this.maxPlayers = maxPlayers;
+        this.playerIds = new ArrayList<>();
+        this.createdAt = Instant.now();
+    }
+    
+    public enum TournamentStatus {
+        REGISTERING, RUNNING, FINISHED
+    }
+}
@@ -0,0 +1,68 @@
+package app.battleship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One slot of a bracket. Its id, which is also the id of its room and game, is derived from the
+ * tournament, round and slot, so a round that is built or started twice yields the same documents.
+ */
+@Document(collection = "tournament_matches")
+@CompoundIndex(name = "tournament_round_slot_idx", def = "{'tournamentId': 1, 'round': 1, 'slot': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentMatch {
+    @Id
+    private String id;
+    
+    private String tournamentId;
+    
+    private int round;
+    
+    private int slot;
+    
+    // One player for a bye
+    private List<String> playerIds = new ArrayList<>();
+    
+    @Indexed(name = "game_idx")
+    private String gameId;
+    
+    private String roomId;
+    
+    private MatchStatus status;
+    
+    private String winnerPlayerId;
+    
+    private Instant startedAt;
+    
+    private Instant endedAt;
+    
+    public TournamentMatch(String tournamentId, int round, int slot, List<String> playerIds) {
+        this.id = tournamentId + "-" + round + "-" + slot;
+        this.tournamentId = tournamentId;
+        this.round = round;
+        this.slot = slot;
+        this.playerIds = new ArrayList<>(playerIds);
+        this.gameId = id;
+        this.roomId = id;
+        this.status = MatchStatus.PENDING;
+    }
+    
+    public boolean isBye() {
+        return playerIds.size() < 2;
+    }
+    
+    public enum MatchStatus {
+        PENDING, ACTIVE, DONE
+    }
+}
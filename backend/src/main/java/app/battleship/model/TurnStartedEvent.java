@@ -0,0 +1,6 @@
+package app.battleship.model;
+
+/**
+ * Published whenever a player's turn begins and a turn deadline should start.
+ */
+public record TurnStartedEvent(String gameId, int turn, String currentPlayerId) {}
@@ -0,0 +1,180 @@
+package app.battleship.monitoring;
+
+import app.battleship.config.BattleshipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks this node's rolling p99 of attack and move handling against slo.action-p99-millis and
+ * degrades expensive features while it is breached, so peak load sheds work instead of queueing:
+ * suggestions stay on the local engine, snapshots are taken slo.snapshot-backoff-factor times
+ * less often and action responses leave out the player view. Hysteresis keeps it from flapping:
+ * it degrades after slo.breach-evaluations breaching evaluations in a row and recovers only
+ * after slo.recover-evaluations in a row under recover-ratio of the target.
+ */
+@Component
+public class ActionLatencySlo {
+    
+    private static final Logger log = LoggerFactory.getLogger(ActionLatencySlo.class);
+    
+    private static final double P99 = 0.99;
+    private static final int WINDOW_BUCKETS = 6;
+    
+    private final BattleshipProperties.Slo config;
+    private final Timer window;
+    private final Counter degradations;
+    private final Counter recoveries;
+    private final LongAdder samples = new LongAdder();
+    // Samples per evaluation over the window, newest last; only touched by evaluate()
+    private final Deque<Long> sampleHistory = new ArrayDeque<>();
+    private final int historyLength;
+    
+    private volatile boolean degraded;
+    private volatile double p99Millis;
+    private volatile long windowSamples;
+    private volatile Instant since = Instant.now();
+    private int breaches;
+    private int healthy;
+    
+    public ActionLatencySlo(BattleshipProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getSlo();
+        Duration windowLength = Duration.ofSeconds(Math.max(1, config.getWindowSeconds()));
+        this.window = Timer.builder("battleship.slo.action")
+                .description("Attack and move handling over the SLO window")
+                .publishPercentiles(P99)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(windowLength)
+                .distributionStatisticBufferLength(WINDOW_BUCKETS)
+                .register(meterRegistry);
+        this.historyLength = (int) Math.max(1, windowLength.toMillis() / Math.max(1, config.getEvaluateIntervalMillis()));
+        this.degradations = Counter.builder("battleship.slo.transitions").tag("to", "degraded")
+                .description("Switches between normal and degraded mode")
+                .register(meterRegistry);
+        this.recoveries = Counter.builder("battleship.slo.transitions").tag("to", "normal")
+                .description("Switches between normal and degraded mode")
+                .register(meterRegistry);
+        Gauge.builder("battleship.slo.degraded", this, slo -> slo.degraded ? 1 : 0)
+                .description("1 while expensive features are degraded to protect action latency")
+                .register(meterRegistry);
+    }
+    
+    public void record(String action, long nanos) {
+        if ("attack".equals(action) || "move".equals(action)) {
+            window.record(nanos, TimeUnit.NANOSECONDS);
+            samples.increment();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${slo.evaluate-interval-millis:5000}")
+    public synchronized void evaluate() {
+        if (!config.isEnabled()) {
+            if (degraded) {
+                transition(false);
+            }
+            return;
+        }
+        
+        sampleHistory.addLast(samples.sumThenReset());
+        while (sampleHistory.size() > historyLength) {
+            sampleHistory.removeFirst();
+        }
+        windowSamples = sampleHistory.stream().mapToLong(Long::longValue).sum();
+        p99Millis = p99Millis();
+        
+        double target = config.getActionP99Millis();
+        // Too few actions to trust the p99 counts as healthy; a quiet node has nothing to shed
+        boolean breached = windowSamples >= config.getMinSamples() && p99Millis > target;
+        boolean recovered = windowSamples < config.getMinSamples() || p99Millis < target * config.getRecoverRatio();
+        breaches = breached ? breaches + 1 : 0;
+        healthy = recovered ? healthy + 1 : 0;
+        
+        if (!degraded && breaches >= config.getBreachEvaluations()) {
+            transition(true);
+        } else if (degraded && healthy >= config.getRecoverEvaluations()) {
+            transition(false);
+        }
+    }
+    
+    public boolean isDegraded() {
+        return degraded;
+    }
+    
+    /**
+     * Whether suggestions should skip remote engines and use the local heuristic.
+     */
+    public boolean localSuggestionsOnly() {
+        return degraded && config.isDegradeSuggestions();
+    }
+    
+    /**
+     * Multiplier for the snapshot thresholds; 1 in normal mode.
+     */
+    public int snapshotBackoffFactor() {
+        return degraded ? Math.max(1, config.getSnapshotBackoffFactor()) : 1;
+    }
+    
+    /**
+     * Whether action responses should carry only the action's result, leaving clients to
+     * re-read the view on the STATE_UPDATED event.
+     */
+    public boolean deferViews() {
+        return degraded && config.isDeferViews();
+    }
+    
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", config.isEnabled());
+        status.put("degraded", degraded);
+        status.put("since", since.toString());
+        status.put("p99Millis", p99Millis);
+        status.put("targetP99Millis", config.getActionP99Millis());
+        status.put("windowSamples", windowSamples);
+        status.put("breachingEvaluations", breaches);
+        status.put("healthyEvaluations", healthy);
+        status.put("localSuggestionsOnly", localSuggestionsOnly());
+        status.put("snapshotBackoffFactor", snapshotBackoffFactor());
+        status.put("deferViews", deferViews());
+        return status;
+    }
+    
+    private double p99Millis() {
+        for (ValueAtPercentile value : window.takeSnapshot().percentileValues()) {
+            if (value.percentile() == P99) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+    
+    private void transition(boolean degrade) {
+        degraded = degrade;
+        since = Instant.now();
+        breaches = 0;
+        healthy = 0;
+        if (degrade) {
+            degradations.increment();
+            log.warn("Action p99 {} ms over the {} ms SLO; degrading suggestions, snapshots and views",
+                    Math.round(p99Millis), config.getActionP99Millis());
+        } else {
+            recoveries.increment();
+            log.info("Action p99 {} ms back within the {} ms SLO; leaving degraded mode",
+                    Math.round(p99Millis), config.getActionP99Millis());
+        }
+    }
+}
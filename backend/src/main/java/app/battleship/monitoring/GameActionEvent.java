@@ -0,0 +1,48 @@
+package app.battleship.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Map;
+
+/**
+ * A game action applied by GameService, from loading the state to saving it.
+ */
+@Name("app.battleship.GameAction")
+@Label("Game Action")
+@Category({"Battleship", "Game"})
+@Description("A game action applied to a game's state")
+public final class GameActionEvent extends Event {
+    
+    @Label("Game Id")
+    String gameId;
+    
+    @Label("Action")
+    String action;
+    
+    @Label("Success")
+    boolean success;
+    
+    @Label("Reason")
+    String reason;
+    
+    public static GameActionEvent started() {
+        GameActionEvent event = new GameActionEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String gameId, String action, Map<String, Object> result) {
+        end();
+        if (shouldCommit()) {
+            this.gameId = gameId;
+            this.action = action;
+            this.success = !Boolean.FALSE.equals(result.get("success"));
+            this.reason = result.get("reason") != null ? result.get("reason").toString() : null;
+            commit();
+        }
+    }
+}
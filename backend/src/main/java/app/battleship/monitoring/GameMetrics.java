@@ -0,0 +1,133 @@
+package app.battleship.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the game pipeline, so that a slow p99 can be traced to its step without a profiler:
+ * battleship.action (end to end per action and outcome), battleship.action.phase (the same
+ * actions split into the phases below), battleship.store (Redis and Mongo calls by logical
+ * operation; lettuce.command.* and mongodb.driver.commands add per-command detail),
+ * battleship.broadcast.fanout (subscribers per room broadcast) and battleship.suggestion
+ * (suggestion latency by engine). Phases are observations rather than bare spans, so the Redis
+ * and Mongo commands they run, observed too, become children of the phase's span.
+ */
+@Component
+public class GameMetrics {
+    
+    public static final String STORE = "battleship.store";
+    
+    public enum Phase {
+        LOAD("load"),
+        VALIDATE("validate"),
+        SAVE("save"),
+        EVENT_PERSIST("event-persist"),
+        BROADCAST("broadcast"),
+        VIEW("view");
+        
+        private final String tag;
+        
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+    
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final ActionLatencySlo slo;
+    private final Meter.MeterProvider<Timer> actions;
+    private final Meter.MeterProvider<Timer> suggestions;
+    private final DistributionSummary fanout;
+    
+    public GameMetrics(MeterRegistry registry, ObservationRegistry observationRegistry, Tracer tracer,
+                       Propagator propagator, ActionLatencySlo slo) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.slo = slo;
+        this.actions = Timer.builder("battleship.action")
+                .description("Game actions end to end")
+                .withRegistry(registry);
+        this.suggestions = Timer.builder("battleship.suggestion")
+                .description("Move suggestions by engine")
+                .withRegistry(registry);
+        this.fanout = DistributionSummary.builder("battleship.broadcast.fanout")
+                .description("Subscribers reached by a room broadcast")
+                .register(registry);
+    }
+    
+    /**
+     * Timers of one store's calls, tagged by operation.
+     */
+    public static Meter.MeterProvider<Timer> storeTimers(MeterRegistry registry, String store) {
+        return Timer.builder(STORE)
+                .description("Redis and Mongo calls by operation")
+                .tag("store", store)
+                .withRegistry(registry);
+    }
+    
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+    
+    public void recordAction(Timer.Sample sample, String action, String outcome) {
+        long nanos = sample.stop(actions.withTags("action", action, "outcome", outcome));
+        slo.record(action, nanos);
+    }
+    
+    /**
+     * Runs one phase of an action as the battleship.action.phase observation: a timer tagged by
+     * action and phase, and a span of the current trace.
+     */
+    public <T> T time(String action, Phase phase, Supplier<T> work) {
+        return Observation.createNotStarted("battleship.action.phase", observationRegistry)
+                .contextualName(action + " " + phase.tag)
+                .lowCardinalityKeyValue("action", action)
+                .lowCardinalityKeyValue("phase", phase.tag)
+                .observe(work);
+    }
+    
+    public void time(String action, Phase phase, Runnable work) {
+        time(action, phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    /**
+     * W3C trace context of the current span (traceparent), to send along with a message;
+     * empty outside a trace.
+     */
+    public Map<String, Object> traceHeaders() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return Map.of();
+        }
+        Map<String, Object> headers = new HashMap<>();
+        propagator.inject(span.context(), headers, Map::put);
+        return headers;
+    }
+    
+    public void recordSuggestion(Timer.Sample sample, String engine, String outcome) {
+        sample.stop(suggestions.withTags("engine", engine, "outcome", outcome));
+    }
+    
+    public void recordFanout(int subscribers) {
+        fanout.record(subscribers);
+    }
+}
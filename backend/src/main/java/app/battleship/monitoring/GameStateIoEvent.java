@@ -0,0 +1,48 @@
+package app.battleship.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A game state read from or written to the store, including (de)serialization.
+ */
+@Name("app.battleship.GameStateIo")
+@Label("Game State I/O")
+@Category({"Battleship", "Game"})
+@Description("A game state loaded or saved, with its serialized size")
+public final class GameStateIoEvent extends Event {
+    
+    public static final String LOAD = "load";
+    public static final String SAVE = "save";
+    
+    @Label("Game Id")
+    String gameId;
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Size")
+    @DataAmount
+    long bytes;
+    
+    public static GameStateIoEvent started() {
+        GameStateIoEvent event = new GameStateIoEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String gameId, String operation, String json) {
+        end();
+        if (shouldCommit()) {
+            this.gameId = gameId;
+            this.operation = operation;
+            // Characters, which equal bytes for the ASCII JSON the state serializes to
+            this.bytes = json != null ? json.length() : 0;
+            commit();
+        }
+    }
+}
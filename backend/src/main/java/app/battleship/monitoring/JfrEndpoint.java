@@ -0,0 +1,53 @@
+package app.battleship.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/jfr: GET lists the recordings and their files, GET /actuator/jfr/{file} downloads
+ * one, and POST {"action": "start" | "stop" | "dump", "durationSeconds": n} starts or stops
+ * the on-demand profiling recording or dumps the continuous one.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+    
+    private final JfrRecordings recordings;
+    
+    public JfrEndpoint(JfrRecordings recordings) {
+        this.recordings = recordings;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> recordings() {
+        return recordings.status();
+    }
+    
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String name) {
+        return recordings.file(name)
+                .map(file -> new WebEndpointResponse<Resource>(new FileSystemResource(file)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+    
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> control(String action, @Nullable Integer durationSeconds) {
+        Map<String, Object> result = switch (action) {
+            case "start" -> recordings.startRecording(durationSeconds);
+            case "stop" -> recordings.stopRecording();
+            case "dump" -> recordings.dumpContinuous();
+            default -> Map.of("error", "Unknown action: " + action);
+        };
+        boolean ok = Boolean.TRUE.equals(result.get("success"));
+        return new WebEndpointResponse<>(result, ok ? WebEndpointResponse.STATUS_OK : WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+}
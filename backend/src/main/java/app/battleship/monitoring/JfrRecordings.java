@@ -0,0 +1,281 @@
+package app.battleship.monitoring;
+
+import app.battleship.config.BattleshipProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process JFR recordings written to profiling.directory: an optional continuous recording
+ * on the low-overhead "default" settings that can be dumped after a spike, and one on-demand
+ * recording at a time on the "profile" settings, with allocation sampling and lock, park and
+ * socket I/O events over the configured thresholds. Finished files beyond profiling.max-files
+ * or profiling.disk-cap-mb are deleted, oldest first.
+ */
+@Component
+public class JfrRecordings {
+    
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordings.class);
+    
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9._-]+\\.jfr");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+    private static final List<String> GAME_EVENTS = List.of(
+            "app.battleship.GameAction", "app.battleship.GameStateIo", "app.battleship.Suggestion");
+    
+    private final BattleshipProperties.Profiling config;
+    private final Path directory;
+    // Not this: JFR calls the listener below while holding its own lock, which start/stop take inside ours
+    private final Object pruneLock = new Object();
+    private final FlightRecorderListener pruneOnStop = new FlightRecorderListener() {
+        @Override
+        public void recordingStateChanged(Recording recording) {
+            if (recording == onDemand && recording.getState() == RecordingState.STOPPED) {
+                prune();
+            }
+        }
+    };
+    
+    private Recording continuous;
+    private volatile Recording onDemand;
+    
+    public JfrRecordings(BattleshipProperties properties) {
+        this.config = properties.getProfiling();
+        this.directory = Path.of(config.getDirectory());
+    }
+    
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        FlightRecorder.addListener(pruneOnStop);
+        if (config.isContinuous()) {
+            continuous = newRecording("default", "battleship-continuous");
+            continuous.setMaxAge(Duration.ofMinutes(config.getContinuousMaxAgeMinutes()));
+            continuous.setMaxSize(config.getContinuousMaxSizeMb() * 1024L * 1024L);
+            continuous.start();
+            log.info("Continuous JFR recording started; keeping the last {} minutes / {} MB",
+                    config.getContinuousMaxAgeMinutes(), config.getContinuousMaxSizeMb());
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        FlightRecorder.removeListener(pruneOnStop);
+        Recording recording = onDemand;
+        if (recording != null) {
+            recording.close();
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+    
+    /**
+     * Start an on-demand profiling recording that stops itself after the given duration.
+     */
+    public synchronized Map<String, Object> startRecording(Integer durationSeconds) {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            return Map.of("success", false, "reason", "RECORDING_IN_PROGRESS", "recording", describe(onDemand));
+        }
+        int seconds = durationSeconds != null ? durationSeconds : config.getDefaultDurationSeconds();
+        if (seconds <= 0 || seconds > config.getMaxDurationSeconds()) {
+            return Map.of("success", false, "reason", "INVALID_DURATION");
+        }
+        
+        Recording recording = newRecording("profile", "battleship-profile");
+        Map<String, String> settings = new LinkedHashMap<>(recording.getSettings());
+        String lockThreshold = config.getLockThresholdMillis() + " ms";
+        String socketThreshold = config.getSocketThresholdMillis() + " ms";
+        settings.put("jdk.ObjectAllocationSample#enabled", "true");
+        settings.put("jdk.JavaMonitorEnter#threshold", lockThreshold);
+        settings.put("jdk.JavaMonitorWait#threshold", lockThreshold);
+        settings.put("jdk.ThreadPark#threshold", lockThreshold);
+        settings.put("jdk.SocketRead#enabled", "true");
+        settings.put("jdk.SocketRead#threshold", socketThreshold);
+        settings.put("jdk.SocketWrite#enabled", "true");
+        settings.put("jdk.SocketWrite#threshold", socketThreshold);
+        recording.setSettings(settings);
+        // Also bounds what a recording can take from the disk cap before it is pruned
+        recording.setMaxSize(config.getDiskCapMb() * 1024L * 1024L);
+        recording.setDuration(Duration.ofSeconds(seconds));
+        try {
+            recording.setDestination(directory.resolve(fileName("profile")));
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+        onDemand = recording;
+        log.info("JFR profiling recording started for {} s", seconds);
+        return Map.of("success", true, "recording", describe(recording));
+    }
+    
+    /**
+     * Stop the running on-demand recording, writing its file.
+     */
+    public synchronized Map<String, Object> stopRecording() {
+        Recording recording = onDemand;
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return Map.of("success", false, "reason", "NO_RECORDING_IN_PROGRESS");
+        }
+        recording.stop();
+        log.info("JFR profiling recording stopped");
+        return Map.of("success", true, "recording", describe(recording));
+    }
+    
+    /**
+     * Write what the continuous recording currently holds to a file.
+     */
+    public Map<String, Object> dumpContinuous() {
+        if (continuous == null) {
+            return Map.of("success", false, "reason", "CONTINUOUS_RECORDING_DISABLED");
+        }
+        Path file = directory.resolve(fileName("continuous"));
+        try {
+            continuous.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        prune();
+        return Map.of("success", true, "file", file.getFileName().toString());
+    }
+    
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("continuous", continuous != null ? describe(continuous) : null);
+        Recording recording = onDemand;
+        status.put("recording", recording != null ? describe(recording) : null);
+        status.put("files", files());
+        return status;
+    }
+    
+    /**
+     * A finished recording file by name; names that could leave the directory are rejected.
+     */
+    public Optional<Path> file(String name) {
+        if (!FILE_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(name);
+        Recording recording = onDemand;
+        if (recording != null && file.equals(recording.getDestination()) && recording.getState() == RecordingState.RUNNING) {
+            return Optional.empty();
+        }
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+    
+    private Recording newRecording(String configurationName, String name) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(configurationName));
+            recording.setName(name);
+            recording.setToDisk(true);
+            GAME_EVENTS.forEach(event -> recording.enable(event).withoutThreshold());
+            return recording;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR configuration " + configurationName + " unavailable", e);
+        }
+    }
+    
+    private List<Map<String, Object>> files() {
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (Path file : recordingFiles()) {
+            try {
+                files.add(Map.of(
+                        "name", file.getFileName().toString(),
+                        "bytes", Files.size(file),
+                        "modified", Files.getLastModifiedTime(file).toInstant().toString()));
+            } catch (IOException e) {
+                // Deleted by a concurrent prune
+            }
+        }
+        return files;
+    }
+    
+    /**
+     * Delete the oldest files beyond the file count or disk cap.
+     */
+    private void prune() {
+        long capBytes = config.getDiskCapMb() * 1024L * 1024L;
+        synchronized (pruneLock) {
+            long total = 0;
+            int kept = 0;
+            for (Path file : recordingFiles()) {
+                try {
+                    long size = Files.size(file);
+                    if (kept < config.getMaxFiles() && total + size <= capBytes) {
+                        total += size;
+                        kept++;
+                    } else {
+                        Files.delete(file);
+                        log.info("Deleted JFR recording {} ({} bytes) to stay within the profiling caps", file.getFileName(), size);
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to prune JFR recording {}", file, e);
+                }
+            }
+        }
+    }
+    
+    // Newest first
+    private List<Path> recordingFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(JfrRecordings::modified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list JFR recordings in {}", directory, e);
+            return List.of();
+        }
+    }
+    
+    private static FileTime modified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+    
+    private static String fileName(String kind) {
+        return "battleship-" + kind + "-" + FILE_TIME.format(Instant.now()) + ".jfr";
+    }
+    
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("name", recording.getName());
+        description.put("state", recording.getState().name());
+        description.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+        description.put("duration", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        description.put("bytes", recording.getSize());
+        Path destination = recording.getDestination();
+        description.put("file", destination != null ? destination.getFileName().toString() : null);
+        return description;
+    }
+}
@@ -0,0 +1,26 @@
+package app.battleship.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/slo: this node's action latency against the SLO and what is currently degraded.
+ */
+@Component
+@Endpoint(id = "slo")
+public class SloEndpoint {
+    
+    private final ActionLatencySlo slo;
+    
+    public SloEndpoint(ActionLatencySlo slo) {
+        this.slo = slo;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> status() {
+        return slo.status();
+    }
+}
@@ -0,0 +1,42 @@
+package app.battleship.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A move suggestion computed by one engine.
+ */
+@Name("app.battleship.Suggestion")
+@Label("Move Suggestion")
+@Category({"Battleship", "AI"})
+@Description("A move suggestion computed by the local heuristic or OpenAI")
+public final class SuggestionEvent extends Event {
+    
+    @Label("Game Id")
+    String gameId;
+    
+    @Label("Engine")
+    String engine;
+    
+    @Label("Success")
+    boolean success;
+    
+    public static SuggestionEvent started() {
+        SuggestionEvent event = new SuggestionEvent();
+        event.begin();
+        return event;
+    }
+    
+    public void finish(String gameId, String engine, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.gameId = gameId;
+            this.engine = engine;
+            this.success = success;
+            commit();
+        }
+    }
+}
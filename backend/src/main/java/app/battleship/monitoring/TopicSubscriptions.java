@@ -0,0 +1,82 @@
+package app.battleship.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts this node's STOMP subscriptions per destination, so a broadcast's fan-out is known
+ * in O(1) instead of by scanning the broker's subscription registry.
+ */
+@Component
+public class TopicSubscriptions {
+    
+    private final ConcurrentMap<String, Integer> counts = new ConcurrentHashMap<>();
+    // sessionId -> subscriptionId -> destination
+    private final ConcurrentMap<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    
+    public TopicSubscriptions(MeterRegistry meterRegistry) {
+        Gauge.builder("battleship.ws.subscriptions", sessions,
+                        s -> s.values().stream().mapToInt(Map::size).sum())
+                .description("STOMP subscriptions held on this node")
+                .register(meterRegistry);
+    }
+    
+    public int count(String destination) {
+        return counts.getOrDefault(destination, 0);
+    }
+    
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = headers(event.getMessage());
+        String destination = headers.getDestination();
+        if (headers.getSessionId() == null || headers.getSubscriptionId() == null || destination == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(headers.getSubscriptionId(), destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        counts.merge(destination, 1, Integer::sum);
+    }
+    
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = headers(event.getMessage());
+        Map<String, String> subscriptions = headers.getSessionId() != null ? sessions.get(headers.getSessionId()) : null;
+        if (subscriptions != null && headers.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(headers.getSubscriptionId());
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+    
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // Disconnect events can be delivered more than once per session; only the first finds it
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+    
+    private void decrement(String destination) {
+        counts.computeIfPresent(destination, (d, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    private static SimpMessageHeaderAccessor headers(Message<?> message) {
+        return SimpMessageHeaderAccessor.wrap(message);
+    }
+}
@@ -0,0 +1,93 @@
+package app.battleship.monitoring;
+
+import app.battleship.config.BattleshipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Streams jdk.VirtualThreadPinned from an in-process JFR recording while virtual threads are
+ * enabled. A virtual thread that blocks inside synchronized (or native code) holds its carrier,
+ * so enough of them starve the whole scheduler; each pinning longer than
+ * virtual-threads.pinned-threshold-millis is counted and timed, and every distinct stack is
+ * logged once so the offending lock can be found.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    private final BattleshipProperties.VirtualThreads config;
+    private final Counter pinned;
+    private final Timer pinnedDuration;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    
+    private RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(BattleshipProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getVirtualThreads();
+        this.pinned = Counter.builder("battleship.threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("battleship.threads.pinned.duration")
+                .description("Time virtual threads spent blocked while pinned")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(config.getPinnedThresholdMillis()))
+                .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual threads enabled; reporting pinning over {} ms", config.getPinnedThresholdMillis());
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedDuration.record(event.getDuration());
+        
+        String stack = describe(event.getStackTrace());
+        if (reportedStacks.size() < 1000 && reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms at{}", event.getDuration().toMillis(), stack);
+        }
+    }
+    
+    private String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " <no stack>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(config.getPinnedStackDepth())
+                .map(RecordedFrame::getMethod)
+                .map(method -> "\n    " + method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining());
+    }
+}
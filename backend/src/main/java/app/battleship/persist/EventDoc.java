@@ -12,7 +12,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Document("events")
-@CompoundIndex(name = "game_seq_idx", def = "{'gameId': 1, 'eventSeq': 1}")
+@CompoundIndex(name = "game_seq_idx", def = "{'gameId': 1, 'eventSeq': 1}", unique = true)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
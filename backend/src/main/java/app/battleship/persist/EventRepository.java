@@ -1,3 +1,12 @@
 package app.battleship.persist;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
-public interface EventRepository extends MongoRepository<EventDoc,String> {}
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+public interface EventRepository extends MongoRepository<EventDoc,String> {
+    List<EventDoc> findByGameIdAndEventSeqGreaterThanOrderByEventSeqAsc(String gameId, long eventSeq, Pageable pageable);
+    Stream<EventDoc> streamByGameIdOrderByEventSeqAsc(String gameId);
+    Optional<EventDoc> findTopByGameIdOrderByEventSeqDesc(String gameId);
+    long deleteByGameId(String gameId);
+}
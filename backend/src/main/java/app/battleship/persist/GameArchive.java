@@ -0,0 +1,69 @@
+package app.battleship.persist;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold copy of a finished game: final state and the full event log, each gzip-compressed
+ * (events as newline-delimited JSON), keyed by gameId.
+ */
+@Document("game_archives")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameArchive {
+    @Id
+    private String gameId;
+    
+    private String roomId;
+    
+    private List<String> playerIds;
+    
+    private String winnerPlayerId;
+    
+    private String variant;
+    
+    private int turns;
+    
+    private long eventCount;
+    
+    private long rawBytes;
+    
+    private byte[] finalState;
+    
+    private byte[] events;
+    
+    private Instant endedAt;
+    
+    private Instant archivedAt;
+    
+    public static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    public static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package app.battleship.persist;
+import org.springframework.data.mongodb.repository.MongoRepository;
+public interface GameArchiveRepository extends MongoRepository<GameArchive,String> {}
@@ -0,0 +1,5 @@
+package app.battleship.persist;
+
+public interface GameIdView {
+    String getId();
+}
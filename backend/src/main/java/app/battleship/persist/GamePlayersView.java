@@ -0,0 +1,11 @@
+package app.battleship.persist;
+
+/**
+ * Read model of a game's participants, loaded without the rest of the document.
+ */
+public interface GamePlayersView {
+    String getId();
+    String getRoomId();
+    String getFirstPlayerId();
+    String getSecondPlayerId();
+}
@@ -4,11 +4,17 @@ import app.battleship.model.Game;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GameRepository extends MongoRepository<Game, String> {
     Optional<Game> findByRoomId(String roomId);
+    
+    Optional<GamePlayersView> findPlayersById(String id);
+    
+    List<GameIdView> findTop100ByStatusAndArchivedAtIsNullAndEndedAtBefore(Game.GameStatus status, Instant endedBefore);
 }
 
 
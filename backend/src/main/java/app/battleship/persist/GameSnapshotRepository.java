@@ -9,6 +9,8 @@ import java.util.Optional;
 @Repository
 public interface GameSnapshotRepository extends MongoRepository<GameSnapshot, String> {
     Optional<GameSnapshot> findTopByGameIdOrderByTurnDesc(String gameId);
+    
+    long deleteByGameId(String gameId);
 }
 
 
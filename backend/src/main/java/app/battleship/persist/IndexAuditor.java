@@ -0,0 +1,97 @@
+package app.battleship.persist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Compares the indexes declared on @Document classes with the ones that exist in Mongo
+ * once the application is up and reports any that are missing, e.g. when
+ * spring.data.mongodb.auto-index-creation is turned off or index builds failed. An index that
+ * should be unique but isn't counts as missing.
+ */
+@Component
+public class IndexAuditor {
+    
+    private static final Logger log = LoggerFactory.getLogger(IndexAuditor.class);
+    
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    
+    public IndexAuditor(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void auditOnStartup() {
+        try {
+            List<String> missing = findMissingIndexes();
+            if (missing.isEmpty()) {
+                log.info("Mongo index audit: all declared indexes present");
+            } else {
+                missing.forEach(index -> log.warn("Mongo index audit: missing index {}", index));
+            }
+        } catch (Exception e) {
+            log.warn("Mongo index audit failed", e);
+        }
+    }
+    
+    /**
+     * Declared indexes that do not exist, as collection.[field:direction, ...].
+     */
+    public List<String> findMissingIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> missing = new ArrayList<>();
+        
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            String collection = entity.getCollection();
+            // Key order matters for compound indexes, so compare as ordered lists
+            Set<List<String>> existing = new HashSet<>();
+            for (IndexInfo info : mongoTemplate.indexOps(collection).getIndexInfo()) {
+                existing.add(keysOf(info));
+            }
+            
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(definition -> {
+                List<String> keys = new ArrayList<>();
+                definition.getIndexKeys().forEach((field, direction) ->
+                        keys.add(field + ":" + (direction instanceof Number number ? number.intValue() : "special")));
+                if (Boolean.TRUE.equals(definition.getIndexOptions().get("unique"))) {
+                    keys.add("unique");
+                }
+                if (!existing.contains(keys)) {
+                    missing.add(collection + "." + keys);
+                }
+            });
+        }
+        return missing;
+    }
+    
+    private static List<String> keysOf(IndexInfo info) {
+        List<String> keys = new ArrayList<>();
+        for (IndexField field : info.getIndexFields()) {
+            Sort.Direction direction = field.getDirection();
+            keys.add(field.getKey() + ":" + (direction == null ? "special" : direction == Sort.Direction.ASC ? 1 : -1));
+        }
+        if (info.isUnique()) {
+            keys.add("unique");
+        }
+        return keys;
+    }
+}
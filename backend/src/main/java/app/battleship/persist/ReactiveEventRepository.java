@@ -0,0 +1,8 @@
+package app.battleship.persist;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEventRepository extends ReactiveMongoRepository<EventDoc, String> {
+    Mono<EventDoc> findTopByGameIdOrderByEventSeqDesc(String gameId);
+}
@@ -0,0 +1,5 @@
+package app.battleship.persist;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveGameArchiveRepository extends ReactiveMongoRepository<GameArchive, String> {}
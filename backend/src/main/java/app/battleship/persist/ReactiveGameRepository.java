@@ -0,0 +1,9 @@
+package app.battleship.persist;
+
+import app.battleship.model.Game;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveGameRepository extends ReactiveMongoRepository<Game, String> {
+}
@@ -0,0 +1,11 @@
+package app.battleship.persist;
+
+import app.battleship.model.GameSnapshot;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveGameSnapshotRepository extends ReactiveMongoRepository<GameSnapshot, String> {
+    Mono<GameSnapshot> findTopByGameIdOrderByTurnDesc(String gameId);
+}
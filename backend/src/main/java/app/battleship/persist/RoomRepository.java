@@ -10,7 +10,7 @@ import java.util.List;
 @Repository
 public interface RoomRepository extends MongoRepository<Room, String> {
     List<Room> findByStatus(Room.RoomStatus status);
-    List<Room> findByStatusAndLastEmptyAtBefore(Room.RoomStatus status, Instant before);
+    long deleteByStatusAndLastEmptyAtBefore(Room.RoomStatus status, Instant before);
 }
 
 
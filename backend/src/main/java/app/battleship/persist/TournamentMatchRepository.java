@@ -0,0 +1,19 @@
+package app.battleship.persist;
+
+import app.battleship.model.TournamentMatch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TournamentMatchRepository extends MongoRepository<TournamentMatch, String> {
+    List<TournamentMatch> findByTournamentIdOrderByRoundAscSlotAsc(String tournamentId);
+    
+    List<TournamentMatch> findByTournamentIdAndRoundOrderBySlotAsc(String tournamentId, int round);
+    
+    List<TournamentMatch> findByGameIdInAndStatusIn(Collection<String> gameIds, Collection<TournamentMatch.MatchStatus> statuses);
+    
+    long countByTournamentIdAndRoundAndStatusNot(String tournamentId, int round, TournamentMatch.MatchStatus status);
+}
@@ -0,0 +1,15 @@
+package app.battleship.persist;
+
+import app.battleship.model.Tournament;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TournamentRepository extends MongoRepository<Tournament, String> {
+    List<Tournament> findByStatus(Tournament.TournamentStatus status);
+    
+    List<Tournament> findByStatusInOrderByCreatedAtDesc(Collection<Tournament.TournamentStatus> statuses);
+}
@@ -0,0 +1,26 @@
+package app.battleship.scheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for tasks that block on Redis or Mongo. With spring.threads.virtual.enabled every
+ * task gets its own virtual thread, so blocked tasks no longer queue behind a fixed pool;
+ * otherwise a small pool of daemon platform threads is used as before.
+ */
+public final class BlockingTaskExecutors {
+    
+    private BlockingTaskExecutors() {
+    }
+    
+    public static ExecutorService create(String name, int platformThreads, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package app.battleship.scheduling;
+
+import app.battleship.config.BattleshipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Per-job leader election on Redis leases, so that a @Scheduled job runs on one node only.
+ * A node takes a job's lease with SET NX PX and keeps renewing it every
+ * leader.renew-interval-millis while it is alive; if it dies the lease runs out after
+ * leader.lease-millis and the next node to try takes over. A node only trusts its lease until
+ * the expiry it last confirmed, so two nodes never both believe they lead past a lost renewal.
+ */
+@Component
+public class LeaderElection {
+    
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+    
+    private static final String KEY_PREFIX = "leader:";
+    
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+    
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) else return 0 end", Long.class);
+    
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long leaseMillis;
+    private final long renewIntervalMillis;
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer;
+    
+    public LeaderElection(StringRedisTemplate redis, MeterRegistry meterRegistry, BattleshipProperties properties) {
+        BattleshipProperties.Leader config = properties.getLeader();
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.leaseMillis = config.getLeaseMillis();
+        this.renewIntervalMillis = Math.max(1, Math.min(config.getRenewIntervalMillis(), leaseMillis / 2));
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leader-election");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PostConstruct
+    void start() {
+        renewer.scheduleWithFixedDelay(this::refreshAll, renewIntervalMillis, renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    void stop() {
+        renewer.shutdownNow();
+        // Hand leases over immediately instead of making the other nodes wait for expiry
+        for (Lease lease : leases.values()) {
+            if (lease.isValid()) {
+                try {
+                    redis.execute(RELEASE, List.of(lease.key), nodeId);
+                } catch (Exception e) {
+                    log.debug("Failed to release lease {}", lease.key, e);
+                }
+            }
+        }
+    }
+    
+    public boolean isLeader(String job) {
+        Lease lease = leases.get(job);
+        return lease != null && lease.isValid();
+    }
+    
+    /**
+     * Run the task if this node holds (or can take) the job's lease; returns whether it ran.
+     */
+    public boolean runIfLeader(String job, Runnable task) {
+        Lease lease = leases.computeIfAbsent(job, this::newLease);
+        if (!lease.isValid()) {
+            tryAcquire(lease);
+        }
+        if (!lease.isValid()) {
+            lease.skipped.increment();
+            return false;
+        }
+        
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            Timer.builder("battleship.jobs")
+                    .description("Leader-only scheduled job runs")
+                    .tag("job", job)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+    
+    private Lease newLease(String job) {
+        Lease lease = new Lease(KEY_PREFIX + job);
+        Gauge.builder("battleship.leader", lease, l -> l.isValid() ? 1 : 0)
+                .description("1 while this node holds the job's lease")
+                .tag("job", job)
+                .register(meterRegistry);
+        lease.skipped = Counter.builder("battleship.jobs.skipped")
+                .description("Job runs skipped because another node leads")
+                .tag("job", job)
+                .register(meterRegistry);
+        return lease;
+    }
+    
+    private void refreshAll() {
+        for (Lease lease : leases.values()) {
+            try {
+                if (lease.isValid()) {
+                    renew(lease);
+                } else {
+                    tryAcquire(lease);
+                }
+            } catch (Exception e) {
+                log.warn("Lease refresh failed for {}", lease.key, e);
+            }
+        }
+    }
+    
+    private void tryAcquire(Lease lease) {
+        long now = System.nanoTime();
+        Boolean acquired = redis.opsForValue().setIfAbsent(lease.key, nodeId, Duration.ofMillis(leaseMillis));
+        if (Boolean.TRUE.equals(acquired)) {
+            lease.validUntil = now + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+            log.info("Node {} took the lease {}", nodeId, lease.key);
+        }
+    }
+    
+    private void renew(Lease lease) {
+        long now = System.nanoTime();
+        Long renewed = redis.execute(RENEW, List.of(lease.key), nodeId, String.valueOf(leaseMillis));
+        if (renewed != null && renewed == 1) {
+            lease.validUntil = now + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        } else {
+            lease.validUntil = 0;
+            log.info("Node {} lost the lease {}", nodeId, lease.key);
+        }
+    }
+    
+    private static final class Lease {
+        private final String key;
+        private volatile long validUntil;
+        private Counter skipped;
+        
+        Lease(String key) {
+            this.key = key;
+        }
+        
+        boolean isValid() {
+            return validUntil != 0 && System.nanoTime() - validUntil < 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package app.battleship.security;
+
+import app.battleship.persist.GamePlayersView;
+import app.battleship.persist.GameRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Who plays a game, for checks that run before any controller loads state. Players never
+ * change once a game exists, so lookups are cached; games that don't exist are not.
+ */
+@Component
+public class GameParticipants {
+    
+    private static final int MAX_ENTRIES = 10_000;
+    
+    private final GameRepository gameRepository;
+    private final Map<String, List<String>> players = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    
+    public GameParticipants(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+    }
+    
+    public boolean isParticipant(String gameId, String userId) {
+        List<String> playerIds;
+        synchronized (players) {
+            playerIds = players.get(gameId);
+        }
+        if (playerIds == null) {
+            Optional<GamePlayersView> game = gameRepository.findPlayersById(gameId);
+            if (game.isEmpty()) {
+                return false;
+            }
+            playerIds = Arrays.asList(game.get().getFirstPlayerId(), game.get().getSecondPlayerId());
+            synchronized (players) {
+                players.put(gameId, playerIds);
+            }
+        }
+        return playerIds.contains(userId);
+    }
+}
@@ -0,0 +1,78 @@
+package app.battleship.security;
+
+import app.battleship.cluster.GameAffinityRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rejects game actions and suggestion requests over the user's or the game's rate with 429,
+ * before any controller loads state or calls an engine. Runs after JwtAuthenticationFilter;
+ * unauthenticated requests pass through and are turned away by authorization.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final Pattern LIMITED_PATH = Pattern.compile("^/api/games/([^/]+)/(action/attack|action/move|placement|suggest)$");
+    
+    private final RateLimiter rateLimiter;
+    private final GameParticipants participants;
+    private final GameAffinityRouter router;
+    private final ObjectMapper objectMapper;
+    
+    public RateLimitFilter(RateLimiter rateLimiter, GameParticipants participants, GameAffinityRouter router,
+                           ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.participants = participants;
+        this.router = router;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        
+        Matcher matcher = "POST".equals(request.getMethod())
+                ? LIMITED_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()))
+                : null;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (matcher == null || !matcher.matches() || auth == null || !(auth.getPrincipal() instanceof String userId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        RateLimiter.Scope scope = "suggest".equals(matcher.group(2)) ? RateLimiter.Scope.SUGGESTION : RateLimiter.Scope.ACTION;
+        boolean clusterWide = !router.isForwarded(request);
+        String gameId = matcher.group(1);
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(scope, userId, gameId,
+                () -> participants.isParticipant(gameId, userId), clusterWide);
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((decision.retryAfterMillis() + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", "Too many requests, retry in " + decision.retryAfterMillis() + " ms",
+                "limit", decision.limit(),
+                "retryAfterMillis", decision.retryAfterMillis()
+        ));
+    }
+}
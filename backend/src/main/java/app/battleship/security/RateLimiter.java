@@ -0,0 +1,246 @@
+package app.battleship.security;
+
+import app.battleship.config.BattleshipProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Token buckets per user and per game, kept in memory on each node. A request is charged to
+ * both: the user bucket first, so a client over its own limit never drains the game's, and a
+ * user token is handed back when the game bucket rejects. Only the game's players are charged
+ * to its bucket, so outsiders can't spend a game's budget by posting to its URLs. With rate-limit.redis-sync the same
+ * limits are also enforced cluster-wide by a sliding window in Redis; if Redis is unreachable
+ * the local buckets alone apply.
+ */
+@Component
+public class RateLimiter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+    
+    private static final String KEY_PREFIX = "ratelimit:";
+    private static final long SWEEP_MILLIS = 60_000;
+    
+    // Trims each window to redis-window-millis, then admits only if every key is under its
+    // limit (ARGV[3..]); returns {0, 0} when admitted, else {rejecting key index, retry millis}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SLIDING_WINDOW = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "local window = tonumber(ARGV[1]) " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', now - window) " +
+            "  if redis.call('ZCARD', KEYS[i]) >= tonumber(ARGV[i + 2]) then " +
+            "    local oldest = redis.call('ZRANGE', KEYS[i], 0, 0, 'WITHSCORES') " +
+            "    return {i, tonumber(oldest[2]) + window - now} " +
+            "  end " +
+            "end " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('ZADD', KEYS[i], now, ARGV[2]) " +
+            "  redis.call('PEXPIRE', KEYS[i], window) " +
+            "end " +
+            "return {0, 0}", List.class);
+    
+    public enum Scope {
+        ACTION("actions"),
+        SUGGESTION("suggestions");
+        
+        private final String tag;
+        
+        Scope(String tag) {
+            this.tag = tag;
+        }
+    }
+    
+    /**
+     * Outcome of a request; limit names the bucket that rejected it, e.g. "user-actions".
+     */
+    public record Decision(long retryAfterMillis, String limit) {
+        static final Decision ALLOWED = new Decision(0, null);
+        
+        public boolean allowed() {
+            return limit == null;
+        }
+    }
+    
+    private final BattleshipProperties.RateLimit config;
+    private final StringRedisTemplate redis;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter redisFailures;
+    
+    public RateLimiter(BattleshipProperties properties, StringRedisTemplate redis, MeterRegistry meterRegistry) {
+        this.config = properties.getRateLimit();
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.redisFailures = Counter.builder("battleship.ratelimit.redis.failures")
+                .description("Cluster-wide checks skipped because Redis failed")
+                .register(meterRegistry);
+        Gauge.builder("battleship.ratelimit.buckets", buckets, Map::size)
+                .description("Token buckets held in memory")
+                .register(meterRegistry);
+        warnIfOneSeatCanStarve("actions", config.getUserActions(), config.getGameActions());
+        warnIfOneSeatCanStarve("suggestions", config.getUserSuggestions(), config.getGameSuggestions());
+    }
+    
+    /**
+     * Charges one request to userId, and to gameId when participant holds; participant is only
+     * asked once the user bucket has admitted the request. clusterWide is false for requests
+     * forwarded by another node, which already counted them in Redis.
+     */
+    public Decision tryAcquire(Scope scope, String userId, String gameId, BooleanSupplier participant, boolean clusterWide) {
+        if (!config.isEnabled()) {
+            return Decision.ALLOWED;
+        }
+        
+        String userLimit = "user-" + scope.tag;
+        String gameLimit = "game-" + scope.tag;
+        BattleshipProperties.RateLimit.Limit userConfig = scope == Scope.ACTION ? config.getUserActions() : config.getUserSuggestions();
+        BattleshipProperties.RateLimit.Limit gameConfig = scope == Scope.ACTION ? config.getGameActions() : config.getGameSuggestions();
+        String userKey = userLimit + ":" + userId;
+        String gameKey = gameLimit + ":" + gameId;
+        
+        long now = System.nanoTime();
+        TokenBucket userBucket = bucket(userKey, userConfig);
+        long waitNanos = userBucket.tryTake(now);
+        if (waitNanos > 0) {
+            return reject(userLimit, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+        }
+        TokenBucket gameBucket = null;
+        if (participant.getAsBoolean()) {
+            gameBucket = bucket(gameKey, gameConfig);
+            waitNanos = gameBucket.tryTake(now);
+            if (waitNanos > 0) {
+                userBucket.refund();
+                return reject(gameLimit, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+            }
+        }
+        
+        if (clusterWide && config.isRedisSync()) {
+            Decision decision = gameBucket != null
+                    ? checkCluster(List.of(userLimit, gameLimit), List.of(userKey, gameKey), List.of(userConfig, gameConfig))
+                    : checkCluster(List.of(userLimit), List.of(userKey), List.of(userConfig));
+            if (!decision.allowed()) {
+                userBucket.refund();
+                if (gameBucket != null) {
+                    gameBucket.refund();
+                }
+                return decision;
+            }
+        }
+        return Decision.ALLOWED;
+    }
+    
+    @Scheduled(fixedDelay = SWEEP_MILLIS)
+    public void evictFullBuckets() {
+        // A full bucket behaves exactly like a new one, so dropping it loses nothing
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+    
+    private TokenBucket bucket(String key, BattleshipProperties.RateLimit.Limit limit) {
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond()));
+    }
+    
+    private Decision checkCluster(List<String> limits, List<String> keys, List<BattleshipProperties.RateLimit.Limit> limitConfigs) {
+        long windowMillis = Math.max(1, config.getRedisWindowMillis());
+        List<String> redisKeys = new ArrayList<>();
+        List<String> args = new ArrayList<>(List.of(String.valueOf(windowMillis), UUID.randomUUID().toString()));
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys.add(KEY_PREFIX + keys.get(i));
+            args.add(String.valueOf(windowLimit(limitConfigs.get(i), windowMillis)));
+        }
+        try {
+            List<?> result = redis.execute(SLIDING_WINDOW, redisKeys, args.toArray());
+            long rejected = result == null || result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+            if (rejected == 0) {
+                return Decision.ALLOWED;
+            }
+            long retryMillis = Math.max(1, ((Number) result.get(1)).longValue());
+            return reject("cluster-" + limits.get((int) rejected - 1), retryMillis);
+        } catch (Exception e) {
+            redisFailures.increment();
+            log.debug("Cluster-wide rate limit check failed, using local buckets only", e);
+            return Decision.ALLOWED;
+        }
+    }
+    
+    // Two players share a game bucket; above half of it, one of them can use it all up
+    private static void warnIfOneSeatCanStarve(String scope, BattleshipProperties.RateLimit.Limit user,
+                                               BattleshipProperties.RateLimit.Limit game) {
+        if (user.getCapacity() * 2 > game.getCapacity() || user.getRefillPerSecond() * 2 > game.getRefillPerSecond()) {
+            log.warn("rate-limit.user-{} is more than half of rate-limit.game-{}; one player can starve the other", scope, scope);
+        }
+    }
+    
+    // The most a token bucket admits over one window: a full burst plus the refill
+    private static long windowLimit(BattleshipProperties.RateLimit.Limit limit, long windowMillis) {
+        return limit.getCapacity() + (long) Math.floor(limit.getRefillPerSecond() * windowMillis / 1000.0);
+    }
+    
+    private Decision reject(String limit, long retryAfterMillis) {
+        meterRegistry.counter("battleship.ratelimit.rejected", "limit", limit).increment();
+        return new Decision(retryAfterMillis, limit);
+    }
+    
+    static final class TokenBucket {
+        
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedNanos;
+        
+        TokenBucket(int capacity, double refillPerSecond) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = Math.max(0, refillPerSecond) / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = this.capacity;
+            this.updatedNanos = System.nanoTime();
+        }
+        
+        /**
+         * Takes a token and returns 0, or returns the nanos until one will be available.
+         */
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            if (tokensPerNano == 0) {
+                return Long.MAX_VALUE;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+        
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+        
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+        
+        private void refill(long now) {
+            if (now > updatedNanos) {
+                tokens = Math.min(capacity, tokens + (now - updatedNanos) * tokensPerNano);
+                updatedNanos = now;
+            }
+        }
+    }
+}
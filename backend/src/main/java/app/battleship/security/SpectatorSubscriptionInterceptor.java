@@ -0,0 +1,53 @@
+package app.battleship.security;
+
+import app.battleship.persist.GamePlayersView;
+import app.battleship.persist.GameRepository;
+import app.battleship.service.SpectatorService;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Refuses spectator subscriptions from anonymous sessions and from the game's own players, who
+ * could otherwise watch their opponent's fleet.
+ */
+@Component
+public class SpectatorSubscriptionInterceptor implements ChannelInterceptor {
+    
+    private final GameRepository gameRepository;
+    
+    public SpectatorSubscriptionInterceptor(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+    }
+    
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String gameId = SpectatorService.spectatedGame(accessor.getDestination());
+        if (gameId == null) {
+            return message;
+        }
+        
+        Principal user = accessor.getUser();
+        if (user == null) {
+            throw new MessageDeliveryException("Log in to spectate");
+        }
+        GamePlayersView game = gameRepository.findPlayersById(gameId)
+                .orElseThrow(() -> new MessageDeliveryException("Game not found"));
+        if (user.getName().equals(game.getFirstPlayerId()) || user.getName().equals(game.getSecondPlayerId())) {
+            throw new MessageDeliveryException("Players cannot spectate their own game");
+        }
+        return message;
+    }
+}
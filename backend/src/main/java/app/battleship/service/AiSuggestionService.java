@@ -1,20 +1,26 @@
 package app.battleship.service;
 
+import app.battleship.engine.BoardEngine;
+import app.battleship.engine.BoardEngines;
+import app.battleship.engine.BoardMask;
 import app.battleship.model.Coord;
 import app.battleship.model.GameState;
 import app.battleship.model.PlayerState;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
+import app.battleship.monitoring.SuggestionEvent;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,18 +33,20 @@ public class AiSuggestionService {
     
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
-    private final SimpMessagingTemplate messagingTemplate;
     private final GameService gameService;
-    private final StringRedisTemplate redis;
+    private final GameEventLog eventLog;
+    private final GameMetrics metrics;
+    private final ActionLatencySlo slo;
     
     public AiSuggestionService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
-                              SimpMessagingTemplate messagingTemplate, GameService gameService,
-                              StringRedisTemplate redis) {
+                              GameService gameService, GameEventLog eventLog, GameMetrics metrics,
+                              ActionLatencySlo slo) {
         this.webClient = webClientBuilder.baseUrl("https://api.openai.com/v1").build();
         this.objectMapper = objectMapper;
-        this.messagingTemplate = messagingTemplate;
         this.gameService = gameService;
-        this.redis = redis;
+        this.eventLog = eventLog;
+        this.metrics = metrics;
+        this.slo = slo;
     }
     
     @Async
@@ -49,82 +57,95 @@ public class AiSuggestionService {
             Map<String, Object> suggestion;
             if (openaiApiKey == null || openaiApiKey.isBlank()) {
                 log.info("OpenAI API key not configured, using local heuristic");
-                suggestion = generateLocalHeuristic(state, playerId);
+                suggestion = localSuggestion(state, playerId);
+            } else if (slo.localSuggestionsOnly()) {
+                log.debug("Action latency SLO breached, using local heuristic");
+                suggestion = localSuggestion(state, playerId);
             } else {
+                Timer.Sample sample = metrics.start();
+                SuggestionEvent event = SuggestionEvent.started();
                 try {
                     suggestion = generateOpenAiSuggestion(state, playerId);
+                    metrics.recordSuggestion(sample, "openai", "success");
+                    event.finish(gameId, "openai", true);
                 } catch (Exception e) {
+                    metrics.recordSuggestion(sample, "openai", "failure");
+                    event.finish(gameId, "openai", false);
                     log.warn("OpenAI API failed, falling back to local heuristic", e);
-                    suggestion = generateLocalHeuristic(state, playerId);
+                    suggestion = localSuggestion(state, playerId);
                 }
             }
             
             // Broadcast SUGGESTION_READY
-            Long eventSeq = redis.opsForValue().increment("game:" + gameId + ":eventSeq", 1L);
-            if (eventSeq == null) eventSeq = 1L;
-            
-            Map<String, Object> event = Map.of(
-                    "eventId", UUID.randomUUID().toString(),
-                    "eventSeq", eventSeq,
-                    "type", "SUGGESTION_READY",
-                    "payload", Map.of(
-                            "gameId", gameId,
-                            "turn", state.getTurn(),
-                            "suggestion", suggestion
-                    )
-            );
-            
-            messagingTemplate.convertAndSend("/topic/rooms/" + state.getRoomId(), event);
+            eventLog.publish(state.getRoomId(), gameId, state.getTurn(), "SUGGESTION_READY", Map.of(
+                    "gameId", gameId,
+                    "turn", state.getTurn(),
+                    "suggestion", suggestion
+            ));
             
         } catch (Exception e) {
             log.error("Failed to generate suggestion", e);
         }
     }
     
-    private Map<String, Object> generateLocalHeuristic(GameState state, String playerId) {
+    private Map<String, Object> localSuggestion(GameState state, String playerId) {
+        Timer.Sample sample = metrics.start();
+        SuggestionEvent event = SuggestionEvent.started();
+        String outcome = "failure";
+        try {
+            Map<String, Object> suggestion = generateLocalHeuristic(state, playerId);
+            outcome = "success";
+            return suggestion;
+        } finally {
+            metrics.recordSuggestion(sample, "local", outcome);
+            event.finish(state.getGameId(), "local", "success".equals(outcome));
+        }
+    }
+    
+    /**
+     * Local heuristic on a bitmask of attacked cells: cost depends on the number of
+     * attacks and mask words, not on scanning every board cell against every attack.
+     * Package-private for backend-benchmarks.
+     */
+    Map<String, Object> generateLocalHeuristic(GameState state, String playerId) {
         PlayerState myState = state.getPlayers().get(playerId);
         List<Coord> hits = myState.getBoard().getAttacksByMeHits();
         List<Coord> misses = myState.getBoard().getAttacksByMeMisses();
         
-        // Combine to get all already attacked coordinates
-        List<Coord> alreadyAttacked = new ArrayList<>();
-        alreadyAttacked.addAll(hits);
-        alreadyAttacked.addAll(misses);
-        
-        // Find all available coordinates
-        List<Coord> available = new ArrayList<>();
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                Coord coord = new Coord(r, c);
-                if (!alreadyAttacked.contains(coord)) {
-                    available.add(coord);
-                }
-            }
+        BoardEngine engine = BoardEngines.forSize(state.getBoardSize());
+        BoardMask attacked = engine.newMask();
+        for (Coord coord : hits) {
+            attacked.set(engine.cellOf(coord.getR(), coord.getC()));
+        }
+        for (Coord coord : misses) {
+            attacked.set(engine.cellOf(coord.getR(), coord.getC()));
         }
         
-        if (available.isEmpty()) {
+        int available = engine.cells() - attacked.cardinality();
+        if (available <= 0) {
             throw new RuntimeException("No available coordinates");
         }
         
-        // Simple heuristic: prefer coordinates adjacent to hits
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         
-        Coord target;
+        // Simple heuristic: prefer coordinates adjacent to hits
+        Coord target = null;
         if (!hits.isEmpty()) {
             // Find unsunk hit and attack adjacent
             Coord lastHit = hits.get(hits.size() - 1);
-            List<Coord> adjacents = getAdjacentCoords(lastHit);
-            List<Coord> availableAdjacents = adjacents.stream()
-                    .filter(available::contains)
+            List<Coord> availableAdjacents = getAdjacentCoords(lastHit, engine).stream()
+                    .filter(coord -> !attacked.get(engine.cellOf(coord.getR(), coord.getC())))
                     .collect(Collectors.toList());
             
             if (!availableAdjacents.isEmpty()) {
-                target = availableAdjacents.get(new Random().nextInt(availableAdjacents.size()));
-            } else {
-                target = available.get(new Random().nextInt(available.size()));
+                target = availableAdjacents.get(random.nextInt(availableAdjacents.size()));
             }
-        } else {
-            // Random attack
-            target = available.get(new Random().nextInt(available.size()));
+        }
+        
+        if (target == null) {
+            // Random attack among unattacked cells
+            int cell = attacked.nthClearBit(random.nextInt(available), engine.cells());
+            target = new Coord(cell / engine.size(), cell % engine.size());
         }
         
         return Map.of(
@@ -134,14 +155,14 @@ public class AiSuggestionService {
         );
     }
     
-    private List<Coord> getAdjacentCoords(Coord coord) {
+    private List<Coord> getAdjacentCoords(Coord coord, BoardEngine engine) {
         List<Coord> adjacents = new ArrayList<>();
         int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
         
         for (int[] dir : directions) {
             int r = coord.getR() + dir[0];
             int c = coord.getC() + dir[1];
-            if (r >= 0 && r < 10 && c >= 0 && c < 10) {
+            if (engine.isValidCoord(r, c)) {
                 adjacents.add(new Coord(r, c));
             }
         }
@@ -158,8 +179,11 @@ public class AiSuggestionService {
         PlayerState opponentState = state.getPlayers().get(opponentId);
         
         // Build prompt with complete game state
-        Map<String, Object> gameStateInfo = buildGameStateInfo(myState, opponentState);
-        String prompt = buildPrompt(gameStateInfo);
+        Map<String, Object> gameStateInfo = buildGameStateInfo(state, myState, opponentState);
+        String prompt = buildPrompt(gameStateInfo, state.getBoardSize());
+        String fleet = state.getFleet().stream()
+                .map(kind -> String.valueOf(kind.getLength()))
+                .collect(Collectors.joining("/"));
         
         Map<String, Object> requestBody = Map.of(
                 "model", "gpt-4o-mini",
@@ -170,7 +194,8 @@ public class AiSuggestionService {
                                 "A 'hit' means there was a ship at that location when attacked. " +
                                 "A 'miss' means there was no ship at that location when attacked. " +
                                 "The enemy may have moved ships since then, so previous misses might now have ships. " +
-                                "Standard rules: 10x10 board, fleet 5/4/3/3/2, 1 attack per turn, no duplicate attacks. " +
+                                "Rules: " + state.getBoardSize() + "x" + state.getBoardSize() + " board, fleet " + fleet +
+                                ", 1 attack per turn, no duplicate attacks. " +
                                 "Output ONLY valid JSON with this exact format: " +
                                 "{\"type\":\"ATTACK\",\"confidence\":0.0,\"detail\":{\"target\":{\"r\":0,\"c\":0}}}"),
                         Map.of("role", "user", "content", prompt)
@@ -214,7 +239,7 @@ public class AiSuggestionService {
         return suggestion;
     }
     
-    private Map<String, Object> buildGameStateInfo(PlayerState myState, PlayerState opponentState) {
+    private Map<String, Object> buildGameStateInfo(GameState state, PlayerState myState, PlayerState opponentState) {
         // Use static records of attacks (not dynamically calculated)
         List<Coord> hits = myState.getBoard().getAttacksByMeHits();
         List<Coord> misses = myState.getBoard().getAttacksByMeMisses();
@@ -238,12 +263,12 @@ public class AiSuggestionService {
         Map<String, Object> info = new HashMap<>();
         info.put("myAttacks", attacksInfo);
         info.put("opponentSunkShips", sunkShips);
-        info.put("remainingCells", 100 - totalAttacks);
+        info.put("remainingCells", state.getBoardSize() * state.getBoardSize() - totalAttacks);
         
         return info;
     }
     
-    private String buildPrompt(Map<String, Object> gameStateInfo) {
+    private String buildPrompt(Map<String, Object> gameStateInfo, int boardSize) {
         try {
             String jsonState = objectMapper.writerWithDefaultPrettyPrinter()
                     .writeValueAsString(gameStateInfo);
@@ -257,9 +282,9 @@ public class AiSuggestionService {
                     "- Enemy may have moved ships to previous 'miss' locations\n" +
                     "- Cannot attack the same coordinate twice\n" +
                     "- Consider that enemy may move damaged ships to avoid further hits\n\n" +
-                    "Suggest the next best attack coordinate (row 0-9, col 0-9). " +
+                    "Suggest the next best attack coordinate (row 0-%d, col 0-%d). " +
                     "Return only the JSON object with your suggestion.",
-                    jsonState
+                    jsonState, boardSize - 1, boardSize - 1
             );
         } catch (Exception e) {
             log.error("Failed to serialize game state", e);
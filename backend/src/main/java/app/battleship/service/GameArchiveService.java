@@ -0,0 +1,207 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.Game;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameState;
+import app.battleship.persist.*;
+import app.battleship.scheduling.LeaderElection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finished games out of hot storage. A while after GAME_ENDED (archive.delay-sec, long
+ * enough for reconnecting clients to see the result) the final state and the event log are
+ * compressed into one game_archives document, then the Redis keys, events and snapshots are
+ * deleted. A periodic sweep picks up games whose timer was lost to a restart; every step is
+ * idempotent, so a game archived twice by two nodes ends up the same.
+ */
+@Service
+public class GameArchiveService {
+    
+    private static final Logger log = LoggerFactory.getLogger(GameArchiveService.class);
+    
+    private final GameRepository gameRepository;
+    private final GameArchiveRepository archiveRepository;
+    private final EventRepository eventRepository;
+    private final GameSnapshotRepository snapshotRepository;
+    private final GameKeyManager keys;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final LeaderElection leaderElection;
+    private final BattleshipProperties.Archive config;
+    
+    public GameArchiveService(GameRepository gameRepository, GameArchiveRepository archiveRepository,
+                              EventRepository eventRepository, GameSnapshotRepository snapshotRepository,
+                              GameKeyManager keys, ObjectMapper objectMapper,
+                              TaskScheduler taskScheduler, LeaderElection leaderElection,
+                              BattleshipProperties properties) {
+        this.gameRepository = gameRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.keys = keys;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.leaderElection = leaderElection;
+        this.config = properties.getArchive();
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        taskScheduler.schedule(() -> archiveQuietly(event.gameId()),
+                Instant.now().plusSeconds(config.getDelaySec()));
+    }
+    
+    @Scheduled(fixedDelayString = "${archive.sweep-interval:60000}", initialDelayString = "${archive.sweep-interval:60000}")
+    public void sweepEndedGames() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        leaderElection.runIfLeader("archive-sweep", () -> {
+            Instant cutoff = Instant.now().minusSeconds(config.getDelaySec());
+            List<GameIdView> pending = gameRepository.findTop100ByStatusAndArchivedAtIsNullAndEndedAtBefore(
+                    Game.GameStatus.ENDED, cutoff);
+            for (GameIdView game : pending) {
+                archiveQuietly(game.getId());
+            }
+        });
+    }
+    
+    /**
+     * Archive one finished game and release its hot storage. Returns the archive document.
+     */
+    public GameArchive archive(String gameId) throws IOException {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new IllegalArgumentException("Game not found: " + gameId));
+        if (game.getStatus() != Game.GameStatus.ENDED) {
+            throw new IllegalStateException("Game " + gameId + " has not ended");
+        }
+        
+        GameArchive archive = archiveRepository.findById(gameId).orElse(null);
+        if (archive == null) {
+            archive = buildArchive(game);
+            archiveRepository.save(archive);
+        }
+        
+        // Hot copies go only after the archive is durable
+        keys.delete(gameId);
+        long events = eventRepository.deleteByGameId(gameId);
+        long snapshots = snapshotRepository.deleteByGameId(gameId);
+        
+        game.setArchivedAt(archive.getArchivedAt());
+        gameRepository.save(game);
+        
+        log.info("Archived game {}: {} events, {} snapshots removed, {} -> {} bytes",
+                gameId, events, snapshots, archive.getRawBytes(),
+                archive.getEvents().length + (archive.getFinalState() != null ? archive.getFinalState().length : 0));
+        return archive;
+    }
+    
+    private void archiveQuietly(String gameId) {
+        try {
+            archive(gameId);
+        } catch (Exception e) {
+            log.error("Failed to archive game {}", gameId, e);
+        }
+    }
+    
+    private GameArchive buildArchive(Game game) throws IOException {
+        String gameId = game.getId();
+        String stateJson = keys.readState(gameId).json();
+        if (stateJson == null) {
+            stateJson = snapshotRepository.findById(gameId)
+                    .or(() -> snapshotRepository.findTopByGameIdOrderByTurnDesc(gameId))
+                    .map(snapshot -> {
+                        try {
+                            return objectMapper.writeValueAsString(snapshot.getState());
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Cannot serialize snapshot of " + gameId, e);
+                        }
+                    })
+                    .orElse(null);
+        }
+        
+        GameArchive archive = new GameArchive();
+        archive.setGameId(gameId);
+        archive.setRoomId(game.getRoomId());
+        archive.setPlayerIds(List.of(game.getFirstPlayerId(), game.getSecondPlayerId()));
+        archive.setWinnerPlayerId(game.getWinnerPlayerId());
+        archive.setEndedAt(game.getEndedAt());
+        
+        long rawBytes = 0;
+        if (stateJson != null) {
+            byte[] state = stateJson.getBytes(StandardCharsets.UTF_8);
+            rawBytes += state.length;
+            archive.setFinalState(GameArchive.gzip(state));
+            GameState finalState = objectMapper.readValue(stateJson, GameState.class);
+            archive.setVariant(finalState.getVariant());
+            archive.setTurns(finalState.getTurn());
+        }
+        
+        // Stream the log through the compressor instead of materializing it
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        CountingOutputStream raw;
+        long eventCount = 0;
+        int lastTurn = 0;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+             Stream<EventDoc> events = eventRepository.streamByGameIdOrderByEventSeqAsc(gameId)) {
+            raw = new CountingOutputStream(gzip);
+            for (EventDoc event : (Iterable<EventDoc>) events::iterator) {
+                raw.write(objectMapper.writeValueAsBytes(event));
+                raw.write('\n');
+                eventCount++;
+                lastTurn = Math.max(lastTurn, event.getTurn());
+            }
+        }
+        rawBytes += raw.count;
+        
+        archive.setEvents(compressed.toByteArray());
+        archive.setEventCount(eventCount);
+        if (stateJson == null) {
+            // Game.turn is never advanced past 1; without a final state the log is the best record
+            archive.setTurns(lastTurn);
+        }
+        archive.setRawBytes(rawBytes);
+        archive.setArchivedAt(Instant.now());
+        return archive;
+    }
+    
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+        
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+    }
+}
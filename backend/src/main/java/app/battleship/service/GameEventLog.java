@@ -0,0 +1,300 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameStartedEvent;
+import app.battleship.model.GameState;
+import app.battleship.monitoring.GameMetrics;
+import app.battleship.monitoring.TopicSubscriptions;
+import app.battleship.persist.EventDoc;
+import app.battleship.persist.EventRepository;
+import app.battleship.persist.GamePlayersView;
+import app.battleship.persist.GameRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single path for sequenced game events: assigns eventSeq, persists to the events collection,
+ * keeps the most recent events of each game in an in-memory ring buffer and broadcasts to the room.
+ * Reconnecting clients catch up from the ring; only a client that fell further behind than the ring
+ * (or whose events were written by another node) costs an indexed range read on game_seq_idx.
+ * Catch-up replays events as they were broadcast, so an attack or move arrives as STATE_UPDATED.
+ * Rings nobody has touched for events.buffer.idle-sec are dropped, whether or not the game ended here.
+ */
+@Service
+public class GameEventLog {
+    
+    private static final String STATE_UPDATED = "STATE_UPDATED";
+    private static final Set<String> ACTION_EVENTS = Set.of("ATTACK_PROCESSED", "SHIP_MOVED");
+    
+    private final EventRepository eventRepository;
+    private final GameRepository gameRepository;
+    private final GameKeyManager keys;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskScheduler taskScheduler;
+    private final GameMetrics metrics;
+    private final TopicSubscriptions subscriptions;
+    private final Timer insertTimer;
+    private final int capacity;
+    private final int maxBatch;
+    private final long retainSec;
+    private final long idleMillis;
+    private final ConcurrentMap<String, EventRing> rings = new ConcurrentHashMap<>();
+    
+    public GameEventLog(EventRepository eventRepository, GameRepository gameRepository,
+                        GameKeyManager keys, SimpMessagingTemplate messagingTemplate,
+                        TaskScheduler taskScheduler, GameMetrics metrics, TopicSubscriptions subscriptions,
+                        MeterRegistry meterRegistry, BattleshipProperties properties) {
+        BattleshipProperties.Events.Buffer buffer = properties.getEvents().getBuffer();
+        this.eventRepository = eventRepository;
+        this.gameRepository = gameRepository;
+        this.keys = keys;
+        this.messagingTemplate = messagingTemplate;
+        this.taskScheduler = taskScheduler;
+        this.metrics = metrics;
+        this.subscriptions = subscriptions;
+        this.insertTimer = GameMetrics.storeTimers(meterRegistry, "mongo").withTags("operation", "event.insert");
+        this.capacity = Math.max(1, buffer.getCapacity());
+        this.maxBatch = Math.max(1, buffer.getMaxBatch());
+        this.retainSec = Math.max(0, buffer.getRetainSec());
+        this.idleMillis = Math.max(retainSec, buffer.getIdleSec()) * 1000;
+    }
+    
+    public long nextSeq(String gameId) {
+        return keys.nextEventSeq(gameId, () -> persistedSeq(gameId));
+    }
+    
+    /**
+     * Highest eventSeq already in the events collection, 0 for a game with none.
+     */
+    public long persistedSeq(String gameId) {
+        return eventRepository.findTopByGameIdOrderByEventSeqDesc(gameId)
+                .map(EventDoc::getEventSeq)
+                .orElse(0L);
+    }
+    
+    /**
+     * Persist an event whose eventSeq was already taken with nextSeq and add it to the ring.
+     */
+    public EventDoc append(EventDoc eventDoc) {
+        insertTimer.record(() -> eventRepository.save(eventDoc));
+        remember(eventDoc);
+        return eventDoc;
+    }
+    
+    /**
+     * Add an event that was persisted elsewhere (the reactive pipeline) to the ring.
+     */
+    public void remember(EventDoc eventDoc) {
+        ringFor(eventDoc.getGameId()).add(eventDoc);
+    }
+    
+    public Map<String, Object> publish(String roomId, String gameId, String type, Map<String, Object> payload) {
+        return publish(roomId, gameId, 0, type, payload);
+    }
+    
+    /**
+     * Sequence, record and broadcast an event to everyone in the room.
+     */
+    public Map<String, Object> publish(String roomId, String gameId, int turn, String type, Map<String, Object> payload) {
+        EventDoc eventDoc = append(EventDoc.of(gameId, nextSeq(gameId), turn, type, payload));
+        Map<String, Object> event = Map.of(
+                "eventId", eventDoc.getEventId(),
+                "eventSeq", eventDoc.getEventSeq(),
+                "type", type,
+                "payload", payload
+        );
+        broadcast(roomId, event);
+        return event;
+    }
+    
+    /**
+     * What players are sent for an attack or move recorded as eventDoc: STATE_UPDATED, on which
+     * they re-read their view. Action events keep this payload so that catch-up can replay it.
+     */
+    public static Map<String, Object> stateUpdated(EventDoc eventDoc) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", eventDoc.getEventId());
+        event.put("eventSeq", eventDoc.getEventSeq());
+        event.put("type", STATE_UPDATED);
+        event.put("payload", stateUpdatedPayload(eventDoc));
+        return event;
+    }
+    
+    public static Map<String, Object> stateUpdatedPayload(GameState state) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("gameId", state.getGameId());
+        payload.put("stateVersion", state.getStateVersion());
+        payload.put("turn", state.getTurn());
+        payload.put("currentPlayerId", state.getCurrentPlayerId());
+        return payload;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stateUpdatedPayload(EventDoc eventDoc) {
+        Map<String, Object> recorded = eventDoc.getPayload() != null ? eventDoc.getPayload() : Map.of();
+        if (recorded.get(STATE_UPDATED) instanceof Map<?, ?> payload) {
+            return (Map<String, Object>) payload;
+        }
+        // Events recorded before the payload was kept
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("gameId", eventDoc.getGameId());
+        payload.put("stateVersion", recorded.get("stateVersion"));
+        payload.put("turn", eventDoc.getTurn());
+        payload.put("currentPlayerId", recorded.get("currentPlayerId"));
+        return payload;
+    }
+    
+    /**
+     * Send an event to everyone subscribed to the room, recording how many that reaches.
+     * The STOMP frame carries the current traceparent, for clients to echo.
+     */
+    public void broadcast(String roomId, Map<String, Object> event) {
+        String destination = "/topic/rooms/" + roomId;
+        metrics.recordFanout(subscriptions.count(destination));
+        messagingTemplate.convertAndSend(destination, event, metrics.traceHeaders());
+    }
+    
+    /**
+     * Events after afterSeq as the given player is allowed to see them, oldest first,
+     * at most events.buffer.max-batch per call (hasMore tells the client to ask again).
+     */
+    public Map<String, Object> eventsAfter(String gameId, String playerId, long afterSeq) {
+        EventRing ring = rings.get(gameId);
+        if (ring != null) {
+            ring.touch();
+        }
+        Set<String> players = ring != null ? ring.players : null;
+        if (players == null) {
+            players = loadPlayers(gameId);
+            if (ring != null) {
+                ring.players = players;
+            }
+        }
+        if (!players.contains(playerId)) {
+            throw new IllegalArgumentException("Not a player in this game");
+        }
+        
+        long from = Math.max(0, afterSeq);
+        long latestSeq = keys.currentEventSeq(gameId);
+        long to = Math.min(latestSeq, from + maxBatch);
+        
+        List<EventDoc> docs = List.of();
+        String source = "memory";
+        if (to > from) {
+            docs = ring != null ? ring.range(from + 1, to) : null;
+            if (docs == null) {
+                source = "store";
+                docs = eventRepository.findByGameIdAndEventSeqGreaterThanOrderByEventSeqAsc(
+                        gameId, from, PageRequest.of(0, (int) (to - from)));
+            }
+        }
+        
+        List<Map<String, Object>> events = new ArrayList<>(docs.size());
+        for (EventDoc doc : docs) {
+            events.add(toClientEvent(doc));
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("gameId", gameId);
+        response.put("afterSeq", from);
+        response.put("latestSeq", latestSeq);
+        response.put("events", events);
+        response.put("hasMore", to < latestSeq);
+        response.put("source", source);
+        return response;
+    }
+    
+    @EventListener
+    public void onGameStarted(GameStartedEvent event) {
+        ringFor(event.gameId()).players = Set.copyOf(event.playerIds());
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        // Keep the tail around for clients reconnecting to see the result, then serve from Mongo
+        taskScheduler.schedule(() -> rings.remove(event.gameId()), Instant.now().plusSeconds(retainSec));
+    }
+    
+    @Scheduled(fixedDelayString = "${events.buffer.sweep-interval:60000}")
+    public void evictIdleRings() {
+        // Games that ended on another node, or were abandoned, never see a local GameEndedEvent
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        rings.values().removeIf(ring -> ring.lastUsed < idleSince);
+    }
+    
+    private EventRing ringFor(String gameId) {
+        return rings.computeIfAbsent(gameId, id -> new EventRing(capacity));
+    }
+    
+    private Set<String> loadPlayers(String gameId) {
+        GamePlayersView game = gameRepository.findPlayersById(gameId)
+                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        return Set.of(game.getFirstPlayerId(), game.getSecondPlayerId());
+    }
+    
+    private static Map<String, Object> toClientEvent(EventDoc doc) {
+        if (ACTION_EVENTS.contains(doc.getEventType())) {
+            return stateUpdated(doc);
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", doc.getEventId());
+        event.put("eventSeq", doc.getEventSeq());
+        event.put("turn", doc.getTurn());
+        event.put("type", doc.getEventType());
+        event.put("payload", doc.getPayload() != null ? doc.getPayload() : Map.of());
+        return event;
+    }
+    
+    /**
+     * Last `capacity` events of a game, slotted by eventSeq so that events appended slightly
+     * out of order by concurrent publishers still land in the right place.
+     */
+    private static final class EventRing {
+        private final EventDoc[] slots;
+        private volatile Set<String> players;
+        private volatile long lastUsed = System.currentTimeMillis();
+        
+        EventRing(int capacity) {
+            this.slots = new EventDoc[capacity];
+        }
+        
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+        
+        synchronized void add(EventDoc doc) {
+            slots[(int) Math.floorMod(doc.getEventSeq(), (long) slots.length)] = doc;
+            touch();
+        }
+        
+        /**
+         * Events from..to inclusive, or null when any of them is missing from this node's ring.
+         */
+        synchronized List<EventDoc> range(long from, long to) {
+            if (to - from + 1 > slots.length) {
+                return null;
+            }
+            List<EventDoc> docs = new ArrayList<>((int) (to - from + 1));
+            for (long seq = from; seq <= to; seq++) {
+                EventDoc doc = slots[(int) Math.floorMod(seq, (long) slots.length)];
+                if (doc == null || doc.getEventSeq() != seq) {
+                    return null;
+                }
+                docs.add(doc);
+            }
+            return docs;
+        }
+    }
+}
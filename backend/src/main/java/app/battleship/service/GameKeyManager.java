@@ -0,0 +1,283 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.monitoring.GameMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Owns the Redis layout of per-game data. Everything a game keeps in Redis lives in one hash,
+ * game:{id}, with fields state, rev (bumped on every state write), eventSeq and the snapshot
+ * accounting fields snapBytes/snapSeq. Each write also pushes the hash's expiry out by
+ * keys.game-ttl-sec in the same script, so abandoned games age out on their own and active
+ * ones never expire mid-game. Games written before this layout, under the separate
+ * game:{id}:state and game:{id}:eventSeq keys, are moved into the hash the first time they are read.
+ */
+@Service
+public class GameKeyManager {
+    
+    private static final Logger log = LoggerFactory.getLogger(GameKeyManager.class);
+    
+    private static final String GAME_KEY_PREFIX = "game:";
+    static final String STATE_FIELD = "state";
+    static final String REVISION_FIELD = "rev";
+    private static final String EVENT_SEQ_FIELD = "eventSeq";
+    
+    // A state write also accounts bytes written and events published since the last
+    // snapshot, returning {rev, snapBytes, eventsSinceSnapshot} for the snapshot policy
+    private static final String ACCOUNT_AND_EXPIRE =
+            "local bytes = redis.call('HINCRBY', KEYS[1], 'snapBytes', string.len(ARGV[1])) " +
+            "local events = tonumber(redis.call('HGET', KEYS[1], 'eventSeq') or '0') " +
+            "- tonumber(redis.call('HGET', KEYS[1], 'snapSeq') or '0') " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return {rev, bytes, events}";
+    
+    // The first write of a game's state (rev 0) sets eventSeq to at least ARGV[4], the last sequence
+    // already persisted, so a game restored from Mongo doesn't hand out sequences twice
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> COMPARE_AND_SET_STATE = new DefaultRedisScript<>(
+            "local rev = tonumber(redis.call('HGET', KEYS[1], 'rev') or '0') " +
+            "if rev ~= tonumber(ARGV[3]) then return {} end " +
+            "if rev == 0 then redis.call('HSET', KEYS[1], 'eventSeq', " +
+            "math.max(tonumber(ARGV[4]), tonumber(redis.call('HGET', KEYS[1], 'eventSeq') or '0'))) end " +
+            "rev = rev + 1 " +
+            "redis.call('HSET', KEYS[1], 'state', ARGV[1], 'rev', rev) " +
+            ACCOUNT_AND_EXPIRE, List.class);
+    
+    // Move a pre-hash game (KEYS[2] state, KEYS[3] eventSeq) into its hash unless the hash
+    // already has state; returns {state, rev} of whatever the hash holds afterwards
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> MIGRATE_LEGACY_STATE = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'state') == 0 then " +
+            "local state = redis.call('GET', KEYS[2]) " +
+            "if not state then return {} end " +
+            "local seq = tonumber(redis.call('GET', KEYS[3]) or '0') " +
+            "local current = tonumber(redis.call('HGET', KEYS[1], 'eventSeq') or '0') " +
+            "redis.call('HSET', KEYS[1], 'state', state, 'rev', 1, 'eventSeq', math.max(seq, current)) " +
+            "redis.call('DEL', KEYS[2], KEYS[3]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+            "return redis.call('HMGET', KEYS[1], 'state', 'rev')", List.class);
+    
+    private static final RedisScript<Long> RESET_SNAPSHOT_ACCOUNTING = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], 'snapBytes', 0, 'snapSeq', redis.call('HGET', KEYS[1], 'eventSeq') or '0') " +
+            "return 1", Long.class);
+    
+    // A hash without eventSeq (expired or deleted) returns -1 unless ARGV[2] seeds it with the
+    // last persisted sequence, so numbering never restarts under events already in Mongo
+    static final RedisScript<Long> NEXT_EVENT_SEQ = new DefaultRedisScript<>(
+            "if ARGV[2] then redis.call('HSETNX', KEYS[1], 'eventSeq', ARGV[2]) " +
+            "elseif redis.call('HEXISTS', KEYS[1], 'eventSeq') == 0 then return -1 end " +
+            "local seq = redis.call('HINCRBY', KEYS[1], 'eventSeq', 1) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "return seq", Long.class);
+    
+    private final StringRedisTemplate redis;
+    private final BattleshipProperties.Keys config;
+    private final Meter.MeterProvider<Timer> timers;
+    
+    private volatile long gameKeyCount;
+    private volatile long sampledBytesTotal;
+    private volatile long sampledBytesMax;
+    private volatile int sampledKeys;
+    
+    public GameKeyManager(StringRedisTemplate redis, BattleshipProperties properties, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.config = properties.getKeys();
+        this.timers = GameMetrics.storeTimers(meterRegistry, "redis");
+        
+        Gauge.builder("battleship.redis.game.keys", this, m -> m.gameKeyCount)
+                .description("Per-game hashes currently in Redis")
+                .register(meterRegistry);
+        Gauge.builder("battleship.redis.game.bytes.avg", this,
+                        m -> m.sampledKeys == 0 ? 0 : (double) m.sampledBytesTotal / m.sampledKeys)
+                .description("Average memory usage of a sampled game hash")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("battleship.redis.game.bytes.max", this, m -> m.sampledBytesMax)
+                .description("Largest memory usage among sampled game hashes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("battleship.redis.game.bytes.estimated", this,
+                        m -> m.sampledKeys == 0 ? 0 : (double) m.sampledBytesTotal / m.sampledKeys * m.gameKeyCount)
+                .description("Estimated memory held by all game hashes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    public record VersionedState(String json, long revision) {}
+    
+    public record StateWrite(long revision, long bytesSinceSnapshot, long eventsSinceSnapshot) {}
+    
+    /**
+     * State JSON and its revision in one round trip; json is null when the game is not in Redis.
+     */
+    public VersionedState readState(String gameId) {
+        List<Object> values = timed("state.read",
+                () -> redis.opsForHash().multiGet(gameKey(gameId), List.of(STATE_FIELD, REVISION_FIELD)));
+        if (values.get(0) == null) {
+            values = timed("state.migrate", () -> redis.execute(MIGRATE_LEGACY_STATE, legacyKeys(gameId), ttlSeconds()));
+        }
+        return toVersionedState(values);
+    }
+    
+    public long readRevision(String gameId) {
+        Object revision = timed("revision.read", () -> redis.opsForHash().get(gameKey(gameId), REVISION_FIELD));
+        return revision != null ? Long.parseLong(revision.toString()) : 0L;
+    }
+    
+    /**
+     * Write the state only if nobody else wrote it since expectedRevision was read (0 for a
+     * game that has no state yet); null when another writer got there first. This is the only
+     * way state is written.
+     */
+    public StateWrite compareAndSetState(String gameId, long expectedRevision, String json) {
+        return compareAndSetState(gameId, expectedRevision, json, 0L);
+    }
+    
+    /**
+     * As above; when this is the game's first write, eventSeq continues after persistedEventSeq.
+     */
+    public StateWrite compareAndSetState(String gameId, long expectedRevision, String json, long persistedEventSeq) {
+        return toStateWrite(timed("state.cas", () -> redis.execute(COMPARE_AND_SET_STATE, List.of(gameKey(gameId)),
+                json, ttlSeconds(), String.valueOf(expectedRevision), String.valueOf(persistedEventSeq))));
+    }
+    
+    public void resetSnapshotAccounting(String gameId) {
+        redis.execute(RESET_SNAPSHOT_ACCOUNTING, List.of(gameKey(gameId)));
+    }
+    
+    /**
+     * Next eventSeq of the game; persistedEventSeq is only asked for when Redis lost the counter.
+     */
+    public long nextEventSeq(String gameId, LongSupplier persistedEventSeq) {
+        Long eventSeq = timed("event.seq", () -> redis.execute(NEXT_EVENT_SEQ, List.of(gameKey(gameId)), ttlSeconds()));
+        if (eventSeq != null && eventSeq < 0) {
+            String seed = String.valueOf(persistedEventSeq.getAsLong());
+            eventSeq = timed("event.seq", () -> redis.execute(NEXT_EVENT_SEQ, List.of(gameKey(gameId)), ttlSeconds(), seed));
+        }
+        return eventSeq != null ? eventSeq : 1L;
+    }
+    
+    public long currentEventSeq(String gameId) {
+        Object eventSeq = redis.opsForHash().get(gameKey(gameId), EVENT_SEQ_FIELD);
+        return eventSeq != null ? Long.parseLong(eventSeq.toString()) : 0L;
+    }
+    
+    public void delete(String gameId) {
+        redis.delete(gameKey(gameId));
+    }
+    
+    /**
+     * Claim a one-shot key with its expiry in a single SET NX EX; false when already claimed.
+     */
+    public boolean claimIdempotencyKey(String key, String value) {
+        return Boolean.TRUE.equals(timed("idempotency.claim",
+                () -> redis.opsForValue().setIfAbsent(key, value, idempotencyTtl())));
+    }
+    
+    public String readIdempotencyKey(String key) {
+        return redis.opsForValue().get(key);
+    }
+    
+    public void completeIdempotencyKey(String key, String value) {
+        timers.withTags("operation", "idempotency.complete")
+                .record(() -> redis.opsForValue().set(key, value, idempotencyTtl()));
+    }
+    
+    public void releaseIdempotencyKey(String key) {
+        redis.delete(key);
+    }
+    
+    private <T> T timed(String operation, Supplier<T> call) {
+        return timers.withTags("operation", operation).record(call);
+    }
+    
+    @Scheduled(fixedDelayString = "${keys.metrics-interval:60000}")
+    public void sampleKeyMetrics() {
+        try {
+            long count = 0;
+            long total = 0;
+            long max = 0;
+            int sampled = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(GAME_KEY_PREFIX + "*").count(500).build();
+            try (Cursor<String> keys = redis.scan(options)) {
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    if (key.indexOf(':', GAME_KEY_PREFIX.length()) >= 0) {
+                        continue;
+                    }
+                    count++;
+                    if (sampled < config.getMetricsSampleSize()) {
+                        long bytes = memoryUsage(key);
+                        total += bytes;
+                        max = Math.max(max, bytes);
+                        sampled++;
+                    }
+                }
+            }
+            gameKeyCount = count;
+            sampledBytesTotal = total;
+            sampledBytesMax = max;
+            sampledKeys = sampled;
+        } catch (Exception e) {
+            log.warn("Failed to sample Redis game key metrics", e);
+        }
+    }
+    
+    private long memoryUsage(String key) {
+        Object usage = redis.execute((RedisCallback<Object>) connection -> connection.execute(
+                "MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8)));
+        return usage instanceof Number number ? number.longValue() : 0L;
+    }
+    
+    static VersionedState toVersionedState(List<?> values) {
+        if (values == null || values.size() < 2 || values.get(0) == null) {
+            return new VersionedState(null, 0L);
+        }
+        Object revision = values.get(1);
+        return new VersionedState(values.get(0).toString(), revision != null ? Long.parseLong(revision.toString()) : 0L);
+    }
+    
+    static StateWrite toStateWrite(List<?> result) {
+        if (result == null || result.size() < 3) {
+            return null;
+        }
+        return new StateWrite(((Number) result.get(0)).longValue(),
+                ((Number) result.get(1)).longValue(),
+                ((Number) result.get(2)).longValue());
+    }
+    
+    private Duration idempotencyTtl() {
+        return Duration.ofSeconds(config.getIdempotencyTtlSec());
+    }
+    
+    private String ttlSeconds() {
+        return String.valueOf(config.getGameTtlSec());
+    }
+    
+    static String gameKey(String gameId) {
+        return GAME_KEY_PREFIX + gameId;
+    }
+    
+    static List<String> legacyKeys(String gameId) {
+        return List.of(gameKey(gameId), gameKey(gameId) + ":state", gameKey(gameId) + ":eventSeq");
+    }
+}
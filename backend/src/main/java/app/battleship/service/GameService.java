@@ -1,62 +1,458 @@
 package app.battleship.service;
 
+import app.battleship.config.BattleshipProperties;
 import app.battleship.model.*;
+import app.battleship.monitoring.GameActionEvent;
+import app.battleship.monitoring.GameMetrics;
+import app.battleship.monitoring.GameStateIoEvent;
 import app.battleship.persist.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 
 @Service
 public class GameService {
     
-    private final StringRedisTemplate redis;
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+    
+    private final GameKeyManager keys;
+    private final GameStateCache stateCache;
     private final GameRepository gameRepository;
     private final GameSnapshotRepository snapshotRepository;
+    private final SnapshotService snapshotService;
+    private final SpectatorService spectators;
+    private final GameArchiveRepository archiveRepository;
     private final ShipPlacementService shipPlacementService;
     private final ObjectMapper objectMapper;
+    private final GameEventLog eventLog;
+    private final TaskScheduler taskScheduler;
+    private final BattleshipProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GameMetrics metrics;
+    
+    private static final int MAX_STATE_UPDATE_ATTEMPTS = 10;
+    private static final String PLACEMENT_EXPIRED = "PLACEMENT_EXPIRED";
+    
+    /**
+     * The state an action left behind, committed unless the result reports failure, and the action's result.
+     */
+    public record ActionResult(GameState state, Map<String, Object> result) {}
     
-    public GameService(StringRedisTemplate redis, GameRepository gameRepository, 
+    public GameService(GameKeyManager keys, GameStateCache stateCache, GameRepository gameRepository, 
                       GameSnapshotRepository snapshotRepository,
+                      SnapshotService snapshotService,
+                      SpectatorService spectators,
+                      GameArchiveRepository archiveRepository,
                       ShipPlacementService shipPlacementService,
-                      ObjectMapper objectMapper) {
-        this.redis = redis;
+                      ObjectMapper objectMapper,
+                      GameEventLog eventLog,
+                      TaskScheduler taskScheduler,
+                      BattleshipProperties properties,
+                      ApplicationEventPublisher eventPublisher,
+                      GameMetrics metrics) {
+        this.keys = keys;
+        this.stateCache = stateCache;
         this.gameRepository = gameRepository;
         this.snapshotRepository = snapshotRepository;
+        this.snapshotService = snapshotService;
+        this.spectators = spectators;
+        this.archiveRepository = archiveRepository;
         this.shipPlacementService = shipPlacementService;
         this.objectMapper = objectMapper;
+        this.eventLog = eventLog;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
     
-    public GameState initializeGame(String gameId, String roomId, String firstPlayerId, String secondPlayerId) {
+    public GameState initializeGame(String gameId, String roomId, String firstPlayerId, String secondPlayerId,
+                                    GameVariant variant) {
         GameState state = new GameState(gameId, roomId, firstPlayerId, secondPlayerId);
+        state.setVariant(variant.name());
+        state.setBoardSize(variant.boardSize());
+        state.setFleet(new ArrayList<>(variant.fleet()));
         
         // Place ships for both players
-        List<Ship> firstPlayerShips = shipPlacementService.placeShipsRandomly();
-        List<Ship> secondPlayerShips = shipPlacementService.placeShipsRandomly();
+        List<Ship> firstPlayerShips = shipPlacementService.placeShipsRandomly(variant);
+        List<Ship> secondPlayerShips = shipPlacementService.placeShipsRandomly(variant);
         
         state.getPlayers().get(firstPlayerId).getBoard().setShips(firstPlayerShips);
         state.getPlayers().get(secondPlayerId).getBoard().setShips(secondPlayerShips);
         
-        // Save to Redis and create snapshot
-        saveGameState(state);
-        createSnapshot(state);
+        // With a placement phase the random fleets above are only the fallback
+        // used for players who don't submit their own before the deadline
+        boolean placementPhase = properties.getPlacement().getPhase().isEnabled();
+        if (placementPhase) {
+            state.setPhase(GamePhase.PLACEMENT);
+            state.setPlacementDeadline(System.currentTimeMillis()
+                    + properties.getPlacement().getTimeout().getSec() * 1000);
+        }
+        
+        // Save to Redis, refusing to overwrite a game that already has state; the first write
+        // of a game is always snapshotted
+        if (writeState("initialize", state, 0) == null) {
+            throw new IllegalStateException("Game already initialized: " + gameId);
+        }
+        
+        if (placementPhase) {
+            taskScheduler.schedule(() -> closePlacementOnTimeout(gameId),
+                    Instant.ofEpochMilli(state.getPlacementDeadline()));
+        } else {
+            eventPublisher.publishEvent(new TurnStartedEvent(gameId, state.getTurn(), state.getCurrentPlayerId()));
+        }
         
         return state;
     }
     
+    /**
+     * Accept a player's own fleet during the placement phase. The fleet is validated
+     * against the game's variant before anything is written; the state itself is updated
+     * optimistically so that both players can submit at the same time without losing
+     * each other's fleet.
+     */
+    public Map<String, Object> submitPlacement(String gameId, String playerId, PlacementRequest request) {
+        Map<String, Object> outcome = updateGameState("placement", gameId, state -> {
+            String reason = shipPlacementService.validateFleet(request.ships(), GameVariant.of(state));
+            if (reason != null) {
+                return Map.of("success", false, "reason", reason);
+            }
+            
+            PlayerState player = state.getPlayers().get(playerId);
+            if (player == null) {
+                return Map.of("success", false, "reason", "NOT_A_PLAYER");
+            }
+            if (!state.isPlacementPhase()) {
+                return Map.of("success", false, "reason", "NOT_IN_PLACEMENT_PHASE");
+            }
+            if (player.isPlacementSubmitted()) {
+                return Map.of("success", false, "reason", "PLACEMENT_ALREADY_SUBMITTED");
+            }
+            if (System.currentTimeMillis() >= state.getPlacementDeadline()) {
+                return Map.of("success", false, "reason", "PLACEMENT_CLOSED");
+            }
+            
+            player.getBoard().setShips(shipPlacementService.toShips(request.ships()));
+            player.setPlacementSubmitted(true);
+            
+            boolean allSubmitted = state.getPlayers().values().stream()
+                    .allMatch(PlayerState::isPlacementSubmitted);
+            if (allSubmitted) {
+                startBattle(state);
+            }
+            
+            Map<String, Object> result = placementResult(state, false);
+            result.put("placementComplete", allSubmitted);
+            return result;
+        });
+        
+        if (Boolean.TRUE.equals(outcome.get("placementComplete"))) {
+            publishTurnStarted(outcome);
+        }
+        return outcome;
+    }
+    
+    /**
+     * Close the placement phase once its deadline has passed; players who did not
+     * submit keep the random fleet assigned at game start.
+     */
+    public void closePlacementOnTimeout(String gameId) {
+        try {
+            Map<String, Object> result = updateGameState("placement-timeout", gameId, state -> {
+                if (!state.isPlacementPhase()) {
+                    return Map.of("success", false, "reason", "NOT_IN_PLACEMENT_PHASE");
+                }
+                if (System.currentTimeMillis() < state.getPlacementDeadline()) {
+                    return Map.of("success", false, "reason", "PLACEMENT_OPEN");
+                }
+                startBattle(state);
+                return placementResult(state, true);
+            });
+            
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                publishTurnStarted(result);
+                broadcastPlacementComplete(result);
+            }
+        } catch (Exception e) {
+            log.error("Failed to close placement for game {}", gameId, e);
+        }
+    }
+    
+    public void broadcastPlacementComplete(Map<String, Object> result) {
+        String gameId = (String) result.get("gameId");
+        eventLog.publish((String) result.get("roomId"), gameId, (int) result.get("turn"), "PLACEMENT_COMPLETE", Map.of(
+                "gameId", gameId,
+                "stateVersion", result.get("stateVersion"),
+                "turn", result.get("turn"),
+                "currentPlayerId", result.get("currentPlayerId"),
+                "timedOut", result.get("timedOut")
+        ));
+    }
+    
+    /**
+     * Apply an expired turn deadline: either pass the turn to the opponent or forfeit the game.
+     * A timer that fires after the turn has already moved on is reported as STALE_TIMEOUT
+     * and changes nothing, so late or duplicate timers are harmless. After max-consecutive timeouts
+     * in a row the game ends ABANDONED, with no winner.
+     */
+    public Map<String, Object> handleTurnTimeout(String gameId, int expectedTurn,
+                                                 BattleshipProperties.Turn.Timeout.Action action) {
+        Map<String, Object> result = updateGameState("turn-timeout", gameId, state -> {
+            if (state.isEnded()) {
+                return Map.of("success", false, "reason", "GAME_ENDED");
+            }
+            if (state.isPlacementPhase() || state.getTurn() != expectedTurn) {
+                return Map.of("success", false, "reason", "STALE_TIMEOUT");
+            }
+            
+            String timedOutPlayerId = state.getCurrentPlayerId();
+            String opponentId = state.getPlayers().keySet().stream()
+                    .filter(id -> !id.equals(timedOutPlayerId))
+                    .findFirst()
+                    .orElseThrow();
+            
+            // Nobody has acted for maxConsecutive turns in a row: the game is abandoned, not skipped forever
+            int maxConsecutive = properties.getTurn().getTimeout().getMaxConsecutive();
+            state.setConsecutiveTimeouts(state.getConsecutiveTimeouts() + 1);
+            boolean abandoned = maxConsecutive > 0 && state.getConsecutiveTimeouts() >= maxConsecutive;
+            
+            if (abandoned) {
+                // Neither player is there to win it
+                state.setPhase(GamePhase.ENDED);
+            } else if (action == BattleshipProperties.Turn.Timeout.Action.FORFEIT) {
+                state.setWinnerPlayerId(opponentId);
+            } else {
+                state.setCurrentPlayerId(opponentId);
+                state.setTurn(state.getTurn() + 1);
+            }
+            state.setStateVersion(state.getStateVersion() + 1);
+            
+            Map<String, Object> outcome = new HashMap<>();
+            outcome.put("success", true);
+            outcome.put("gameId", gameId);
+            outcome.put("roomId", state.getRoomId());
+            outcome.put("playerIds", List.copyOf(state.getPlayers().keySet()));
+            outcome.put("timedOutPlayerId", timedOutPlayerId);
+            outcome.put("action", action.name());
+            outcome.put("turn", state.getTurn());
+            outcome.put("currentPlayerId", state.getCurrentPlayerId());
+            outcome.put("stateVersion", state.getStateVersion());
+            if (state.isEnded()) {
+                outcome.put("winnerPlayerId", state.getWinnerPlayerId());
+                outcome.put("endReason", abandoned ? "ABANDONED" : "TURN_TIMEOUT");
+            }
+            return outcome;
+        });
+        
+        if (Boolean.TRUE.equals(result.get("success"))) {
+            if (result.containsKey("endReason")) {
+                String winnerPlayerId = (String) result.get("winnerPlayerId");
+                markGameEnded(gameId, winnerPlayerId);
+                eventPublisher.publishEvent(new GameEndedEvent(gameId, (String) result.get("roomId"),
+                        playerIdsOf(result), winnerPlayerId, (String) result.get("endReason")));
+            } else {
+                publishTurnStarted(result);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * End the game in favour of the opponent of playerId (e.g. after a disconnect grace period).
+     */
+    public Map<String, Object> forfeit(String gameId, String playerId, String reason) {
+        Map<String, Object> result = updateGameState("forfeit", gameId, state -> {
+            if (state.isEnded()) {
+                return Map.of("success", false, "reason", "GAME_ENDED");
+            }
+            if (!state.getPlayers().containsKey(playerId)) {
+                return Map.of("success", false, "reason", "NOT_A_PLAYER");
+            }
+            
+            String opponentId = state.getPlayers().keySet().stream()
+                    .filter(id -> !id.equals(playerId))
+                    .findFirst()
+                    .orElseThrow();
+            state.setWinnerPlayerId(opponentId);
+            state.setStateVersion(state.getStateVersion() + 1);
+            
+            Map<String, Object> outcome = new HashMap<>();
+            outcome.put("success", true);
+            outcome.put("gameId", gameId);
+            outcome.put("roomId", state.getRoomId());
+            outcome.put("playerIds", List.copyOf(state.getPlayers().keySet()));
+            outcome.put("winnerPlayerId", opponentId);
+            outcome.put("stateVersion", state.getStateVersion());
+            return outcome;
+        });
+        
+        if (Boolean.TRUE.equals(result.get("success"))) {
+            String winnerPlayerId = (String) result.get("winnerPlayerId");
+            markGameEnded(gameId, winnerPlayerId);
+            eventPublisher.publishEvent(new GameEndedEvent(gameId, (String) result.get("roomId"),
+                    playerIdsOf(result), winnerPlayerId, reason));
+        }
+        return result;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<String> playerIdsOf(Map<String, Object> result) {
+        return (List<String>) result.get("playerIds");
+    }
+    
+    private void markGameEnded(String gameId, String winnerPlayerId) {
+        Game game = gameRepository.findById(gameId).orElseThrow();
+        game.setStatus(Game.GameStatus.ENDED);
+        game.setWinnerPlayerId(winnerPlayerId);
+        game.setEndedAt(Instant.now());
+        gameRepository.save(game);
+    }
+    
+    private void publishTurnStarted(Map<String, Object> result) {
+        eventPublisher.publishEvent(new TurnStartedEvent(
+                (String) result.get("gameId"),
+                (Integer) result.get("turn"),
+                (String) result.get("currentPlayerId")));
+    }
+    
+    private void startBattle(GameState state) {
+        state.setPhase(GamePhase.BATTLE);
+        state.setPlacementDeadline(0);
+        state.setStateVersion(state.getStateVersion() + 1);
+    }
+    
+    private Map<String, Object> placementResult(GameState state, boolean timedOut) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("gameId", state.getGameId());
+        result.put("roomId", state.getRoomId());
+        result.put("stateVersion", state.getStateVersion());
+        result.put("turn", state.getTurn());
+        result.put("currentPlayerId", state.getCurrentPlayerId());
+        result.put("timedOut", timedOut);
+        return result;
+    }
+    
+    private record LoadedState(GameKeyManager.VersionedState current, GameState state, boolean cached) {}
+    
+    /**
+     * Apply a mutation as a compare-and-set on the state's revision so concurrent writers
+     * retry instead of overwriting each other. The state is written only when the mutation succeeds.
+     */
+    private Map<String, Object> updateGameState(String action, String gameId,
+                                                Function<GameState, Map<String, Object>> mutation) {
+        GameActionEvent event = GameActionEvent.started();
+        Map<String, Object> outcome = compareAndSetUpdate(action, gameId, mutation).result();
+        event.finish(gameId, action, outcome);
+        return outcome;
+    }
+    
+    /**
+     * Run a battle action, including the turn switch that goes with it, as one compare-and-set
+     * write, so a turn timeout or forfeit landing in between is retried on rather than overwritten.
+     * An expired placement phase whose timer was lost (e.g. the node that scheduled it restarted)
+     * is closed first.
+     */
+    private ActionResult act(String action, String gameId, Function<GameState, Map<String, Object>> mutation) {
+        ActionResult outcome = compareAndSetUpdate(action, gameId, state ->
+                state.isPlacementPhase() && System.currentTimeMillis() >= state.getPlacementDeadline()
+                        ? Map.of("success", false, "reason", PLACEMENT_EXPIRED)
+                        : mutation.apply(state));
+        if (!PLACEMENT_EXPIRED.equals(outcome.result().get("reason"))) {
+            return outcome;
+        }
+        closePlacementOnTimeout(gameId);
+        return compareAndSetUpdate(action, gameId, mutation);
+    }
+    
+    private ActionResult compareAndSetUpdate(String action, String gameId,
+                                             Function<GameState, Map<String, Object>> mutation) {
+        for (int attempt = 0; attempt < MAX_STATE_UPDATE_ATTEMPTS; attempt++) {
+            // On the owning node the cached revision is usually current, saving the read entirely
+            LoadedState loaded = metrics.time(action, GameMetrics.Phase.LOAD, () -> {
+                GameStateIoEvent io = GameStateIoEvent.started();
+                GameKeyManager.VersionedState cached = stateCache.get(gameId);
+                GameKeyManager.VersionedState read = cached != null ? cached : keys.readState(gameId);
+                try {
+                    LoadedState result = new LoadedState(read, read.json() != null
+                            ? objectMapper.readValue(read.json(), GameState.class)
+                            : loadFromSnapshot(gameId), cached != null);
+                    io.finish(gameId, GameStateIoEvent.LOAD, read.json());
+                    return result;
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to load game state", e);
+                }
+            });
+            GameKeyManager.VersionedState current = loaded.current();
+            GameState state = loaded.state();
+            
+            Map<String, Object> outcome = mutation.apply(state);
+            if (Boolean.FALSE.equals(outcome.get("success"))) {
+                // A rejection is only final against current state; another node may have written since we cached
+                if (loaded.cached() && keys.readRevision(gameId) != current.revision()) {
+                    stateCache.invalidate(gameId);
+                    continue;
+                }
+                return new ActionResult(state, outcome);
+            }
+            
+            if (writeState(action, state, current.revision()) != null) {
+                return new ActionResult(state, outcome);
+            }
+            // Another writer changed the state since we read it; retry on fresh state
+            stateCache.invalidate(gameId);
+        }
+        
+        throw new RuntimeException("Concurrent update conflict for game: " + gameId);
+    }
+    
+    /**
+     * Write the state unless another writer moved it past expectedRevision (0 for a game with
+     * no state yet); null when it did.
+     */
+    private GameKeyManager.StateWrite writeState(String action, GameState state, long expectedRevision) {
+        String gameId = state.getGameId();
+        return metrics.time(action, GameMetrics.Phase.SAVE, () -> {
+            GameStateIoEvent io = GameStateIoEvent.started();
+            String updated;
+            try {
+                updated = objectMapper.writeValueAsString(state);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to save game state", e);
+            }
+            // A game's first write may be a restore from Mongo; its events must not be renumbered
+            long persistedEventSeq = expectedRevision == 0 ? eventLog.persistedSeq(gameId) : 0L;
+            GameKeyManager.StateWrite written = keys.compareAndSetState(gameId, expectedRevision, updated, persistedEventSeq);
+            if (written != null) {
+                stateCache.put(gameId, updated, written.revision());
+                snapshotService.onStateWritten(state, written);
+                spectators.onStateWritten(state, written.revision());
+            }
+            io.finish(gameId, GameStateIoEvent.SAVE, updated);
+            return written;
+        });
+    }
+    
     public GameState getGameState(String gameId) {
-        // Try to get from Redis first
-        String key = "game:" + gameId + ":state";
-        String json = redis.opsForValue().get(key);
+        // Try the owner's cache, then Redis
+        GameStateIoEvent io = GameStateIoEvent.started();
+        String json = readStateJson(gameId);
         
         if (json != null) {
             try {
                 GameState state = objectMapper.readValue(json, GameState.class);
+                io.finish(gameId, GameStateIoEvent.LOAD, json);
                 
                 // Debug: Verify what we loaded
                 System.out.println("[GameService] ========== LOADED FROM REDIS ==========");
-                System.out.println("[GameService] Key: " + key);
+                System.out.println("[GameService] Game: " + gameId);
                 for (PlayerState player : state.getPlayers().values()) {
                     System.out.println("[GameService] Player " + player.getPlayerId() + ":");
                     System.out.println("[GameService]   AttacksByMeHits: " + player.getBoard().getAttacksByMeHits());
@@ -72,49 +468,80 @@ public class GameService {
                 // Fall through to load from snapshot
             }
         } else {
-            System.out.println("[GameService] No Redis data found for key: " + key);
+            System.out.println("[GameService] No Redis data found for game: " + gameId);
         }
         
         // Load from latest snapshot
         System.out.println("[GameService] Loading from MongoDB snapshot...");
-        return snapshotRepository.findTopByGameIdOrderByTurnDesc(gameId)
+        return loadFromSnapshot(gameId);
+    }
+    
+    private String readStateJson(String gameId) {
+        GameKeyManager.VersionedState cached = stateCache.get(gameId);
+        if (cached != null && keys.readRevision(gameId) == cached.revision()) {
+            return cached.json();
+        }
+        GameKeyManager.VersionedState current = keys.readState(gameId);
+        stateCache.put(gameId, current.json(), current.revision());
+        return current.json();
+    }
+    
+    private GameState loadFromSnapshot(String gameId) {
+        // Current snapshots are keyed by gameId; older games may still have one document per snapshot
+        return snapshotRepository.findById(gameId)
+                .or(() -> snapshotRepository.findTopByGameIdOrderByTurnDesc(gameId))
                 .map(GameSnapshot::getState)
+                .or(() -> loadFromArchive(gameId))
                 .orElseThrow(() -> new RuntimeException("Game not found: " + gameId));
     }
     
-    private void saveGameState(GameState state) {
-        String key = "game:" + state.getGameId() + ":state";
-        try {
-            String json = objectMapper.writeValueAsString(state);
-            redis.opsForValue().set(key, json);
-            
-            // Debug: Verify what we saved
-            System.out.println("[GameService] ========== SAVED TO REDIS ==========");
-            System.out.println("[GameService] Key: " + key);
-            for (PlayerState player : state.getPlayers().values()) {
-                System.out.println("[GameService] Player " + player.getPlayerId() + ":");
-                System.out.println("[GameService]   AttacksByMeHits: " + player.getBoard().getAttacksByMeHits());
-                System.out.println("[GameService]   AttacksByMeMisses: " + player.getBoard().getAttacksByMeMisses());
-                System.out.println("[GameService]   Ships count: " + player.getBoard().getShips().size());
-                System.out.println("[GameService]   SunkShips count: " + player.getBoard().getSunkShips().size());
-            }
-        } catch (Exception e) {
-            System.err.println("[GameService] ERROR saving state: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save game state", e);
-        }
+    private Optional<GameState> loadFromArchive(String gameId) {
+        return archiveRepository.findById(gameId)
+                .filter(archive -> archive.getFinalState() != null)
+                .map(archive -> {
+                    try {
+                        return objectMapper.readValue(GameArchive.gunzip(archive.getFinalState()), GameState.class);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Corrupt archive for game " + gameId, e);
+                    }
+                });
     }
     
-    private void createSnapshot(GameState state) {
-        GameSnapshot snapshot = new GameSnapshot(state.getGameId(), state.getTurn(), state);
-        snapshotRepository.save(snapshot);
+    /**
+     * Attack and, unless it won the game, pass the turn, in one write; the state after both is returned.
+     */
+    public ActionResult processAttack(String gameId, String attackerId, AttackRequest request) {
+        GameActionEvent event = GameActionEvent.started();
+        ActionResult outcome = act("attack", gameId, state -> {
+            Map<String, Object> result = applyAttack(state, attackerId, request);
+            if (Boolean.TRUE.equals(result.get("success")) && state.getWinnerPlayerId() == null) {
+                advanceTurn(state);
+            }
+            return result;
+        });
+        
+        if (Boolean.TRUE.equals(outcome.result().get("success"))) {
+            GameState state = outcome.state();
+            if (state.getWinnerPlayerId() != null) {
+                markGameEnded(gameId, attackerId);
+                eventPublisher.publishEvent(new GameEndedEvent(gameId, state.getRoomId(),
+                        List.copyOf(state.getPlayers().keySet()), attackerId, "ALL_SUNK"));
+            } else {
+                eventPublisher.publishEvent(new TurnStartedEvent(gameId, state.getTurn(), state.getCurrentPlayerId()));
+            }
+        }
+        event.finish(gameId, "attack", outcome.result());
+        return outcome;
     }
     
-    public Map<String, Object> processAttack(String gameId, String attackerId, AttackRequest request) {
-        GameState state = getGameState(gameId);
-        
+    /**
+     * Validate and apply an attack to the state in place without saving it; sets the winner
+     * when the last ship sinks. Shared by the blocking and reactive pipelines.
+     */
+    public Map<String, Object> applyAttack(GameState state, String attackerId, AttackRequest request) {
         // Validate attack
-        ValidationResult validation = validateAttack(state, attackerId, request);
+        ValidationResult validation = metrics.time("attack", GameMetrics.Phase.VALIDATE,
+                () -> validateAttack(state, attackerId, request));
         if (!validation.isValid()) {
             return Map.of(
                     "success", false,
@@ -178,15 +605,8 @@ public class GameService {
             boolean allSunk = defender.getBoard().getShips().isEmpty();
             if (allSunk) {
                 state.setWinnerPlayerId(attackerId);
-                Game game = gameRepository.findById(gameId).orElseThrow();
-                game.setStatus(Game.GameStatus.ENDED);
-                game.setWinnerPlayerId(attackerId);
-                gameRepository.save(game);
             }
             
-            // Save updated state
-            saveGameState(state);
-            
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
             result.put("isHit", true);
@@ -208,9 +628,6 @@ public class GameService {
             System.out.println("[GameService] MISS! Added to attacker attacksByMeMisses only (not visible to opponent)");
             System.out.println("[GameService] AttacksByMeMisses AFTER: " + attacker.getBoard().getAttacksByMeMisses());
             
-            // Save updated state
-            saveGameState(state);
-            
             return Map.of(
                     "success", true,
                     "isHit", false,
@@ -220,6 +637,10 @@ public class GameService {
     }
     
     private ValidationResult validateAttack(GameState state, String attackerId, AttackRequest request) {
+        if (state.isPlacementPhase()) {
+            return new ValidationResult(false, "PLACEMENT_IN_PROGRESS");
+        }
+        
         if (!attackerId.equals(state.getCurrentPlayerId())) {
             return new ValidationResult(false, "NOT_YOUR_TURN");
         }
@@ -228,11 +649,11 @@ public class GameService {
             return new ValidationResult(false, "INVALID_TURN_NUMBER");
         }
         
-        if (state.getWinnerPlayerId() != null) {
+        if (state.isEnded()) {
             return new ValidationResult(false, "GAME_ENDED");
         }
         
-        if (!shipPlacementService.isValidCoord(request.target())) {
+        if (!shipPlacementService.isValidCoord(request.target(), state.getBoardSize())) {
             return new ValidationResult(false, "OUT_OF_BOUNDS");
         }
         
@@ -242,7 +663,8 @@ public class GameService {
         return new ValidationResult(true, null);
     }
     
-    private boolean checkHit(Board defenderBoard, Coord target) {
+    // Package-private for backend-benchmarks
+    boolean checkHit(Board defenderBoard, Coord target) {
         return defenderBoard.getShips().stream()
                 .anyMatch(ship -> ship.getCells().contains(target));
     }
@@ -251,7 +673,7 @@ public class GameService {
      * Mark a ship as hit at the target position, recording the relative index
      * Returns the hit ship, or null if no ship at target
      */
-    private Ship markShipHit(Board board, Coord target) {
+    Ship markShipHit(Board board, Coord target) {
         for (Ship ship : board.getShips()) {
             int index = ship.getCells().indexOf(target);
             if (index >= 0) {
@@ -266,11 +688,34 @@ public class GameService {
         return null;
     }
     
-    public Map<String, Object> processShipMove(String gameId, String playerId, ShipMoveRequest request) {
-        GameState state = getGameState(gameId);
+    /**
+     * Move a ship and pass the turn in one write; the state after both is returned.
+     */
+    public ActionResult processShipMove(String gameId, String playerId, ShipMoveRequest request) {
+        GameActionEvent event = GameActionEvent.started();
+        ActionResult outcome = act("move", gameId, state -> {
+            Map<String, Object> result = applyShipMove(state, playerId, request);
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                advanceTurn(state);
+            }
+            return result;
+        });
         
+        if (Boolean.TRUE.equals(outcome.result().get("success"))) {
+            GameState state = outcome.state();
+            eventPublisher.publishEvent(new TurnStartedEvent(gameId, state.getTurn(), state.getCurrentPlayerId()));
+        }
+        event.finish(gameId, "move", outcome.result());
+        return outcome;
+    }
+    
+    /**
+     * Validate and apply a ship move to the state in place without saving it.
+     */
+    public Map<String, Object> applyShipMove(GameState state, String playerId, ShipMoveRequest request) {
         // Validate move
-        ValidationResult validation = validateShipMove(state, playerId, request);
+        ValidationResult validation = metrics.time("move", GameMetrics.Phase.VALIDATE,
+                () -> validateShipMove(state, playerId, request));
         if (!validation.isValid()) {
             return Map.of(
                     "success", false,
@@ -316,9 +761,6 @@ public class GameService {
         System.out.println("[GameService] New cells: " + newCells);
         System.out.println("[GameService] New damaged cells added to board.hits: " + newDamagedCells);
         
-        // Save state
-        saveGameState(state);
-        
         return Map.of(
                 "success", true,
                 "ship", ship
@@ -326,6 +768,10 @@ public class GameService {
     }
     
     private ValidationResult validateShipMove(GameState state, String playerId, ShipMoveRequest request) {
+        if (state.isPlacementPhase()) {
+            return new ValidationResult(false, "PLACEMENT_IN_PROGRESS");
+        }
+        
         if (!playerId.equals(state.getCurrentPlayerId())) {
             return new ValidationResult(false, "NOT_YOUR_TURN");
         }
@@ -334,7 +780,7 @@ public class GameService {
             return new ValidationResult(false, "INVALID_TURN_NUMBER");
         }
         
-        if (state.getWinnerPlayerId() != null) {
+        if (state.isEnded()) {
             return new ValidationResult(false, "GAME_ENDED");
         }
         
@@ -365,7 +811,7 @@ public class GameService {
             }
             
             // Check bounds
-            if (!shipPlacementService.isValidCoord(newCell)) {
+            if (!shipPlacementService.isValidCoord(newCell, state.getBoardSize())) {
                 return new ValidationResult(false, "OUT_OF_BOUNDS");
             }
             
@@ -388,7 +834,10 @@ public class GameService {
         return new ValidationResult(true, null);
     }
     
-    public void switchTurn(GameState state) {
+    /**
+     * Hand the turn to the other player in place without saving; the current player acted, so the timeout streak resets.
+     */
+    public void advanceTurn(GameState state) {
         String nextPlayerId = state.getPlayers().keySet().stream()
                 .filter(id -> !id.equals(state.getCurrentPlayerId()))
                 .findFirst()
@@ -397,13 +846,7 @@ public class GameService {
         state.setCurrentPlayerId(nextPlayerId);
         state.setTurn(state.getTurn() + 1);
         state.setStateVersion(state.getStateVersion() + 1);
-        
-        saveGameState(state);
-        
-        // Create snapshot periodically
-        if (state.getTurn() % 5 == 0) {
-            createSnapshot(state);
-        }
+        state.setConsecutiveTimeouts(0);
     }
     
     private static class ValidationResult {
@@ -0,0 +1,112 @@
+package app.battleship.service;
+
+import app.battleship.cluster.ClusterMembership;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.ClusterTopologyChangedEvent;
+import app.battleship.model.GameEndedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process copy of the state of games this node owns, tagged with the Redis revision it was
+ * read or written at. Entries are a hint, never the truth: writes compare-and-set against the
+ * cached revision and reads check it against the hash's rev field, so a write from another node
+ * costs one retry rather than a lost update. Games that move to another node are dropped when
+ * the ring changes; beyond cluster.cache-max-entries the least recently used game is evicted.
+ */
+@Service
+public class GameStateCache {
+    
+    private final ClusterMembership membership;
+    private final Map<String, GameKeyManager.VersionedState> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    
+    public GameStateCache(ClusterMembership membership, BattleshipProperties properties, MeterRegistry meterRegistry) {
+        this.membership = membership;
+        int maxEntries = properties.getCluster().getCacheMaxEntries();
+        // Access-ordered, so the eldest entry is the game that has gone longest without a lookup
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GameKeyManager.VersionedState> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("battleship.state.cache")
+                .description("Game state lookups served from the owner's cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("battleship.state.cache")
+                .description("Game state lookups served from the owner's cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("battleship.state.cache.evictions")
+                .description("Least recently used games dropped to stay within cluster.cache-max-entries")
+                .register(meterRegistry);
+        Gauge.builder("battleship.state.cache.size", this, GameStateCache::size)
+                .description("Games whose state is cached on this node")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Cached state of a game this node owns, or null.
+     */
+    public GameKeyManager.VersionedState get(String gameId) {
+        GameKeyManager.VersionedState cached = null;
+        if (membership.isLocal(gameId)) {
+            synchronized (entries) {
+                cached = entries.get(gameId);
+            }
+        }
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+    
+    /**
+     * Remember the state at a revision, keeping whichever of two racing writes is newer.
+     */
+    public void put(String gameId, String json, long revision) {
+        if (json == null || !membership.isLocal(gameId)) {
+            return;
+        }
+        synchronized (entries) {
+            entries.merge(gameId, new GameKeyManager.VersionedState(json, revision),
+                    (current, update) -> update.revision() >= current.revision() ? update : current);
+        }
+    }
+    
+    public void invalidate(String gameId) {
+        synchronized (entries) {
+            entries.remove(gameId);
+        }
+    }
+    
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        invalidate(event.gameId());
+    }
+    
+    @EventListener
+    public void onTopologyChanged(ClusterTopologyChangedEvent event) {
+        synchronized (entries) {
+            entries.keySet().removeIf(gameId -> !membership.isLocal(gameId));
+        }
+    }
+}
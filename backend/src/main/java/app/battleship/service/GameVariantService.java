@@ -0,0 +1,79 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.engine.BoardEngine;
+import app.battleship.engine.BoardEngines;
+import app.battleship.model.GameVariant;
+import app.battleship.model.ShipKind;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+public class GameVariantService {
+    
+    private static final int MAX_FLEET_SIZE = 64;
+    private static final int PLACEMENT_SAMPLES = 20;
+    
+    private final Map<String, GameVariant> variants = new LinkedHashMap<>();
+    private final GameVariant defaultVariant;
+    
+    public GameVariantService(BattleshipProperties properties) {
+        BattleshipProperties.Variants config = properties.getVariants();
+        config.getDefinitions().forEach((name, definition) ->
+                variants.put(name, validate(name, definition.getBoardSize(), definition.getFleet())));
+        
+        defaultVariant = variants.get(config.getDefaultVariant());
+        if (defaultVariant == null) {
+            throw new IllegalStateException("Default variant is not defined: " + config.getDefaultVariant());
+        }
+    }
+    
+    /**
+     * Resolve a variant by name; null or blank selects the default variant.
+     */
+    public GameVariant resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultVariant;
+        }
+        GameVariant variant = variants.get(name);
+        if (variant == null) {
+            throw new IllegalArgumentException("Unknown variant: " + name);
+        }
+        return variant;
+    }
+    
+    public Collection<GameVariant> getVariants() {
+        return Collections.unmodifiableCollection(variants.values());
+    }
+    
+    private static GameVariant validate(String name, int boardSize, List<ShipKind> fleet) {
+        BoardEngine engine = BoardEngines.forSize(boardSize);
+        if (fleet == null || fleet.isEmpty() || fleet.size() > MAX_FLEET_SIZE) {
+            throw new IllegalStateException("Variant " + name + " needs between 1 and " + MAX_FLEET_SIZE + " ships");
+        }
+        
+        int fleetCells = 0;
+        for (ShipKind kind : fleet) {
+            if (kind.getLength() > boardSize) {
+                throw new IllegalStateException("Variant " + name + ": " + kind + " does not fit the board");
+            }
+            fleetCells += kind.getLength();
+        }
+        // Keep rejection sampling fast: the fleet may cover at most a third of the board
+        if (fleetCells * 3 > boardSize * boardSize) {
+            throw new IllegalStateException("Variant " + name + ": fleet is too dense for a " + boardSize + "x" + boardSize + " board");
+        }
+        // Density alone doesn't bound placement cost; fail at startup rather than on every game start
+        SplittableRandom random = new SplittableRandom(name.hashCode());
+        for (int sample = 0; sample < PLACEMENT_SAMPLES; sample++) {
+            try {
+                engine.randomLayout(fleet, random);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Variant " + name + ": fleet cannot be placed reliably", e);
+            }
+        }
+        
+        return new GameVariant(name, boardSize, List.copyOf(fleet));
+    }
+}
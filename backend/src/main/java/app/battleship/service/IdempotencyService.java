@@ -0,0 +1,138 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Runs an action at most once per idempotency key and replays its response to retries.
+ * The key is claimed with SET NX EX holding a pending marker; when the action finishes the
+ * marker is replaced by the response (status and JSON body), which duplicates get back verbatim
+ * without touching game state. Duplicates that arrive while the first call is still running wait
+ * for its result: on the same node through a local future, across nodes by polling the key.
+ */
+@Service
+public class IdempotencyService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    
+    static final String PENDING = "P";
+    static final long POLL_MILLIS = 25;
+    private static final char RESPONSE_PREFIX = 'R';
+    
+    private final GameKeyManager keys;
+    private final ObjectMapper objectMapper;
+    private final long waitMillis;
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    
+    public IdempotencyService(GameKeyManager keys, ObjectMapper objectMapper, BattleshipProperties properties) {
+        this.keys = keys;
+        this.objectMapper = objectMapper;
+        this.waitMillis = properties.getKeys().getIdempotencyWaitMillis();
+    }
+    
+    public ResponseEntity<?> execute(String key, Callable<ResponseEntity<?>> action) throws Exception {
+        // Second round only when the first caller failed and released the key
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (keys.claimIdempotencyKey(key, PENDING)) {
+                return runFirst(key, action);
+            }
+            
+            String stored = awaitCompletion(key);
+            if (stored == null) {
+                continue;
+            }
+            if (PENDING.equals(stored)) {
+                break;
+            }
+            return replay(stored);
+        }
+        return inProgress();
+    }
+    
+    private ResponseEntity<?> runFirst(String key, Callable<ResponseEntity<?>> action) throws Exception {
+        CompletableFuture<String> local = new CompletableFuture<>();
+        inFlight.put(key, local);
+        try {
+            ResponseEntity<?> response;
+            try {
+                response = action.call();
+            } catch (Exception | Error e) {
+                // Nothing was recorded, so a retry may run the action again
+                keys.releaseIdempotencyKey(key);
+                local.complete(null);
+                throw e;
+            }
+            
+            String encoded = encode(response);
+            keys.completeIdempotencyKey(key, encoded);
+            local.complete(encoded);
+            return response;
+        } finally {
+            inFlight.remove(key, local);
+        }
+    }
+    
+    /**
+     * The stored response, null if the key was released, or PENDING if still running after the wait.
+     */
+    private String awaitCompletion(String key) throws InterruptedException {
+        CompletableFuture<String> local = inFlight.get(key);
+        if (local != null) {
+            try {
+                return local.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return PENDING;
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (true) {
+            String value = keys.readIdempotencyKey(key);
+            if (!PENDING.equals(value)) {
+                return value;
+            }
+            if (System.nanoTime() >= deadline) {
+                return PENDING;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+    
+    static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "ACTION_IN_PROGRESS"));
+    }
+    
+    String encode(ResponseEntity<?> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot cache response body, replays will get a bare acknowledgement", e);
+            body = "{\"message\":\"Already processed\"}";
+        }
+        return RESPONSE_PREFIX + String.valueOf(response.getStatusCode().value()) + '|' + body;
+    }
+    
+    static ResponseEntity<?> replay(String stored) {
+        int separator = stored.indexOf('|');
+        if (stored.charAt(0) != RESPONSE_PREFIX || separator < 0) {
+            return ResponseEntity.ok(Map.of("message", "Already processed"));
+        }
+        int status = Integer.parseInt(stored.substring(1, separator));
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.substring(separator + 1));
+    }
+}
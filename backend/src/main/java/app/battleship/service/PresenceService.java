@@ -0,0 +1,328 @@
+package app.battleship.service;
+
+import app.battleship.cluster.ClusterMembership;
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameStartedEvent;
+import app.battleship.scheduling.BlockingTaskExecutors;
+import app.battleship.scheduling.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks which players have a live STOMP session, driven by WebSocket session lifecycle events.
+ * Local sessions live in a concurrent map; Redis hashes hold the cluster-wide view
+ * (connection counts, each player's active game, players inside their grace period),
+ * so every lookup is O(1) and none touches Mongo. A player whose last session drops gets
+ * reconnect.grace.sec to come back before forfeiting.
+ * Each node also keeps its own share of the connection counts in presence:node:{nodeId} and
+ * heartbeats into presence:nodes. When a node stops heartbeating for reconnect.node-ttl-millis,
+ * the first node to notice subtracts its share, so players on a dead node go offline (and into
+ * their grace period) instead of staying online forever.
+ */
+@Service
+public class PresenceService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PresenceService.class);
+    
+    private static final String ONLINE_KEY = "presence:online";
+    private static final String GAMES_KEY = "presence:games";
+    private static final String DISCONNECTED_KEY = "presence:disconnected";
+    private static final String NODES_KEY = "presence:nodes";
+    private static final String NODE_KEY_PREFIX = "presence:node:";
+    
+    // KEYS: this node's counts, cluster-wide counts; ARGV: userId, delta. Returns the cluster-wide count
+    private static final RedisScript<Long> ADD_SESSION = new DefaultRedisScript<>(
+            "local mine = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2]) " +
+            "if mine <= 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end " +
+            "local online = redis.call('HINCRBY', KEYS[2], ARGV[1], ARGV[2]) " +
+            "if online <= 0 then redis.call('HDEL', KEYS[2], ARGV[1]) end " +
+            "return online", Long.class);
+    
+    // Only a session this node still holds is subtracted; its share may already have been reaped
+    private static final RedisScript<Long> REMOVE_SESSION = new DefaultRedisScript<>(
+            "if tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') <= 0 then " +
+            "return tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') end " +
+            "if redis.call('HINCRBY', KEYS[1], ARGV[1], -1) <= 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end " +
+            "local online = redis.call('HINCRBY', KEYS[2], ARGV[1], -1) " +
+            "if online <= 0 then redis.call('HDEL', KEYS[2], ARGV[1]) end " +
+            "return online", Long.class);
+    
+    // KEYS: presence:nodes, the node's counts, cluster-wide counts; ARGV: nodeId, last heartbeat allowed.
+    // Subtracts the node's share once, whoever runs it; returns the users it took offline
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REAP_NODE = new DefaultRedisScript<>(
+            "local beat = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if beat and tonumber(beat) > tonumber(ARGV[2]) then return {} end " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "local counts = redis.call('HGETALL', KEYS[2]) " +
+            "local offline = {} " +
+            "for i = 1, #counts, 2 do " +
+            "local online = redis.call('HINCRBY', KEYS[3], counts[i], -tonumber(counts[i + 1])) " +
+            "if online <= 0 then redis.call('HDEL', KEYS[3], counts[i]) table.insert(offline, counts[i]) end end " +
+            "redis.call('DEL', KEYS[2]) " +
+            "return offline", List.class);
+    
+    private final StringRedisTemplate redis;
+    private final GameEventLog eventLog;
+    private final GameService gameService;
+    private final String nodeId;
+    private final String nodeKey;
+    private final long graceSec;
+    private final long nodeTtlMillis;
+    private final ExecutorService graceExecutor;
+    private final HashedTimingWheel graceWheel;
+    private final ConcurrentMap<String, Presence> players = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> sessionUsers = new ConcurrentHashMap<>();
+    
+    public PresenceService(StringRedisTemplate redis, GameEventLog eventLog,
+                           GameService gameService, ClusterMembership membership, BattleshipProperties properties,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.redis = redis;
+        this.eventLog = eventLog;
+        this.gameService = gameService;
+        this.nodeId = membership.getNodeId();
+        this.nodeKey = NODE_KEY_PREFIX + nodeId;
+        this.graceSec = properties.getReconnect().getGrace().getSec();
+        this.nodeTtlMillis = properties.getReconnect().getNodeTtlMillis();
+        this.graceExecutor = BlockingTaskExecutors.create("presence-grace", 2, virtualThreads);
+        this.graceWheel = new HashedTimingWheel("presence-grace-wheel", 250, TimeUnit.MILLISECONDS, 256, graceExecutor);
+    }
+    
+    @PostConstruct
+    void start() {
+        redis.opsForZSet().add(NODES_KEY, nodeId, System.currentTimeMillis());
+        graceWheel.start();
+    }
+    
+    @PreDestroy
+    void stop() {
+        graceWheel.stop();
+        graceExecutor.shutdownNow();
+        try {
+            // Leaving cleanly takes this node's sessions offline now rather than after the TTL
+            redis.execute(REAP_NODE, List.of(NODES_KEY, nodeKey, ONLINE_KEY), nodeId, String.valueOf(Long.MAX_VALUE));
+        } catch (Exception e) {
+            log.debug("Failed to remove this node's presence", e);
+        }
+    }
+    
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        String userId = userOf(event);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null || sessionUsers.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+        
+        Presence presence = players.computeIfAbsent(userId, id -> new Presence());
+        presence.sessions.incrementAndGet();
+        redis.execute(ADD_SESSION, List.of(nodeKey, ONLINE_KEY), userId, "1");
+        
+        HashedTimingWheel.Timeout grace = presence.grace.getAndSet(null);
+        if (grace != null) {
+            grace.cancel();
+        }
+        
+        // Whichever node the player comes back on clears the cluster-wide grace marker
+        Long wasDisconnected = redis.opsForHash().delete(DISCONNECTED_KEY, userId);
+        if (wasDisconnected != null && wasDisconnected > 0) {
+            GameRef game = activeGame(userId);
+            if (game != null) {
+                broadcast(game, "PLAYER_RECONNECTED", Map.of("gameId", game.gameId(), "playerId", userId));
+            }
+        }
+    }
+    
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // Disconnect events can be delivered more than once per session
+        String userId = sessionUsers.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        
+        Presence presence = players.get(userId);
+        boolean lastLocalSession = presence == null || presence.sessions.decrementAndGet() <= 0;
+        Long remaining = redis.execute(REMOVE_SESSION, List.of(nodeKey, ONLINE_KEY), userId);
+        if (!lastLocalSession || remaining == null || remaining > 0) {
+            return;
+        }
+        if (presence != null) {
+            players.remove(userId, presence);
+        }
+        startGrace(userId);
+    }
+    
+    /**
+     * Heartbeat this node's share of the counts and reap nodes that stopped heartbeating.
+     */
+    @Scheduled(fixedDelayString = "${reconnect.heartbeat-millis:5000}")
+    public void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            if (Boolean.TRUE.equals(redis.opsForZSet().add(NODES_KEY, nodeId, now))) {
+                // Another node took this one for dead (a long pause); put its sessions back
+                republishSessions();
+            }
+            
+            long deadline = now - nodeTtlMillis;
+            Set<String> dead = redis.opsForZSet().rangeByScore(NODES_KEY, 0, deadline);
+            if (dead == null) {
+                return;
+            }
+            for (String node : dead) {
+                List<?> offline = redis.execute(REAP_NODE, List.of(NODES_KEY, NODE_KEY_PREFIX + node, ONLINE_KEY),
+                        node, String.valueOf(deadline));
+                if (offline != null && !offline.isEmpty()) {
+                    log.info("Reaped presence of unresponsive node {}: {} players offline", node, offline.size());
+                    offline.forEach(userId -> startGrace(userId.toString()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Presence heartbeat failed", e);
+        }
+    }
+    
+    private void republishSessions() {
+        players.forEach((userId, presence) -> {
+            int sessions = presence.sessions.get();
+            if (sessions > 0) {
+                redis.execute(ADD_SESSION, List.of(nodeKey, ONLINE_KEY), userId, String.valueOf(sessions));
+            }
+        });
+    }
+    
+    /**
+     * The player has no session left anywhere: give them reconnect.grace.sec to come back to their game.
+     */
+    private void startGrace(String userId) {
+        GameRef game = activeGame(userId);
+        if (game == null) {
+            return;
+        }
+        
+        redis.opsForHash().put(DISCONNECTED_KEY, userId, String.valueOf(System.currentTimeMillis()));
+        broadcast(game, "PLAYER_DISCONNECTED", Map.of(
+                "gameId", game.gameId(),
+                "playerId", userId,
+                "graceSec", graceSec
+        ));
+        
+        Presence graceHolder = players.computeIfAbsent(userId, id -> new Presence());
+        HashedTimingWheel.Timeout previous = graceHolder.grace.getAndSet(
+                graceWheel.schedule(() -> onGraceExpired(userId, game), graceSec, TimeUnit.SECONDS));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    @EventListener
+    public void onGameStarted(GameStartedEvent event) {
+        String value = event.gameId() + ":" + event.roomId();
+        for (String playerId : event.playerIds()) {
+            redis.opsForHash().put(GAMES_KEY, playerId, value);
+        }
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        if (event.playerIds() == null) {
+            return;
+        }
+        for (String playerId : event.playerIds()) {
+            redis.opsForHash().delete(GAMES_KEY, playerId);
+            redis.opsForHash().delete(DISCONNECTED_KEY, playerId);
+            Presence presence = players.get(playerId);
+            if (presence != null) {
+                HashedTimingWheel.Timeout grace = presence.grace.getAndSet(null);
+                if (grace != null) {
+                    grace.cancel();
+                }
+            }
+        }
+    }
+    
+    public boolean isOnline(String userId) {
+        Presence presence = players.get(userId);
+        if (presence != null && presence.sessions.get() > 0) {
+            return true;
+        }
+        Object count = redis.opsForHash().get(ONLINE_KEY, userId);
+        return count != null && Long.parseLong(count.toString()) > 0;
+    }
+    
+    private void onGraceExpired(String userId, GameRef game) {
+        try {
+            Presence presence = players.get(userId);
+            if (presence != null) {
+                presence.grace.set(null);
+            }
+            if (isOnline(userId)) {
+                return;
+            }
+            // Only the node that still finds the marker forfeits; a reconnect elsewhere removes it
+            Long marker = redis.opsForHash().delete(DISCONNECTED_KEY, userId);
+            if (marker == null || marker == 0) {
+                return;
+            }
+            
+            Map<String, Object> result = gameService.forfeit(game.gameId(), userId, "PLAYER_DISCONNECTED");
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                log.info("Player {} forfeited game {} after {}s disconnected", userId, game.gameId(), graceSec);
+                broadcast(game, "GAME_ENDED", Map.of(
+                        "winnerPlayerId", result.get("winnerPlayerId"),
+                        "reason", "PLAYER_DISCONNECTED"
+                ));
+            }
+        } catch (Exception e) {
+            log.error("Failed to handle reconnect grace expiry for {}", userId, e);
+        }
+    }
+    
+    private GameRef activeGame(String userId) {
+        Object value = redis.opsForHash().get(GAMES_KEY, userId);
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.toString().split(":", 2);
+        return parts.length == 2 ? new GameRef(parts[0], parts[1]) : null;
+    }
+    
+    private void broadcast(GameRef game, String type, Map<String, Object> payload) {
+        eventLog.publish(game.roomId(), game.gameId(), type, payload);
+    }
+    
+    private static String userOf(AbstractSubProtocolEvent event) {
+        Principal user = event.getUser();
+        return user != null ? user.getName() : null;
+    }
+    
+    private record GameRef(String gameId, String roomId) {}
+    
+    private static final class Presence {
+        private final AtomicInteger sessions = new AtomicInteger();
+        private final AtomicReference<HashedTimingWheel.Timeout> grace = new AtomicReference<>();
+    }
+}
@@ -0,0 +1,99 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of GameKeyManager for the reactive profile. Same hash layout and
+ * the same scripts, so both stacks can serve one game side by side.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveGameKeyManager {
+    
+    private final ReactiveStringRedisTemplate redis;
+    private final BattleshipProperties.Keys config;
+    
+    public ReactiveGameKeyManager(ReactiveStringRedisTemplate redis, BattleshipProperties properties) {
+        this.redis = redis;
+        this.config = properties.getKeys();
+    }
+    
+    public Mono<GameKeyManager.VersionedState> readState(String gameId) {
+        return redis.<String, String>opsForHash()
+                .multiGet(GameKeyManager.gameKey(gameId), List.of(GameKeyManager.STATE_FIELD, GameKeyManager.REVISION_FIELD))
+                .flatMap(values -> values.get(0) != null
+                        ? Mono.just(GameKeyManager.toVersionedState(values))
+                        : migrateLegacyState(gameId));
+    }
+    
+    private Mono<GameKeyManager.VersionedState> migrateLegacyState(String gameId) {
+        return redis.execute(GameKeyManager.MIGRATE_LEGACY_STATE, GameKeyManager.legacyKeys(gameId), List.of(ttlSeconds()))
+                .collectList()
+                .map(reply -> GameKeyManager.toVersionedState(
+                        reply.size() == 1 && reply.get(0) instanceof List<?> nested ? nested : reply));
+    }
+    
+    public Mono<Long> readRevision(String gameId) {
+        return redis.<String, String>opsForHash()
+                .get(GameKeyManager.gameKey(gameId), GameKeyManager.REVISION_FIELD)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+    
+    /**
+     * Empty when another writer changed the state since expectedRevision was read.
+     */
+    public Mono<GameKeyManager.StateWrite> compareAndSetState(String gameId, long expectedRevision, String json,
+                                                              long persistedEventSeq) {
+        return redis.execute(GameKeyManager.COMPARE_AND_SET_STATE, List.of(GameKeyManager.gameKey(gameId)),
+                        List.of(json, ttlSeconds(), String.valueOf(expectedRevision), String.valueOf(persistedEventSeq)))
+                .collectList()
+                // Depending on the driver a multi-bulk reply arrives as one list or as its elements
+                .mapNotNull(reply -> GameKeyManager.toStateWrite(
+                        reply.size() == 1 && reply.get(0) instanceof List<?> nested ? nested : reply));
+    }
+    
+    /**
+     * Next eventSeq of the game; persistedEventSeq is only subscribed to when Redis lost the counter.
+     */
+    public Mono<Long> nextEventSeq(String gameId, Mono<Long> persistedEventSeq) {
+        List<String> key = List.of(GameKeyManager.gameKey(gameId));
+        return redis.execute(GameKeyManager.NEXT_EVENT_SEQ, key, List.of(ttlSeconds()))
+                .next()
+                .flatMap(eventSeq -> eventSeq >= 0 ? Mono.just(eventSeq) : persistedEventSeq
+                        .flatMap(seed -> redis.execute(GameKeyManager.NEXT_EVENT_SEQ, key, List.of(ttlSeconds(), String.valueOf(seed)))
+                                .next()))
+                .defaultIfEmpty(1L);
+    }
+    
+    public Mono<Boolean> claimIdempotencyKey(String key, String value) {
+        return redis.opsForValue().setIfAbsent(key, value, idempotencyTtl());
+    }
+    
+    public Mono<String> readIdempotencyKey(String key) {
+        return redis.opsForValue().get(key);
+    }
+    
+    public Mono<Boolean> completeIdempotencyKey(String key, String value) {
+        return redis.opsForValue().set(key, value, idempotencyTtl());
+    }
+    
+    public Mono<Long> releaseIdempotencyKey(String key) {
+        return redis.delete(key);
+    }
+    
+    private Duration idempotencyTtl() {
+        return Duration.ofSeconds(config.getIdempotencyTtlSec());
+    }
+    
+    private String ttlSeconds() {
+        return String.valueOf(config.getGameTtlSec());
+    }
+}
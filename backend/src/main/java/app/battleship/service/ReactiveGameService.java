@@ -0,0 +1,297 @@
+package app.battleship.service;
+
+import app.battleship.model.*;
+import app.battleship.persist.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Game pipeline of the reactive profile. State is read and compare-and-set on reactive Redis,
+ * snapshots, archives and events go through reactive Mongo repositories, and the rules are the
+ * same GameService.apply* methods the blocking stack uses. An attack or move and the turn switch
+ * that follows it are committed in one write. Work that still blocks (snapshot policy, Spring
+ * event listeners, closing an expired placement) is moved to boundedElastic so it never runs on
+ * an event-loop thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveGameService {
+    
+    private static final int MAX_STATE_UPDATE_ATTEMPTS = 10;
+    private static final String PLACEMENT_EXPIRED = "PLACEMENT_EXPIRED";
+    
+    private final ReactiveGameKeyManager keys;
+    private final GameStateCache stateCache;
+    private final GameService gameService;
+    private final SnapshotService snapshotService;
+    private final SpectatorService spectators;
+    private final GameEventLog eventLog;
+    private final ReactiveGameRepository gameRepository;
+    private final ReactiveGameSnapshotRepository snapshotRepository;
+    private final ReactiveGameArchiveRepository archiveRepository;
+    private final ReactiveEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ReactiveGameService(ReactiveGameKeyManager keys, GameStateCache stateCache, GameService gameService,
+                               SnapshotService snapshotService, SpectatorService spectators,
+                               GameEventLog eventLog,
+                               ReactiveGameRepository gameRepository,
+                               ReactiveGameSnapshotRepository snapshotRepository,
+                               ReactiveGameArchiveRepository archiveRepository,
+                               ReactiveEventRepository eventRepository,
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher) {
+        this.keys = keys;
+        this.stateCache = stateCache;
+        this.gameService = gameService;
+        this.snapshotService = snapshotService;
+        this.spectators = spectators;
+        this.eventLog = eventLog;
+        this.gameRepository = gameRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    private record Committed(GameState state, Map<String, Object> outcome, GameKeyManager.StateWrite write) {}
+    
+    public Mono<GameState> getGameState(String gameId) {
+        return readStateJson(gameId)
+                .map(this::parse)
+                .switchIfEmpty(Mono.defer(() -> loadFromSnapshot(gameId)));
+    }
+    
+    /**
+     * Attack and, unless it won the game, pass the turn; the state after both is returned.
+     */
+    public Mono<GameService.ActionResult> processAttack(String gameId, String attackerId, AttackRequest request) {
+        return act(gameId, state -> {
+            Map<String, Object> result = gameService.applyAttack(state, attackerId, request);
+            if (Boolean.TRUE.equals(result.get("success")) && state.getWinnerPlayerId() == null) {
+                gameService.advanceTurn(state);
+            }
+            return result;
+        }).flatMap(committed -> {
+            if (Boolean.FALSE.equals(committed.outcome().get("success"))) {
+                return Mono.just(new GameService.ActionResult(committed.state(), committed.outcome()));
+            }
+            GameState state = committed.state();
+            String winnerPlayerId = state.getWinnerPlayerId();
+            
+            Map<String, Object> attackPayload = new HashMap<>(committed.outcome());
+            attackPayload.put("gameId", gameId);
+            attackPayload.put("attackerId", attackerId);
+            attackPayload.put("actionId", request.actionId());
+            attackPayload.put("STATE_UPDATED", GameEventLog.stateUpdatedPayload(state));
+            
+            Mono<Void> ended = winnerPlayerId == null ? Mono.empty()
+                    : markGameEnded(gameId, winnerPlayerId)
+                            .then(publish(state.getRoomId(), gameId, state.getTurn(), "GAME_ENDED", Map.of(
+                                    "winnerPlayerId", winnerPlayerId,
+                                    "reason", "ALL_SUNK")));
+            Object event = winnerPlayerId == null
+                    ? new TurnStartedEvent(gameId, state.getTurn(), state.getCurrentPlayerId())
+                    : new GameEndedEvent(gameId, state.getRoomId(), List.copyOf(state.getPlayers().keySet()),
+                            winnerPlayerId, "ALL_SUNK");
+            
+            return append(gameId, state.getTurn(), "ATTACK_PROCESSED", attackPayload)
+                    .doOnNext(eventDoc -> eventLog.broadcast(state.getRoomId(), GameEventLog.stateUpdated(eventDoc)))
+                    .then(ended)
+                    .then(afterCommit(committed, event))
+                    .thenReturn(new GameService.ActionResult(state, committed.outcome()));
+        });
+    }
+    
+    /**
+     * Move a ship and pass the turn; the state after both is returned.
+     */
+    public Mono<GameService.ActionResult> processShipMove(String gameId, String playerId, ShipMoveRequest request) {
+        return act(gameId, state -> {
+            Map<String, Object> result = gameService.applyShipMove(state, playerId, request);
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                gameService.advanceTurn(state);
+            }
+            return result;
+        }).flatMap(committed -> {
+            if (Boolean.FALSE.equals(committed.outcome().get("success"))) {
+                return Mono.just(new GameService.ActionResult(committed.state(), committed.outcome()));
+            }
+            GameState state = committed.state();
+            
+            Map<String, Object> movePayload = new HashMap<>(committed.outcome());
+            movePayload.put("gameId", gameId);
+            movePayload.put("playerId", playerId);
+            movePayload.put("actionId", request.actionId());
+            movePayload.put("STATE_UPDATED", GameEventLog.stateUpdatedPayload(state));
+            
+            return append(gameId, state.getTurn(), "SHIP_MOVED", movePayload)
+                    .doOnNext(eventDoc -> eventLog.broadcast(state.getRoomId(), GameEventLog.stateUpdated(eventDoc)))
+                    .then(afterCommit(committed,
+                            new TurnStartedEvent(gameId, state.getTurn(), state.getCurrentPlayerId())))
+                    .thenReturn(new GameService.ActionResult(state, committed.outcome()));
+        });
+    }
+    
+    /**
+     * Run a battle action; an expired placement phase whose timer was lost is closed first,
+     * as in the blocking stack.
+     */
+    private Mono<Committed> act(String gameId, Function<GameState, Map<String, Object>> action) {
+        Function<GameState, Map<String, Object>> guarded = state ->
+                state.isPlacementPhase() && System.currentTimeMillis() >= state.getPlacementDeadline()
+                        ? Map.of("success", false, "reason", PLACEMENT_EXPIRED)
+                        : action.apply(state);
+        return update(gameId, guarded, 0).flatMap(committed -> {
+            if (!PLACEMENT_EXPIRED.equals(committed.outcome().get("reason"))) {
+                return Mono.just(committed);
+            }
+            return Mono.fromRunnable(() -> gameService.closePlacementOnTimeout(gameId))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(Mono.defer(() -> update(gameId, action, 0)));
+        });
+    }
+    
+    /**
+     * Compare-and-set loop of GameService.updateGameState, starting from the owner's cache when it has the game.
+     */
+    private Mono<Committed> update(String gameId, Function<GameState, Map<String, Object>> mutation, int attempt) {
+        if (attempt >= MAX_STATE_UPDATE_ATTEMPTS) {
+            return Mono.error(new RuntimeException("Concurrent update conflict for game: " + gameId));
+        }
+        GameKeyManager.VersionedState cached = stateCache.get(gameId);
+        Mono<GameKeyManager.VersionedState> current = cached != null ? Mono.just(cached) : keys.readState(gameId);
+        
+        return current.flatMap(read -> {
+            Mono<GameState> loaded = read.json() != null
+                    ? Mono.fromCallable(() -> parse(read.json()))
+                    : loadFromSnapshot(gameId);
+            return loaded.flatMap(state -> {
+                Map<String, Object> outcome = mutation.apply(state);
+                if (Boolean.FALSE.equals(outcome.get("success"))) {
+                    Mono<Committed> rejected = Mono.just(new Committed(state, outcome, null));
+                    if (cached == null) {
+                        return rejected;
+                    }
+                    // A rejection is only final against current state; another node may have written since we cached
+                    return keys.readRevision(gameId).flatMap(revision -> {
+                        if (revision == read.revision()) {
+                            return rejected;
+                        }
+                        stateCache.invalidate(gameId);
+                        return update(gameId, mutation, attempt + 1);
+                    });
+                }
+                String updated = serialize(state);
+                // A game's first write may be a restore from Mongo; its events must not be renumbered
+                Mono<Long> persistedEventSeq = read.revision() == 0 ? persistedEventSeq(gameId) : Mono.just(0L);
+                return persistedEventSeq
+                        .flatMap(eventSeq -> keys.compareAndSetState(gameId, read.revision(), updated, eventSeq))
+                        .map(write -> {
+                            stateCache.put(gameId, updated, write.revision());
+                            return new Committed(state, outcome, write);
+                        })
+                        // Another writer changed the state since we read it; retry on fresh state
+                        .switchIfEmpty(Mono.defer(() -> {
+                            stateCache.invalidate(gameId);
+                            return update(gameId, mutation, attempt + 1);
+                        }));
+            });
+        });
+    }
+    
+    private Mono<String> readStateJson(String gameId) {
+        GameKeyManager.VersionedState cached = stateCache.get(gameId);
+        Mono<GameKeyManager.VersionedState> fresh = keys.readState(gameId)
+                .doOnNext(read -> stateCache.put(gameId, read.json(), read.revision()));
+        Mono<GameKeyManager.VersionedState> current = cached == null ? fresh
+                : keys.readRevision(gameId).flatMap(revision -> revision == cached.revision() ? Mono.just(cached) : fresh);
+        return current.mapNotNull(GameKeyManager.VersionedState::json);
+    }
+    
+    private Mono<GameState> loadFromSnapshot(String gameId) {
+        // Current snapshots are keyed by gameId; older games may still have one document per snapshot
+        return snapshotRepository.findById(gameId)
+                .switchIfEmpty(Mono.defer(() -> snapshotRepository.findTopByGameIdOrderByTurnDesc(gameId)))
+                .map(GameSnapshot::getState)
+                .switchIfEmpty(Mono.defer(() -> archiveRepository.findById(gameId)
+                        .filter(archive -> archive.getFinalState() != null)
+                        .map(archive -> parse(new String(GameArchive.gunzip(archive.getFinalState()), StandardCharsets.UTF_8)))))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Game not found: " + gameId)));
+    }
+    
+    private Mono<Void> markGameEnded(String gameId, String winnerPlayerId) {
+        return gameRepository.findById(gameId)
+                .flatMap(game -> {
+                    game.setStatus(Game.GameStatus.ENDED);
+                    game.setWinnerPlayerId(winnerPlayerId);
+                    game.setEndedAt(Instant.now());
+                    return gameRepository.save(game);
+                })
+                .then();
+    }
+    
+    private Mono<EventDoc> append(String gameId, int turn, String type, Map<String, Object> payload) {
+        return keys.nextEventSeq(gameId, persistedEventSeq(gameId))
+                .flatMap(eventSeq -> eventRepository.save(EventDoc.of(gameId, eventSeq, turn, type, payload)))
+                .doOnNext(eventLog::remember);
+    }
+    
+    private Mono<Long> persistedEventSeq(String gameId) {
+        return eventRepository.findTopByGameIdOrderByEventSeqDesc(gameId)
+                .map(EventDoc::getEventSeq)
+                .defaultIfEmpty(0L);
+    }
+    
+    private Mono<Void> publish(String roomId, String gameId, int turn, String type, Map<String, Object> payload) {
+        return append(gameId, turn, type, payload)
+                .doOnNext(eventDoc -> eventLog.broadcast(roomId, Map.of(
+                        "eventId", eventDoc.getEventId(),
+                        "eventSeq", eventDoc.getEventSeq(),
+                        "type", type,
+                        "payload", payload)))
+                .then();
+    }
+    
+    // Snapshot writes, spectator views and the turn/end listeners (timers, presence, archive) are blocking
+    private Mono<Void> afterCommit(Committed committed, Object event) {
+        return Mono.fromRunnable(() -> {
+                    snapshotService.onStateWritten(committed.state(), committed.write());
+                    if (committed.write() != null) {
+                        spectators.onStateWritten(committed.state(), committed.write().revision());
+                    }
+                    eventPublisher.publishEvent(event);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+    
+    private GameState parse(String json) {
+        try {
+            return objectMapper.readValue(json, GameState.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load game state", e);
+        }
+    }
+    
+    private String serialize(GameState state) {
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save game state", e);
+        }
+    }
+}
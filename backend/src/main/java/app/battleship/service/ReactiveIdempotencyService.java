@@ -0,0 +1,76 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyService for the reactive profile: same keys and stored encoding, but duplicates
+ * wait for the first call by polling the key on a timer instead of parking a thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveIdempotencyService {
+    
+    private final ReactiveGameKeyManager keys;
+    private final IdempotencyService idempotency;
+    private final long waitMillis;
+    
+    public ReactiveIdempotencyService(ReactiveGameKeyManager keys, IdempotencyService idempotency,
+                                      BattleshipProperties properties) {
+        this.keys = keys;
+        this.idempotency = idempotency;
+        this.waitMillis = properties.getKeys().getIdempotencyWaitMillis();
+    }
+    
+    public Mono<ResponseEntity<?>> execute(String key, Supplier<Mono<ResponseEntity<?>>> action) {
+        return attempt(key, action, 0);
+    }
+    
+    private Mono<ResponseEntity<?>> attempt(String key, Supplier<Mono<ResponseEntity<?>>> action, int attempt) {
+        // Second round only when the first caller failed and released the key
+        if (attempt >= 2) {
+            return Mono.just(IdempotencyService.inProgress());
+        }
+        return keys.claimIdempotencyKey(key, IdempotencyService.PENDING).flatMap(claimed -> {
+            if (Boolean.TRUE.equals(claimed)) {
+                return runFirst(key, action);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            return awaitCompletion(key, deadline)
+                    .<ResponseEntity<?>>map(stored -> IdempotencyService.PENDING.equals(stored)
+                            ? IdempotencyService.inProgress()
+                            : IdempotencyService.replay(stored))
+                    .switchIfEmpty(Mono.defer(() -> attempt(key, action, attempt + 1)));
+        });
+    }
+    
+    private Mono<ResponseEntity<?>> runFirst(String key, Supplier<Mono<ResponseEntity<?>>> action) {
+        return Mono.defer(action)
+                // Nothing was recorded, so a retry may run the action again
+                .onErrorResume(e -> keys.releaseIdempotencyKey(key).then(Mono.error(e)))
+                .flatMap(response -> keys.completeIdempotencyKey(key, idempotency.encode(response)).thenReturn(response));
+    }
+    
+    /**
+     * The stored response, empty if the key was released, or PENDING if still running at the deadline.
+     */
+    private Mono<String> awaitCompletion(String key, long deadline) {
+        return keys.readIdempotencyKey(key).defaultIfEmpty("").flatMap(value -> {
+            if (!IdempotencyService.PENDING.equals(value)) {
+                return value.isEmpty() ? Mono.empty() : Mono.just(value);
+            }
+            if (System.nanoTime() >= deadline) {
+                return Mono.just(value);
+            }
+            return Mono.delay(Duration.ofMillis(IdempotencyService.POLL_MILLIS))
+                    .then(Mono.defer(() -> awaitCompletion(key, deadline)));
+        });
+    }
+}
@@ -1,40 +1,82 @@
 package app.battleship.service;
 
+import app.battleship.config.BattleshipProperties;
 import app.battleship.model.Game;
+import app.battleship.model.GameStartedEvent;
+import app.battleship.model.GameVariant;
 import app.battleship.model.Room;
 import app.battleship.persist.GameRepository;
 import app.battleship.persist.RoomRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import app.battleship.scheduling.BlockingTaskExecutors;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class RoomService {
     
+    private static final Logger log = LoggerFactory.getLogger(RoomService.class);
+    
+    /**
+     * A game to start in bulk; the order of the players is randomized.
+     */
+    public record MatchStart(String roomId, String gameId, String firstPlayerId, String secondPlayerId) {}
+    
     private final RoomRepository roomRepository;
     private final GameRepository gameRepository;
     private final GameService gameService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventLog eventLog;
+    private final GameVariantService variantService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GameKeyManager keys;
+    private final long emptyRoomTtlSec;
+    private final ExecutorService startExecutor;
     
     public RoomService(RoomRepository roomRepository, GameRepository gameRepository,
-                      GameService gameService, SimpMessagingTemplate messagingTemplate) {
+                      GameService gameService, GameEventLog eventLog,
+                      GameVariantService variantService, ApplicationEventPublisher eventPublisher,
+                      GameKeyManager keys, BattleshipProperties properties,
+                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.roomRepository = roomRepository;
         this.gameRepository = gameRepository;
         this.gameService = gameService;
-        this.messagingTemplate = messagingTemplate;
+        this.eventLog = eventLog;
+        this.variantService = variantService;
+        this.eventPublisher = eventPublisher;
+        this.keys = keys;
+        this.emptyRoomTtlSec = properties.getRoom().getEmpty().getTtl();
+        this.startExecutor = BlockingTaskExecutors.create("game-start",
+                Math.max(1, properties.getRoom().getStartParallelism()), virtualThreads);
+    }
+    
+    @PreDestroy
+    void stop() {
+        startExecutor.shutdownNow();
     }
     
     public List<Room> getWaitingRooms() {
         return roomRepository.findByStatus(Room.RoomStatus.WAITING);
     }
     
-    public Room createRoom(String userId) {
+    public Room createRoom(String userId, String variantName) {
+        GameVariant variant = variantService.resolve(variantName);
+        
         String roomId = UUID.randomUUID().toString();
         Room room = new Room(roomId);
         room.getPlayerIds().add(userId);
         room.setStatus(Room.RoomStatus.WAITING);
+        room.setVariant(variant.name());
         
         return roomRepository.save(room);
     }
@@ -53,6 +95,11 @@ public class RoomService {
         
         room.getPlayerIds().add(userId);
         room.setUpdatedAt(Instant.now());
+        if (room.getStatus() == Room.RoomStatus.EMPTY) {
+            // Rejoined before it was reclaimed
+            room.setStatus(Room.RoomStatus.WAITING);
+            room.setExpireAt(null);
+        }
         
         if (room.isFull()) {
             room.setStatus(Room.RoomStatus.FULL);
@@ -84,7 +131,8 @@ public class RoomService {
         gameRepository.save(game);
         
         // Initialize game state with ship placement
-        gameService.initializeGame(gameId, room.getId(), firstPlayerId, secondPlayerId);
+        gameService.initializeGame(gameId, room.getId(), firstPlayerId, secondPlayerId,
+                variantService.resolve(room.getVariant()));
         
         // Update room
         room.setStatus(Room.RoomStatus.IN_GAME);
@@ -92,19 +140,101 @@ public class RoomService {
         room.setUpdatedAt(Instant.now());
         roomRepository.save(room);
         
+        announceGameStarted(room.getId(), gameId, firstPlayerId, secondPlayerId, room.getVariant());
+    }
+    
+    /**
+     * Starts many games at once, e.g. a tournament round, without going through createRoom and
+     * joinRoom: all rooms and all games are written with one insert each, then the games are
+     * initialized in parallel. Matches whose game already exists are only initialized if that
+     * never completed, so a failed start can simply be retried. Returns the ids of the games
+     * that failed to start.
+     */
+    public Set<String> startGames(List<MatchStart> matches, String variantName) {
+        if (matches.isEmpty()) {
+            return Set.of();
+        }
+        GameVariant variant = variantService.resolve(variantName);
+        
+        List<String> gameIds = matches.stream().map(MatchStart::gameId).toList();
+        Map<String, Game> existingGames = new HashMap<>();
+        gameRepository.findAllById(gameIds).forEach(game -> existingGames.put(game.getId(), game));
+        Set<String> existingRooms = new HashSet<>();
+        roomRepository.findAllById(matches.stream().map(MatchStart::roomId).toList())
+                .forEach(room -> existingRooms.add(room.getId()));
+        
+        List<Room> rooms = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        List<Game> toInitialize = new ArrayList<>();
+        for (MatchStart match : matches) {
+            Game game = existingGames.get(match.gameId());
+            if (game == null) {
+                boolean swap = ThreadLocalRandom.current().nextBoolean();
+                String firstPlayerId = swap ? match.secondPlayerId() : match.firstPlayerId();
+                String secondPlayerId = swap ? match.firstPlayerId() : match.secondPlayerId();
+                game = new Game(match.gameId(), match.roomId(), firstPlayerId, secondPlayerId);
+                games.add(game);
+                toInitialize.add(game);
+            } else if (keys.readRevision(game.getId()) == 0) {
+                // Created by an earlier attempt that failed before its state was written
+                toInitialize.add(game);
+            }
+            if (!existingRooms.contains(match.roomId())) {
+                Room room = new Room(match.roomId());
+                room.getPlayerIds().addAll(List.of(game.getFirstPlayerId(), game.getSecondPlayerId()));
+                room.setStatus(Room.RoomStatus.IN_GAME);
+                room.setGameId(game.getId());
+                room.setVariant(variant.name());
+                rooms.add(room);
+            }
+        }
+        if (!rooms.isEmpty()) {
+            roomRepository.insert(rooms);
+        }
+        if (!games.isEmpty()) {
+            gameRepository.insert(games);
+        }
+        
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Game game : toInitialize) {
+            tasks.add(() -> {
+                gameService.initializeGame(game.getId(), game.getRoomId(), game.getFirstPlayerId(),
+                        game.getSecondPlayerId(), variant);
+                announceGameStarted(game.getRoomId(), game.getId(), game.getFirstPlayerId(),
+                        game.getSecondPlayerId(), variant.name());
+                return null;
+            });
+        }
+        
+        Set<String> failed = new HashSet<>();
+        try {
+            List<Future<Void>> results = startExecutor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    String gameId = toInitialize.get(i).getId();
+                    log.error("Failed to start game {}", gameId, e.getCause());
+                    failed.add(gameId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting games", e);
+        }
+        log.info("Started {} games in bulk ({} new, {} failed)", toInitialize.size() - failed.size(), games.size(), failed.size());
+        return failed;
+    }
+    
+    private void announceGameStarted(String roomId, String gameId, String firstPlayerId, String secondPlayerId, String variant) {
         // Broadcast GAME_STARTED event
-        Map<String, Object> event = Map.of(
-                "eventId", UUID.randomUUID().toString(),
-                "eventSeq", 1,
-                "type", "GAME_STARTED",
-                "payload", Map.of(
-                        "gameId", gameId,
-                        "roomId", room.getId(),
-                        "firstPlayerId", firstPlayerId
-                )
-        );
-        
-        messagingTemplate.convertAndSend("/topic/rooms/" + room.getId(), event);
+        eventLog.publish(roomId, gameId, 1, "GAME_STARTED", Map.of(
+                "gameId", gameId,
+                "roomId", roomId,
+                "firstPlayerId", firstPlayerId,
+                "variant", variant
+        ));
+        eventPublisher.publishEvent(new GameStartedEvent(gameId, roomId, List.of(firstPlayerId, secondPlayerId)));
     }
     
     public Room leaveRoom(String roomId, String userId) {
@@ -117,18 +247,20 @@ public class RoomService {
         if (room.isEmpty()) {
             room.setStatus(Room.RoomStatus.EMPTY);
             room.setLastEmptyAt(Instant.now());
+            room.setExpireAt(room.getLastEmptyAt().plusSeconds(emptyRoomTtlSec));
         }
         
         return roomRepository.save(room);
     }
     
-    public void cleanupEmptyRooms(int ttlSeconds) {
+    /**
+     * Backstop for the TTL index: the TTL monitor only runs about once a minute and skips
+     * rooms emptied before expireAt existed. Returns the number of rooms deleted.
+     */
+    public long cleanupEmptyRooms(int ttlSeconds) {
         Instant threshold = Instant.now().minusSeconds(ttlSeconds);
-        List<Room> emptyRooms = roomRepository.findByStatusAndLastEmptyAtBefore(
-                Room.RoomStatus.EMPTY, threshold
-        );
-        
-        roomRepository.deleteAll(emptyRooms);
+        // One indexed delete instead of loading every expired room and deleting them one by one
+        return roomRepository.deleteByStatusAndLastEmptyAtBefore(Room.RoomStatus.EMPTY, threshold);
     }
 }
 
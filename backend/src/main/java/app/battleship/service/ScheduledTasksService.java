@@ -1,5 +1,8 @@
 package app.battleship.service;
 
+import app.battleship.scheduling.LeaderElection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,19 +15,31 @@ public class ScheduledTasksService {
     private static final Logger log = LoggerFactory.getLogger(ScheduledTasksService.class);
     
     private final RoomService roomService;
+    private final LeaderElection leaderElection;
+    private final Counter roomsReclaimed;
     
     @Value("${room.empty.ttl:60}")
     private int roomEmptyTtl;
     
-    public ScheduledTasksService(RoomService roomService) {
+    public ScheduledTasksService(RoomService roomService, LeaderElection leaderElection, MeterRegistry meterRegistry) {
         this.roomService = roomService;
+        this.leaderElection = leaderElection;
+        this.roomsReclaimed = Counter.builder("battleship.rooms.reclaimed")
+                .description("Empty rooms deleted by the cleanup job")
+                .register(meterRegistry);
     }
     
     @Scheduled(fixedDelayString = "${room.cleanup.interval:30000}")
     public void cleanupEmptyRooms() {
         try {
-            log.debug("Running empty room cleanup task");
-            roomService.cleanupEmptyRooms(roomEmptyTtl);
+            leaderElection.runIfLeader("room-cleanup", () -> {
+                log.debug("Running empty room cleanup task");
+                long reclaimed = roomService.cleanupEmptyRooms(roomEmptyTtl);
+                roomsReclaimed.increment(reclaimed);
+                if (reclaimed > 0) {
+                    log.info("Reclaimed {} empty rooms", reclaimed);
+                }
+            });
         } catch (Exception e) {
             log.error("Error during room cleanup", e);
         }
@@ -1,84 +1,177 @@
 package app.battleship.service;
 
+import app.battleship.config.BattleshipProperties;
+import app.battleship.engine.BoardEngine;
+import app.battleship.engine.BoardEngines;
 import app.battleship.model.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ShipPlacementService {
     
-    private static final int BOARD_SIZE = 10;
-    private static final List<ShipKind> FLEET = Arrays.asList(
-            ShipKind.CARRIER_5,
-            ShipKind.BATTLESHIP_4,
-            ShipKind.CRUISER_3,
-            ShipKind.SUBMARINE_3,
-            ShipKind.DESTROYER_2
-    );
-    
-    public List<Ship> placeShipsRandomly() {
-        List<Ship> ships = new ArrayList<>();
-        boolean[][] occupied = new boolean[BOARD_SIZE][BOARD_SIZE];
-        Random random = new Random();
-        
-        for (ShipKind kind : FLEET) {
-            Ship ship = null;
-            int attempts = 0;
-            int maxAttempts = 1000;
-            
-            while (ship == null && attempts < maxAttempts) {
-                attempts++;
-                
-                boolean horizontal = random.nextBoolean();
-                int length = kind.getLength();
-                
-                int r, c;
-                if (horizontal) {
-                    r = random.nextInt(BOARD_SIZE);
-                    c = random.nextInt(BOARD_SIZE - length + 1);
-                } else {
-                    r = random.nextInt(BOARD_SIZE - length + 1);
-                    c = random.nextInt(BOARD_SIZE);
-                }
-                
-                List<Coord> cells = new ArrayList<>();
-                boolean valid = true;
-                
-                for (int i = 0; i < length; i++) {
-                    int cr = horizontal ? r : r + i;
-                    int cc = horizontal ? c + i : c;
-                    
-                    if (occupied[cr][cc]) {
-                        valid = false;
-                        break;
-                    }
-                    cells.add(new Coord(cr, cc));
-                }
-                
-                if (valid) {
-                    ship = new Ship(kind, cells);
-                    for (Coord coord : cells) {
-                        occupied[coord.getR()][coord.getC()] = true;
-                    }
-                }
+    private static final Logger log = LoggerFactory.getLogger(ShipPlacementService.class);
+    
+    private final GameVariantService variantService;
+    private final int poolCapacity;
+    private final int refillThreshold;
+    private final int parallelism;
+    private final ExecutorService refillExecutor;
+    private final ConcurrentMap<String, FleetPool> pools = new ConcurrentHashMap<>();
+    private final AtomicLong poolMisses = new AtomicLong();
+    
+    public ShipPlacementService(BattleshipProperties properties, GameVariantService variantService) {
+        BattleshipProperties.Placement.Pool poolConfig = properties.getPlacement().getPool();
+        this.variantService = variantService;
+        this.poolCapacity = Math.max(1, poolConfig.getCapacity());
+        this.refillThreshold = Math.max(0, poolConfig.getRefillThreshold());
+        this.parallelism = Math.max(1, poolConfig.getParallelism());
+        this.refillExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "fleet-pool-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PostConstruct
+    void prefill() {
+        for (GameVariant variant : variantService.getVariants()) {
+            triggerRefill(poolFor(variant));
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+    
+    /**
+     * Draw a fleet for the variant from its pre-generated pool (O(1)), falling back to
+     * inline generation only when the pool has been drained faster than it refills.
+     * Pools are FIFO and never filtered, so draws keep the generator's uniform distribution.
+     */
+    public List<Ship> placeShipsRandomly(GameVariant variant) {
+        FleetPool pool = poolFor(variant);
+        FleetLayout layout = pool.layouts.poll();
+        if (layout == null) {
+            poolMisses.incrementAndGet();
+            layout = pool.engine.randomLayout(variant.fleet(), ThreadLocalRandom.current());
+        }
+        if (pool.layouts.size() < refillThreshold) {
+            triggerRefill(pool);
+        }
+        return toShips(layout, variant);
+    }
+    
+    /**
+     * Validate a player-submitted fleet against the variant; allocation-free.
+     * Returns null when the fleet is valid, otherwise a rejection reason.
+     */
+    public String validateFleet(List<ShipPlacement> ships, GameVariant variant) {
+        return BoardEngines.forSize(variant.boardSize()).validateFleet(ships, variant.fleet());
+    }
+    
+    /**
+     * Materialize a fleet that already passed validateFleet.
+     */
+    public List<Ship> toShips(List<ShipPlacement> placements) {
+        List<Ship> ships = new ArrayList<>(placements.size());
+        for (ShipPlacement placement : placements) {
+            int length = placement.kind().getLength();
+            List<Coord> cells = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                cells.add(placement.horizontal()
+                        ? new Coord(placement.r(), placement.c() + i)
+                        : new Coord(placement.r() + i, placement.c()));
             }
+            ships.add(new Ship(placement.kind(), cells));
+        }
+        return ships;
+    }
+    
+    public int getPoolSize(GameVariant variant) {
+        return poolFor(variant).layouts.size();
+    }
+    
+    public long getPoolMisses() {
+        return poolMisses.get();
+    }
+    
+    public boolean isValidCoord(Coord coord, int boardSize) {
+        return coord.getR() >= 0 && coord.getR() < boardSize &&
+               coord.getC() >= 0 && coord.getC() < boardSize;
+    }
+    
+    private List<Ship> toShips(FleetLayout layout, GameVariant variant) {
+        int size = variant.boardSize();
+        List<Ship> ships = new ArrayList<>(layout.size());
+        for (int slot = 0; slot < layout.size(); slot++) {
+            ShipKind kind = variant.fleet().get(slot);
+            int origin = layout.originCell(slot);
+            int r = origin / size;
+            int c = origin % size;
+            boolean horizontal = layout.isHorizontal(slot);
             
-            if (ship == null) {
-                throw new RuntimeException("Failed to place ship: " + kind);
+            List<Coord> cells = new ArrayList<>(kind.getLength());
+            for (int i = 0; i < kind.getLength(); i++) {
+                cells.add(horizontal ? new Coord(r, c + i) : new Coord(r + i, c));
             }
-            
-            ships.add(ship);
+            ships.add(new Ship(kind, cells));
         }
-        
         return ships;
     }
     
-    public boolean isValidCoord(Coord coord) {
-        return coord.getR() >= 0 && coord.getR() < BOARD_SIZE && 
-               coord.getC() >= 0 && coord.getC() < BOARD_SIZE;
+    private FleetPool poolFor(GameVariant variant) {
+        return pools.computeIfAbsent(variant.name(), name -> new FleetPool(variant, poolCapacity));
+    }
+    
+    private void triggerRefill(FleetPool pool) {
+        // Only start workers when none are running; each worker fills until the pool is full
+        if (!pool.activeWorkers.compareAndSet(0, parallelism)) {
+            return;
+        }
+        for (int i = 0; i < parallelism; i++) {
+            try {
+                refillExecutor.execute(() -> refillWorker(pool));
+            } catch (RejectedExecutionException e) {
+                pool.activeWorkers.decrementAndGet();
+            }
+        }
+    }
+    
+    private void refillWorker(FleetPool pool) {
+        try {
+            SplittableRandom random = new SplittableRandom();
+            while (pool.layouts.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                if (!pool.layouts.offer(pool.engine.randomLayout(pool.variant.fleet(), random))) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Fleet pool refill failed for variant {}", pool.variant.name(), e);
+        } finally {
+            pool.activeWorkers.decrementAndGet();
+        }
+    }
+    
+    private static final class FleetPool {
+        private final GameVariant variant;
+        private final BoardEngine engine;
+        private final BlockingQueue<FleetLayout> layouts;
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        
+        FleetPool(GameVariant variant, int capacity) {
+            this.variant = variant;
+            this.engine = BoardEngines.forSize(variant.boardSize());
+            this.layouts = new ArrayBlockingQueue<>(capacity);
+        }
     }
 }
-
-
-
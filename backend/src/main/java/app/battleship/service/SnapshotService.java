@@ -0,0 +1,160 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameSnapshot;
+import app.battleship.model.GameState;
+import app.battleship.monitoring.ActionLatencySlo;
+import app.battleship.monitoring.GameMetrics;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides when a game's Redis state is copied to Mongo and writes it as a single, superseding
+ * snapshot document per game (_id = gameId). A snapshot is taken for a new game, when the game
+ * has a winner, or once snapshot.max-events events or snapshot.max-bytes of state writes have
+ * accumulated since the previous one, so recovery never replays more than that. When this node
+ * wrote the previous snapshot, only the changed fields are sent ($set on the differing paths),
+ * guarded by the previous revision so a snapshot written meanwhile by another node is never patched.
+ * While the action latency SLO is breached the event and byte thresholds are multiplied by
+ * slo.snapshot-backoff-factor. The base a diff is computed from is kept per game until the game
+ * ends here or has not been snapshotted for snapshot.idle-sec; without one the next write is full.
+ */
+@Service
+public class SnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+    
+    // Below this depth changed subtrees are replaced whole; deeper diffs cost more than they save
+    private static final int MAX_DIFF_DEPTH = 4;
+    
+    private final MongoTemplate mongoTemplate;
+    private final GameKeyManager keys;
+    private final BattleshipProperties.Snapshot config;
+    private final Meter.MeterProvider<Timer> timers;
+    private final ActionLatencySlo slo;
+    private final long idleMillis;
+    private final ConcurrentMap<String, Base> bases = new ConcurrentHashMap<>();
+    
+    public SnapshotService(MongoTemplate mongoTemplate, GameKeyManager keys, BattleshipProperties properties,
+                           MeterRegistry meterRegistry, ActionLatencySlo slo) {
+        this.mongoTemplate = mongoTemplate;
+        this.keys = keys;
+        this.config = properties.getSnapshot();
+        this.timers = GameMetrics.storeTimers(meterRegistry, "mongo");
+        this.slo = slo;
+        this.idleMillis = Math.max(0, config.getIdleSec()) * 1000;
+    }
+    
+    private record Base(long revision, Document state, long writtenAt) {}
+    
+    public void onStateWritten(GameState state, GameKeyManager.StateWrite write) {
+        if (write == null) {
+            return;
+        }
+        int backoff = slo.snapshotBackoffFactor();
+        boolean due = write.revision() == 1
+                || state.isEnded()
+                || write.eventsSinceSnapshot() >= (long) config.getMaxEvents() * backoff
+                || write.bytesSinceSnapshot() >= (long) config.getMaxBytes() * backoff;
+        if (due) {
+            snapshot(state, write.revision());
+        }
+    }
+    
+    public void snapshot(GameState state, long revision) {
+        String gameId = state.getGameId();
+        try {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(state, document);
+            document.remove("_class");
+            
+            Base base = bases.get(gameId);
+            boolean patched = config.isDiffEnabled() && base != null && base.revision() < revision
+                    && writeDiff(state, revision, base, document);
+            if (!patched) {
+                writeFull(state, revision, document);
+            }
+            
+            bases.put(gameId, new Base(revision, document, System.currentTimeMillis()));
+            keys.resetSnapshotAccounting(gameId);
+        } catch (Exception e) {
+            log.warn("Failed to snapshot game {} at revision {}", gameId, revision, e);
+        }
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        bases.remove(event.gameId());
+    }
+    
+    @Scheduled(fixedDelayString = "${snapshot.sweep-interval:60000}")
+    public void evictIdleBases() {
+        // Games that ended on another node, moved owner, expired or were abandoned never see a local GameEndedEvent
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        bases.values().removeIf(base -> base.writtenAt() < idleSince);
+    }
+    
+    private boolean writeDiff(GameState state, long revision, Base base, Document document) {
+        Update update = header(state, revision);
+        diff("state", base.state(), document, update, 0);
+        
+        Query query = Query.query(Criteria.where("_id").is(state.getGameId()).and("revision").is(base.revision()));
+        UpdateResult result = timers.withTags("operation", "snapshot.diff")
+                .record(() -> mongoTemplate.updateFirst(query, update, GameSnapshot.class));
+        return result.getMatchedCount() > 0;
+    }
+    
+    private void writeFull(GameState state, long revision, Document document) {
+        Update update = header(state, revision)
+                .set("gameId", state.getGameId())
+                .set("state", document)
+                .setOnInsert("createdAt", Instant.now());
+        timers.withTags("operation", "snapshot.full")
+                .record(() -> mongoTemplate.upsert(Query.query(Criteria.where("_id").is(state.getGameId())), update,
+                        GameSnapshot.class));
+    }
+    
+    private static Update header(GameState state, long revision) {
+        return new Update()
+                .set("turn", state.getTurn())
+                .set("revision", revision)
+                .set("updatedAt", Instant.now());
+    }
+    
+    private static void diff(String path, Document before, Document after, Update update, int depth) {
+        for (String key : after.keySet()) {
+            Object next = after.get(key);
+            Object previous = before.get(key);
+            String fieldPath = path + "." + key;
+            if (next instanceof Document nextDocument && previous instanceof Document previousDocument
+                    && depth < MAX_DIFF_DEPTH) {
+                diff(fieldPath, previousDocument, nextDocument, update, depth + 1);
+            } else if (!Objects.equals(next, previous)) {
+                update.set(fieldPath, next);
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                update.unset(path + "." + key);
+            }
+        }
+    }
+}
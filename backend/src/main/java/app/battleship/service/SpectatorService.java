@@ -0,0 +1,245 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameState;
+import app.battleship.monitoring.TopicSubscriptions;
+import app.battleship.scheduling.BlockingTaskExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Spectator feeds on /topic/games/{gameId}/spectate. Only games someone is watching are tracked:
+ * for those, every state write produces one spectator view, whatever the number of spectators,
+ * and it is sent to the topic once; the broker fans it out. Sends run off the action's thread,
+ * one drain per game at a time, so frames arrive in order and a slow fan-out skips straight to
+ * the newest. See spectate.* for what spectators see and how far behind.
+ */
+@Service
+public class SpectatorService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SpectatorService.class);
+    
+    private static final Pattern TOPIC = Pattern.compile("^/topic/games/([^/]+)/spectate$");
+    
+    private final ViewShapingService viewShapingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicSubscriptions subscriptions;
+    private final TaskScheduler taskScheduler;
+    private final BattleshipProperties.Spectate config;
+    private final ExecutorService fanoutExecutor;
+    private final Counter frames;
+    private final ConcurrentMap<String, Feed> feeds = new ConcurrentHashMap<>();
+    
+    public SpectatorService(ViewShapingService viewShapingService, SimpMessagingTemplate messagingTemplate,
+                            TopicSubscriptions subscriptions, TaskScheduler taskScheduler,
+                            BattleshipProperties properties, MeterRegistry meterRegistry,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.viewShapingService = viewShapingService;
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.taskScheduler = taskScheduler;
+        this.config = properties.getSpectate();
+        this.fanoutExecutor = BlockingTaskExecutors.create("spectate-fanout", 2, virtualThreads);
+        this.frames = Counter.builder("battleship.spectate.frames")
+                .description("Spectator views sent, each once for all of a game's spectators")
+                .register(meterRegistry);
+        Gauge.builder("battleship.spectate.games", feeds, Map::size)
+                .description("Games with spectator feeds on this node")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void stop() {
+        fanoutExecutor.shutdownNow();
+    }
+    
+    public static String topic(String gameId) {
+        return "/topic/games/" + gameId + "/spectate";
+    }
+    
+    /**
+     * The game a spectator destination belongs to, or null for any other destination.
+     */
+    public static String spectatedGame(String destination) {
+        Matcher matcher = destination != null ? TOPIC.matcher(destination) : null;
+        return matcher != null && matcher.matches() ? matcher.group(1) : null;
+    }
+    
+    /**
+     * The spectator frame currently shown for a game, starting to track it if nobody was.
+     * Players of the game are refused: the frame may show their opponent's fleet.
+     */
+    public Map<String, Object> currentFrame(String gameId, String viewerId, Supplier<GameState> loader) {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Spectating is disabled");
+        }
+        Feed feed = feeds.get(gameId);
+        if (feed == null || feed.current == null) {
+            GameState state = loader.get();
+            feed = feeds.computeIfAbsent(gameId, id -> new Feed());
+            synchronized (feed) {
+                if (feed.current == null) {
+                    record(feed, state, -1);
+                }
+            }
+        }
+        if (feed.players.contains(viewerId)) {
+            throw new IllegalArgumentException("Players cannot spectate their own game");
+        }
+        feed.lastRead = System.currentTimeMillis();
+        return feed.current;
+    }
+    
+    /**
+     * Called after every committed state write, with the Redis revision it was written at.
+     */
+    public void onStateWritten(GameState state, long revision) {
+        Feed feed = feeds.get(state.getGameId());
+        if (feed == null) {
+            return;
+        }
+        String topic = topic(state.getGameId());
+        boolean watched = subscriptions.count(topic) > 0;
+        if (!watched && System.currentTimeMillis() - feed.lastRead > config.getIdleSec() * 1000) {
+            feeds.remove(state.getGameId(), feed);
+            return;
+        }
+        
+        Map<String, Object> frame;
+        synchronized (feed) {
+            frame = record(feed, state, revision);
+        }
+        if (frame != null && watched) {
+            offer(topic, feed, frame);
+        }
+    }
+    
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        String gameId = spectatedGame(SimpMessageHeaderAccessor.wrap(event.getMessage()).getDestination());
+        if (gameId != null && config.isEnabled()) {
+            feeds.computeIfAbsent(gameId, id -> new Feed()).lastRead = System.currentTimeMillis();
+        }
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        // The final frame is still served to late spectators for a while
+        taskScheduler.schedule(() -> feeds.remove(event.gameId()), Instant.now().plusSeconds(config.getRetainSec()));
+    }
+    
+    /**
+     * Adds a state to the feed and returns the frame to show for it, or null when that is
+     * unchanged. revision is -1 for a state read rather than written. Caller holds the feed's lock.
+     */
+    private Map<String, Object> record(Feed feed, GameState state, long revision) {
+        if (revision >= 0) {
+            if (revision <= feed.recordedRevision) {
+                return null;
+            }
+            feed.recordedRevision = revision;
+        }
+        feed.players = Set.copyOf(state.getPlayers().keySet());
+        
+        Map<String, Object> view;
+        int behind = 0;
+        if (!config.isRevealShips()) {
+            view = viewShapingService.createSpectatorView(state, false);
+        } else if (state.isEnded() || config.getDelayTurns() <= 0) {
+            feed.history.clear();
+            view = viewShapingService.createSpectatorView(state, true);
+        } else {
+            feed.history.addLast(new Frame(state.getTurn(), viewShapingService.createSpectatorView(state, true)));
+            // Keep the newest frame old enough to show and everything after it
+            Frame shown = null;
+            while (!feed.history.isEmpty() && feed.history.peekFirst().turn() <= state.getTurn() - config.getDelayTurns()) {
+                shown = feed.history.pollFirst();
+            }
+            if (shown != null) {
+                feed.history.addFirst(shown);
+                if (shown.view() == feed.shownView) {
+                    return null;
+                }
+                view = shown.view();
+                behind = state.getTurn() - shown.turn();
+            } else {
+                // Nothing old enough yet: only what both players already know, live
+                view = viewShapingService.createSpectatorView(state, false);
+            }
+        }
+        
+        feed.shownView = view;
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("type", "SPECTATOR_VIEW");
+        frame.put("gameId", state.getGameId());
+        frame.put("turnsBehind", behind);
+        frame.put("payload", view);
+        feed.current = frame;
+        return frame;
+    }
+    
+    private void offer(String topic, Feed feed, Map<String, Object> frame) {
+        synchronized (feed) {
+            feed.pending = frame;
+            if (feed.draining) {
+                return;
+            }
+            feed.draining = true;
+        }
+        fanoutExecutor.execute(() -> drain(topic, feed));
+    }
+    
+    private void drain(String topic, Feed feed) {
+        while (true) {
+            Map<String, Object> frame;
+            synchronized (feed) {
+                frame = feed.pending;
+                feed.pending = null;
+                if (frame == null) {
+                    feed.draining = false;
+                    return;
+                }
+            }
+            try {
+                messagingTemplate.convertAndSend(topic, frame);
+                frames.increment();
+            } catch (Exception e) {
+                log.warn("Failed to send spectator view to {}", topic, e);
+            }
+        }
+    }
+    
+    private record Frame(int turn, Map<String, Object> view) {}
+    
+    private static final class Feed {
+        private final Deque<Frame> history = new ArrayDeque<>();
+        private volatile Set<String> players = Set.of();
+        private volatile Map<String, Object> current;
+        private volatile long lastRead = System.currentTimeMillis();
+        private Map<String, Object> shownView;
+        private long recordedRevision = -1;
+        private Map<String, Object> pending;
+        private boolean draining;
+    }
+}
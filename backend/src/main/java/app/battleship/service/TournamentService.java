@@ -0,0 +1,500 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.Game;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.GameState;
+import app.battleship.model.GameVariant;
+import app.battleship.model.PlayerState;
+import app.battleship.model.Tournament;
+import app.battleship.model.TournamentMatch;
+import app.battleship.persist.GameRepository;
+import app.battleship.persist.TournamentMatchRepository;
+import app.battleship.persist.TournamentRepository;
+import app.battleship.scheduling.LeaderElection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single-elimination tournaments. Starting a round spawns all of its games through
+ * RoomService.startGames; results from GAME_ENDED are buffered and written to the bracket in bulk,
+ * and the node whose write completes a round claims the advance with a conditional update on the
+ * tournament, builds the next round and schedules it after tournament.round-break-sec. Bracket
+ * events go to /topic/tournaments/{id}. Rounds and matches are rebuilt idempotently, so a
+ * leader-only sweep can finish whatever a node that went down left half done; the sweep also
+ * forfeits matches a player never showed up for, so one absent player can't stall the bracket.
+ */
+@Service
+public class TournamentService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TournamentService.class);
+    
+    private final TournamentRepository tournamentRepository;
+    private final TournamentMatchRepository matchRepository;
+    private final GameRepository gameRepository;
+    private final MongoTemplate mongoTemplate;
+    private final RoomService roomService;
+    private final GameService gameService;
+    private final GameVariantService variantService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskScheduler taskScheduler;
+    private final LeaderElection leaderElection;
+    private final BattleshipProperties.Tournament config;
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final Timer roundStart;
+    private final Counter matchesStarted;
+    private final Counter matchStartFailures;
+    private final Counter resultsRecorded;
+    private final Counter noShows;
+    
+    public TournamentService(TournamentRepository tournamentRepository, TournamentMatchRepository matchRepository,
+                             GameRepository gameRepository, MongoTemplate mongoTemplate,
+                             RoomService roomService, GameService gameService, GameVariantService variantService,
+                             SimpMessagingTemplate messagingTemplate, TaskScheduler taskScheduler,
+                             LeaderElection leaderElection, BattleshipProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.tournamentRepository = tournamentRepository;
+        this.matchRepository = matchRepository;
+        this.gameRepository = gameRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.roomService = roomService;
+        this.gameService = gameService;
+        this.variantService = variantService;
+        this.messagingTemplate = messagingTemplate;
+        this.taskScheduler = taskScheduler;
+        this.leaderElection = leaderElection;
+        this.config = properties.getTournament();
+        this.roundStart = Timer.builder("battleship.tournament.round.start")
+                .description("Time to spawn all games of a tournament round")
+                .register(meterRegistry);
+        this.matchesStarted = Counter.builder("battleship.tournament.matches.started")
+                .description("Tournament games started")
+                .register(meterRegistry);
+        this.matchStartFailures = Counter.builder("battleship.tournament.matches.start.failures")
+                .description("Tournament games that failed to start and are left for the sweep to retry")
+                .register(meterRegistry);
+        this.resultsRecorded = Counter.builder("battleship.tournament.results")
+                .description("Match results written to brackets")
+                .register(meterRegistry);
+        this.noShows = Counter.builder("battleship.tournament.no-shows")
+                .description("Tournament games forfeited because a player never showed up")
+                .register(meterRegistry);
+        Gauge.builder("battleship.tournament.results.pending", results, Queue::size)
+                .description("Results buffered on this node, not yet written")
+                .register(meterRegistry);
+    }
+    
+    public static String topic(String tournamentId) {
+        return "/topic/tournaments/" + tournamentId;
+    }
+    
+    public List<Tournament> getOpenTournaments() {
+        return tournamentRepository.findByStatusInOrderByCreatedAtDesc(
+                List.of(Tournament.TournamentStatus.REGISTERING, Tournament.TournamentStatus.RUNNING));
+    }
+    
+    public Tournament create(String userId, String name, String variantName, Integer maxPlayers) {
+        GameVariant variant = variantService.resolve(variantName);
+        int cap = maxPlayers != null ? maxPlayers : config.getMaxPlayers();
+        if (cap < 2 || cap > config.getMaxPlayers()) {
+            throw new IllegalArgumentException("Max players must be between 2 and " + config.getMaxPlayers());
+        }
+        String title = name != null && !name.isBlank() ? name.trim() : "Tournament";
+        return tournamentRepository.save(new Tournament(UUID.randomUUID().toString(), title, userId, variant.name(), cap));
+    }
+    
+    public Tournament join(String tournamentId, String userId) {
+        Tournament tournament = find(tournamentId);
+        if (tournament.getPlayerIds().contains(userId)) {
+            throw new IllegalArgumentException("Already registered");
+        }
+        // Atomic, so a burst of registrations neither loses entries nor overfills the bracket
+        Query query = Query.query(Criteria.where("_id").is(tournamentId)
+                .and("status").is(Tournament.TournamentStatus.REGISTERING)
+                .and("playerIds." + (tournament.getMaxPlayers() - 1)).exists(false));
+        Tournament joined = mongoTemplate.findAndModify(query, new Update().addToSet("playerIds", userId),
+                FindAndModifyOptions.options().returnNew(true), Tournament.class);
+        if (joined == null) {
+            throw new IllegalArgumentException(tournament.getStatus() != Tournament.TournamentStatus.REGISTERING
+                    ? "Tournament already started" : "Tournament is full");
+        }
+        return joined;
+    }
+    
+    /**
+     * Closes registration, seeds the bracket and starts the first round. Only the organizer can.
+     */
+    public Tournament start(String tournamentId, String userId) {
+        Tournament tournament = find(tournamentId);
+        if (!tournament.getCreatedBy().equals(userId)) {
+            throw new IllegalArgumentException("Only the organizer can start the tournament");
+        }
+        if (tournament.getStatus() != Tournament.TournamentStatus.REGISTERING) {
+            throw new IllegalArgumentException("Tournament already started");
+        }
+        int players = tournament.getPlayerIds().size();
+        if (players < 2) {
+            throw new IllegalArgumentException("Need at least 2 players");
+        }
+        
+        List<String> seeding = new ArrayList<>(tournament.getPlayerIds());
+        Collections.shuffle(seeding);
+        int bracketSize = Integer.highestOneBit(players - 1) << 1;
+        Instant now = Instant.now();
+        // Only if nobody registered in between, or they would be dropped from the seeding
+        Query query = Query.query(Criteria.where("_id").is(tournamentId)
+                .and("status").is(Tournament.TournamentStatus.REGISTERING)
+                .and("playerIds").size(players));
+        Update update = new Update()
+                .set("status", Tournament.TournamentStatus.RUNNING)
+                .set("playerIds", seeding)
+                .set("rounds", Integer.numberOfTrailingZeros(bracketSize))
+                .set("currentRound", 1)
+                .set("roundStarted", false)
+                .set("startedAt", now)
+                .set("nextRoundAt", now);
+        Tournament started = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Tournament.class);
+        if (started == null) {
+            throw new IllegalArgumentException("Registration changed while starting, try again");
+        }
+        
+        log.info("Tournament {} started: {} players, {} rounds", tournamentId, players, started.getRounds());
+        startRound(tournamentId, 1);
+        return find(tournamentId);
+    }
+    
+    public Map<String, Object> getBracket(String tournamentId) {
+        Tournament tournament = find(tournamentId);
+        Map<Integer, List<TournamentMatch>> rounds = new TreeMap<>();
+        for (TournamentMatch match : matchRepository.findByTournamentIdOrderByRoundAscSlotAsc(tournamentId)) {
+            rounds.computeIfAbsent(match.getRound(), round -> new ArrayList<>()).add(match);
+        }
+        return Map.of("tournament", tournament, "rounds", rounds.values());
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        // Every game ends here; the flush tells tournament games apart in one query per batch
+        results.add(new Result(event.gameId(), event.winnerPlayerId()));
+    }
+    
+    @Scheduled(fixedDelayString = "${tournament.flush-interval:500}")
+    public void flushResults() {
+        while (!results.isEmpty()) {
+            Map<String, Result> batch = new LinkedHashMap<>();
+            Result result;
+            while (batch.size() < Math.max(1, config.getFlushBatch()) && (result = results.poll()) != null) {
+                batch.put(result.gameId(), result);
+            }
+            try {
+                recordResults(batch);
+            } catch (Exception e) {
+                log.error("Failed to record {} tournament results, retrying on the next flush", batch.size(), e);
+                results.addAll(batch.values());
+                return;
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${tournament.sweep-interval:30000}", initialDelayString = "${tournament.sweep-interval:30000}")
+    public void sweepRunningTournaments() {
+        leaderElection.runIfLeader("tournament-sweep", () -> {
+            for (Tournament tournament : tournamentRepository.findByStatus(Tournament.TournamentStatus.RUNNING)) {
+                try {
+                    sweep(tournament);
+                } catch (Exception e) {
+                    log.error("Tournament sweep failed for {}", tournament.getId(), e);
+                }
+            }
+            flushResults();
+        });
+    }
+    
+    private void sweep(Tournament tournament) {
+        Instant now = Instant.now();
+        int round = tournament.getCurrentRound();
+        if (!tournament.isRoundStarted()) {
+            // Its timer was on a node that went down
+            if (tournament.getNextRoundAt() == null || !tournament.getNextRoundAt().isAfter(now)) {
+                startRound(tournament.getId(), round);
+            }
+            return;
+        }
+        
+        List<TournamentMatch> matches = ensureRound(tournament, round);
+        List<String> active = matches.stream()
+                .filter(match -> match.getStatus() == TournamentMatch.MatchStatus.ACTIVE)
+                .map(TournamentMatch::getGameId)
+                .toList();
+        // Results buffered on a node that went down before flushing
+        Set<String> ended = new HashSet<>();
+        for (Game game : gameRepository.findAllById(active)) {
+            if (game.getStatus() == Game.GameStatus.ENDED) {
+                ended.add(game.getId());
+                results.add(new Result(game.getId(), game.getWinnerPlayerId()));
+            }
+        }
+        if (config.getNoShowSec() > 0) {
+            Instant noShowBefore = now.minusSeconds(config.getNoShowSec());
+            matches.stream()
+                    .filter(match -> match.getStatus() == TournamentMatch.MatchStatus.ACTIVE && !ended.contains(match.getGameId()))
+                    .filter(match -> match.getStartedAt() != null && match.getStartedAt().isBefore(noShowBefore))
+                    .forEach(this::forfeitNoShow);
+        }
+        // Games that failed to start, left alone while the round may still be starting elsewhere
+        List<TournamentMatch> pending = matches.stream()
+                .filter(match -> match.getStatus() == TournamentMatch.MatchStatus.PENDING)
+                .toList();
+        Instant settled = now.minusMillis(config.getSweepInterval());
+        if (!pending.isEmpty() && tournament.getNextRoundAt() != null && tournament.getNextRoundAt().isBefore(settled)) {
+            spawn(tournament, pending);
+        }
+        if (matches.stream().allMatch(match -> match.getStatus() == TournamentMatch.MatchStatus.DONE)) {
+            advance(tournament.getId(), round);
+        }
+    }
+    
+    /**
+     * Ends a match that a player hasn't shown up for: that player forfeits, or the lower seed if
+     * neither has, like any game that ends without a winner. The result arrives as GAME_ENDED.
+     */
+    private void forfeitNoShow(TournamentMatch match) {
+        try {
+            GameState state = gameService.getGameState(match.getGameId());
+            if (state == null || state.isEnded()) {
+                return;
+            }
+            List<String> absent = match.getPlayerIds().stream()
+                    .filter(playerId -> !showedUp(state.getPlayers().get(playerId)))
+                    .toList();
+            if (absent.isEmpty()) {
+                return;
+            }
+            String loser = absent.size() == 1 ? absent.get(0) : match.getPlayerIds().get(1);
+            if (Boolean.TRUE.equals(gameService.forfeit(match.getGameId(), loser, "NO_SHOW").get("success"))) {
+                noShows.increment();
+                log.info("Tournament {} match {}: {} forfeited for not showing up", match.getTournamentId(), match.getId(), loser);
+            }
+        } catch (Exception e) {
+            log.error("Failed to forfeit no-show match {}", match.getId(), e);
+        }
+    }
+    
+    // Submitting a fleet or firing a shot; a player who did neither was never there
+    private static boolean showedUp(PlayerState player) {
+        return player != null && (player.isPlacementSubmitted()
+                || !player.getBoard().getAttacksByMeHits().isEmpty()
+                || !player.getBoard().getAttacksByMeMisses().isEmpty());
+    }
+    
+    private void recordResults(Map<String, Result> batch) {
+        List<TournamentMatch> matches = matchRepository.findByGameIdInAndStatusIn(batch.keySet(),
+                List.of(TournamentMatch.MatchStatus.PENDING, TournamentMatch.MatchStatus.ACTIVE));
+        if (matches.isEmpty()) {
+            return;
+        }
+        
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TournamentMatch.class);
+        Set<RoundKey> rounds = new LinkedHashSet<>();
+        for (TournamentMatch match : matches) {
+            String winner = batch.get(match.getGameId()).winnerPlayerId();
+            if (winner == null || !match.getPlayerIds().contains(winner)) {
+                // A game that ended without a winner goes to the higher seed
+                winner = match.getPlayerIds().get(0);
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(match.getId())
+                            .and("status").ne(TournamentMatch.MatchStatus.DONE)),
+                    new Update()
+                            .set("status", TournamentMatch.MatchStatus.DONE)
+                            .set("winnerPlayerId", winner)
+                            .set("endedAt", now));
+            rounds.add(new RoundKey(match.getTournamentId(), match.getRound()));
+        }
+        bulk.execute();
+        resultsRecorded.increment(matches.size());
+        
+        for (RoundKey round : rounds) {
+            if (matchRepository.countByTournamentIdAndRoundAndStatusNot(round.tournamentId(), round.round(),
+                    TournamentMatch.MatchStatus.DONE) == 0) {
+                advance(round.tournamentId(), round.round());
+            }
+        }
+    }
+    
+    /**
+     * Moves a finished round's winners on, or ends the tournament after the final. Safe to call
+     * from several nodes at once: only the one whose update still sees the round current proceeds.
+     */
+    private void advance(String tournamentId, int round) {
+        List<TournamentMatch> matches = matchRepository.findByTournamentIdAndRoundOrderBySlotAsc(tournamentId, round);
+        Query current = Query.query(Criteria.where("_id").is(tournamentId)
+                .and("status").is(Tournament.TournamentStatus.RUNNING)
+                .and("currentRound").is(round));
+        
+        if (matches.size() == 1) {
+            String winner = matches.get(0).getWinnerPlayerId();
+            Update update = new Update()
+                    .set("status", Tournament.TournamentStatus.FINISHED)
+                    .set("winnerPlayerId", winner)
+                    .set("endedAt", Instant.now())
+                    .unset("nextRoundAt");
+            if (mongoTemplate.findAndModify(current, update, Tournament.class) != null) {
+                log.info("Tournament {} won by {}", tournamentId, winner);
+                broadcast(tournamentId, Map.of("type", "TOURNAMENT_ENDED", "tournamentId", tournamentId, "winnerPlayerId", winner));
+            }
+            return;
+        }
+        
+        Instant startsAt = Instant.now().plusSeconds(config.getRoundBreakSec());
+        Update update = new Update()
+                .set("currentRound", round + 1)
+                .set("roundStarted", false)
+                .set("nextRoundAt", startsAt);
+        Tournament tournament = mongoTemplate.findAndModify(current, update,
+                FindAndModifyOptions.options().returnNew(true), Tournament.class);
+        if (tournament == null) {
+            return;
+        }
+        
+        ensureRound(tournament, round + 1);
+        broadcast(tournamentId, Map.of("type", "ROUND_SCHEDULED", "tournamentId", tournamentId,
+                "round", round + 1, "startsAt", startsAt.toString()));
+        taskScheduler.schedule(() -> {
+            try {
+                startRound(tournamentId, round + 1);
+            } catch (Exception e) {
+                log.error("Failed to start round {} of tournament {}", round + 1, tournamentId, e);
+            }
+        }, startsAt);
+    }
+    
+    /**
+     * The matches of a round, inserting them in one write if they don't exist yet: the first
+     * round from the seeding, later ones from the previous round's winners.
+     */
+    private List<TournamentMatch> ensureRound(Tournament tournament, int round) {
+        List<TournamentMatch> existing = matchRepository.findByTournamentIdAndRoundOrderBySlotAsc(tournament.getId(), round);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        
+        List<TournamentMatch> matches = new ArrayList<>();
+        if (round == 1) {
+            // Pairs seed i with seed size-1-i; the missing seeds at the bottom give the top ones a bye
+            List<String> seeding = tournament.getPlayerIds();
+            int bracketSize = 1 << tournament.getRounds();
+            Instant now = Instant.now();
+            for (int slot = 0; slot < bracketSize / 2; slot++) {
+                int opponent = bracketSize - 1 - slot;
+                List<String> players = opponent < seeding.size()
+                        ? List.of(seeding.get(slot), seeding.get(opponent))
+                        : List.of(seeding.get(slot));
+                TournamentMatch match = new TournamentMatch(tournament.getId(), round, slot, players);
+                if (match.isBye()) {
+                    match.setStatus(TournamentMatch.MatchStatus.DONE);
+                    match.setWinnerPlayerId(players.get(0));
+                    match.setEndedAt(now);
+                }
+                matches.add(match);
+            }
+        } else {
+            List<TournamentMatch> previous = matchRepository.findByTournamentIdAndRoundOrderBySlotAsc(tournament.getId(), round - 1);
+            for (int slot = 0; slot < previous.size() / 2; slot++) {
+                matches.add(new TournamentMatch(tournament.getId(), round, slot, List.of(
+                        previous.get(2 * slot).getWinnerPlayerId(), previous.get(2 * slot + 1).getWinnerPlayerId())));
+            }
+        }
+        
+        try {
+            mongoTemplate.insert(matches, TournamentMatch.class);
+        } catch (DuplicateKeyException e) {
+            // Built concurrently by another node
+            return matchRepository.findByTournamentIdAndRoundOrderBySlotAsc(tournament.getId(), round);
+        }
+        return matches;
+    }
+    
+    private void startRound(String tournamentId, int round) {
+        Query query = Query.query(Criteria.where("_id").is(tournamentId)
+                .and("status").is(Tournament.TournamentStatus.RUNNING)
+                .and("currentRound").is(round)
+                .and("roundStarted").is(false));
+        Tournament tournament = mongoTemplate.findAndModify(query,
+                new Update().set("roundStarted", true).set("nextRoundAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true), Tournament.class);
+        if (tournament == null) {
+            return;
+        }
+        
+        List<TournamentMatch> matches = ensureRound(tournament, round);
+        roundStart.record(() -> spawn(tournament, matches.stream()
+                .filter(match -> match.getStatus() == TournamentMatch.MatchStatus.PENDING)
+                .toList()));
+        log.info("Tournament {} round {} started: {} matches", tournamentId, round, matches.size());
+    }
+    
+    private void spawn(Tournament tournament, List<TournamentMatch> pending) {
+        List<RoomService.MatchStart> starts = pending.stream()
+                .map(match -> new RoomService.MatchStart(match.getRoomId(), match.getGameId(),
+                        match.getPlayerIds().get(0), match.getPlayerIds().get(1)))
+                .toList();
+        Set<String> failed = roomService.startGames(starts, tournament.getVariant());
+        
+        List<TournamentMatch> started = pending.stream()
+                .filter(match -> !failed.contains(match.getGameId()))
+                .toList();
+        // One write for the whole round; failed matches stay PENDING for the sweep
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(started.stream().map(TournamentMatch::getId).toList())
+                        .and("status").is(TournamentMatch.MatchStatus.PENDING)),
+                new Update().set("status", TournamentMatch.MatchStatus.ACTIVE).set("startedAt", Instant.now()),
+                TournamentMatch.class);
+        matchesStarted.increment(started.size());
+        matchStartFailures.increment(failed.size());
+        
+        List<Map<String, Object>> games = started.stream()
+                .map(match -> Map.<String, Object>of("slot", match.getSlot(), "gameId", match.getGameId(),
+                        "playerIds", match.getPlayerIds()))
+                .toList();
+        broadcast(tournament.getId(), Map.of("type", "ROUND_STARTED", "tournamentId", tournament.getId(),
+                "round", tournament.getCurrentRound(), "matches", games));
+    }
+    
+    private void broadcast(String tournamentId, Map<String, Object> event) {
+        try {
+            messagingTemplate.convertAndSend(topic(tournamentId), event);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast {} for tournament {}", event.get("type"), tournamentId, e);
+        }
+    }
+    
+    private Tournament find(String tournamentId) {
+        return tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new IllegalArgumentException("Tournament not found"));
+    }
+    
+    private record Result(String gameId, String winnerPlayerId) {}
+    
+    private record RoundKey(String tournamentId, int round) {}
+}
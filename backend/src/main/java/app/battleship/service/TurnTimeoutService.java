@@ -0,0 +1,213 @@
+package app.battleship.service;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.model.GameEndedEvent;
+import app.battleship.model.TurnStartedEvent;
+import app.battleship.scheduling.BlockingTaskExecutors;
+import app.battleship.scheduling.HashedTimingWheel;
+import app.battleship.scheduling.LeaderElection;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Enforces turn.timeout.sec: every started turn gets a deadline on a hashed timing wheel
+ * (O(1) insert and cancel), replacing the game's previous deadline. On expiry the turn is
+ * skipped or forfeited according to turn.timeout.action and TURN_TIMEOUT is broadcast; after
+ * turn.timeout.max-consecutive timeouts in a row the game ends as ABANDONED.
+ * Deadlines are also indexed in Redis so that the elected leader can apply the ones whose
+ * timer died with its node.
+ */
+@Service
+public class TurnTimeoutService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TurnTimeoutService.class);
+    
+    private static final String DEADLINES_KEY = "turn:deadlines";
+    private static final String DEADLINE_TURNS_KEY = "turn:deadline-turns";
+    private static final int SWEEP_BATCH = 100;
+    
+    private static final RedisScript<Long> SET_DEADLINE = new DefaultRedisScript<>(
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) " +
+            "return 1", Long.class);
+    
+    private static final RedisScript<Long> CLEAR_DEADLINE = new DefaultRedisScript<>(
+            "if ARGV[2] == '' or redis.call('HGET', KEYS[2], ARGV[1]) == ARGV[2] then " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "return 1 end return 0", Long.class);
+    
+    private final GameService gameService;
+    private final GameEventLog eventLog;
+    private final StringRedisTemplate redis;
+    private final LeaderElection leaderElection;
+    private final long sweepSlackMillis;
+    private final long timeoutSec;
+    private final BattleshipProperties.Turn.Timeout.Action action;
+    private final ExecutorService expiryExecutor;
+    private final HashedTimingWheel wheel;
+    private final ConcurrentMap<String, HashedTimingWheel.Timeout> deadlines = new ConcurrentHashMap<>();
+    
+    public TurnTimeoutService(GameService gameService, GameEventLog eventLog, StringRedisTemplate redis,
+                              LeaderElection leaderElection, BattleshipProperties properties,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        BattleshipProperties.Turn.Timeout config = properties.getTurn().getTimeout();
+        this.gameService = gameService;
+        this.eventLog = eventLog;
+        this.redis = redis;
+        this.leaderElection = leaderElection;
+        this.sweepSlackMillis = config.getSweepSlackMillis();
+        this.timeoutSec = config.getSec();
+        this.action = config.getAction();
+        this.expiryExecutor = BlockingTaskExecutors.create("turn-timeout", 4, virtualThreads);
+        this.wheel = new HashedTimingWheel("turn-timeout-wheel", config.getTickMillis(), TimeUnit.MILLISECONDS,
+                config.getWheelSize(), expiryExecutor);
+    }
+    
+    @PostConstruct
+    void start() {
+        if (timeoutSec > 0) {
+            wheel.start();
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        wheel.stop();
+        expiryExecutor.shutdownNow();
+    }
+    
+    @EventListener
+    public void onTurnStarted(TurnStartedEvent event) {
+        if (timeoutSec <= 0) {
+            return;
+        }
+        deadlines.compute(event.gameId(), (gameId, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return wheel.schedule(() -> expire(event), timeoutSec, TimeUnit.SECONDS);
+        });
+        
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSec);
+        try {
+            redis.execute(SET_DEADLINE, List.of(DEADLINES_KEY, DEADLINE_TURNS_KEY),
+                    event.gameId(), String.valueOf(deadline), String.valueOf(event.turn()));
+        } catch (Exception e) {
+            log.warn("Failed to index turn deadline of game {}", event.gameId(), e);
+        }
+    }
+    
+    /**
+     * Apply deadlines that are overdue by more than turn.timeout.sweep-slack-millis, i.e. whose
+     * timer was lost with the node that scheduled it. Runs on the elected leader only.
+     */
+    @Scheduled(fixedDelayString = "${turn.timeout.sweep-interval:5000}")
+    public void sweepLostDeadlines() {
+        if (timeoutSec <= 0) {
+            return;
+        }
+        try {
+            leaderElection.runIfLeader("turn-timeout-sweep", () -> {
+                long overdueBefore = System.currentTimeMillis() - sweepSlackMillis;
+                Set<String> gameIds = redis.opsForZSet().rangeByScore(DEADLINES_KEY, 0, overdueBefore, 0, SWEEP_BATCH);
+                if (gameIds == null) {
+                    return;
+                }
+                for (String gameId : gameIds) {
+                    Object turn = redis.opsForHash().get(DEADLINE_TURNS_KEY, gameId);
+                    if (turn == null) {
+                        clearDeadline(gameId, "");
+                        continue;
+                    }
+                    log.info("Applying lost turn deadline of game {} (turn {})", gameId, turn);
+                    if (!expire(new TurnStartedEvent(gameId, Integer.parseInt(turn.toString()), null))) {
+                        // Stale or finished; drop the entry unless a newer turn replaced it meanwhile
+                        clearDeadline(gameId, turn.toString());
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Turn deadline sweep failed", e);
+        }
+    }
+    
+    @EventListener
+    public void onGameEnded(GameEndedEvent event) {
+        cancel(event.gameId());
+        try {
+            clearDeadline(event.gameId(), "");
+        } catch (Exception e) {
+            log.warn("Failed to clear turn deadline of game {}", event.gameId(), e);
+        }
+    }
+    
+    public void cancel(String gameId) {
+        HashedTimingWheel.Timeout timeout = deadlines.remove(gameId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+    
+    public long getActiveDeadlines() {
+        return wheel.getActiveTimeouts();
+    }
+    
+    private boolean expire(TurnStartedEvent event) {
+        deadlines.computeIfPresent(event.gameId(), (gameId, timeout) -> timeout.isExpired() ? null : timeout);
+        
+        try {
+            Map<String, Object> result = gameService.handleTurnTimeout(event.gameId(), event.turn(), action);
+            if (!Boolean.TRUE.equals(result.get("success"))) {
+                return false;
+            }
+            
+            log.info("Turn {} of game {} timed out ({})", event.turn(), event.gameId(), action);
+            String roomId = (String) result.get("roomId");
+            
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("gameId", event.gameId());
+            payload.put("timedOutPlayerId", result.get("timedOutPlayerId"));
+            payload.put("action", result.get("action"));
+            payload.put("turn", result.get("turn"));
+            payload.put("currentPlayerId", result.get("currentPlayerId"));
+            payload.put("stateVersion", result.get("stateVersion"));
+            broadcast(roomId, event.gameId(), "TURN_TIMEOUT", payload);
+            
+            if (result.containsKey("endReason")) {
+                // No winnerPlayerId when the game was abandoned
+                Map<String, Object> ended = new HashMap<>();
+                ended.put("winnerPlayerId", result.get("winnerPlayerId"));
+                ended.put("reason", result.get("endReason"));
+                broadcast(roomId, event.gameId(), "GAME_ENDED", ended);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to apply turn timeout for game {}", event.gameId(), e);
+            return false;
+        }
+    }
+    
+    private void clearDeadline(String gameId, String expectedTurn) {
+        redis.execute(CLEAR_DEADLINE, List.of(DEADLINES_KEY, DEADLINE_TURNS_KEY), gameId, expectedTurn);
+    }
+    
+    private void broadcast(String roomId, String gameId, String type, Map<String, Object> payload) {
+        eventLog.publish(roomId, gameId, type, payload);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ViewShapingService {
@@ -82,11 +83,87 @@ public class ViewShapingService {
         view.put("turn", gameState.getTurn());
         view.put("currentPlayerId", gameState.getCurrentPlayerId());
         view.put("stateVersion", gameState.getStateVersion());
+        view.put("variant", gameState.getVariant());
+        view.put("boardSize", gameState.getBoardSize());
+        view.put("fleet", gameState.getFleet());
+        view.put("phase", phaseOf(gameState));
+        if (gameState.isPlacementPhase()) {
+            view.put("placementDeadline", gameState.getPlacementDeadline());
+            view.put("placementSubmitted", myState.isPlacementSubmitted());
+        }
         if (gameState.getWinnerPlayerId() != null) {
             view.put("winnerPlayerId", gameState.getWinnerPlayerId());
         }
         
         return view;
     }
+    
+    /**
+     * Both boards as a spectator sees them: the shots each has received and its sunk ships,
+     * plus every ship when revealShips is set. Holds no viewer-specific data, so one view per
+     * state version serves every spectator.
+     */
+    public Map<String, Object> createSpectatorView(GameState gameState, boolean revealShips) {
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (PlayerState player : gameState.getPlayers().values()) {
+            Board opponentBoard = gameState.getPlayers().values().stream()
+                    .filter(other -> other != player)
+                    .map(PlayerState::getBoard)
+                    .findFirst()
+                    .orElseThrow();
+            
+            Map<String, Object> attacksReceived = new HashMap<>();
+            attacksReceived.put("hits", List.copyOf(opponentBoard.getAttacksByMeHits()));
+            attacksReceived.put("misses", List.copyOf(opponentBoard.getAttacksByMeMisses()));
+            
+            Map<String, Object> board = new HashMap<>();
+            board.put("attacksReceived", attacksReceived);
+            board.put("sunkShips", player.getBoard().getSunkShips().stream()
+                    .map(ship -> Map.of(
+                            "kind", ship.getKind().name(),
+                            "length", ship.getKind().getLength(),
+                            "cells", List.copyOf(ship.getCells())
+                    ))
+                    .collect(Collectors.toList())
+            );
+            if (revealShips) {
+                board.put("ships", Stream.concat(player.getBoard().getShips().stream(), player.getBoard().getSunkShips().stream())
+                        .map(ship -> Map.of(
+                                "id", ship.getId(),
+                                "kind", ship.getKind().name(),
+                                "cells", List.copyOf(ship.getCells()),
+                                "sunk", ship.isSunk()
+                        ))
+                        .collect(Collectors.toList())
+                );
+            }
+            
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("playerId", player.getPlayerId());
+            entry.put("board", board);
+            players.add(entry);
+        }
+        
+        Map<String, Object> view = new HashMap<>();
+        view.put("players", players);
+        view.put("shipsRevealed", revealShips);
+        view.put("turn", gameState.getTurn());
+        view.put("currentPlayerId", gameState.getCurrentPlayerId());
+        view.put("stateVersion", gameState.getStateVersion());
+        view.put("variant", gameState.getVariant());
+        view.put("boardSize", gameState.getBoardSize());
+        view.put("fleet", List.copyOf(gameState.getFleet()));
+        view.put("phase", phaseOf(gameState));
+        if (gameState.getWinnerPlayerId() != null) {
+            view.put("winnerPlayerId", gameState.getWinnerPlayerId());
+        }
+        return view;
+    }
+    
+    private static GamePhase phaseOf(GameState gameState) {
+        if (gameState.isEnded()) {
+            return GamePhase.ENDED;
+        }
+        return gameState.isPlacementPhase() ? GamePhase.PLACEMENT : GamePhase.BATTLE;
+    }
 }
-
@@ -0,0 +1,209 @@
+package app.battleship.monitoring;
+
+import app.battleship.config.BattleshipProperties;
+import app.battleship.config.TracingConfig;
+import app.battleship.service.GameKeyManager;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.RequestContext;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.SynchronousContextProvider;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingReceiverTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import redis.embedded.RedisServer;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One attack request, wired the way TracingConfig wires the application, must export a single
+ * trace: client traceparent -> HTTP server span -> phase spans -> the Redis and Mongo command
+ * spans run inside each phase, with the STOMP broadcast carrying the broadcast phase's context.
+ * Redis is a real embedded server. No mongod is available to unit tests, so the Mongo listener
+ * TracingConfig installs is driven with the events the driver emits around a command.
+ */
+class ActionTracingTest {
+    
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String CLIENT_SPAN_ID = "00f067aa0ba902b7";
+    
+    private static RedisServer redis;
+    private static int redisPort;
+    
+    private InMemorySpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private ObservationRegistry observationRegistry;
+    private GameMetrics metrics;
+    private ClientResources clientResources;
+    private LettuceConnectionFactory connectionFactory;
+    private GameKeyManager keys;
+    private MongoClientSettings mongoSettings;
+    
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redis = new RedisServer(redisPort);
+        redis.start();
+    }
+    
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redis.stop();
+    }
+    
+    @BeforeEach
+    void setUp() {
+        exporter = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        io.opentelemetry.api.trace.Tracer otelTracer = openTelemetry.getTracer("battleship-test");
+        OtelTracer tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> { });
+        OtelPropagator propagator = new OtelPropagator(openTelemetry.getPropagators(), otelTracer);
+        
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler.FirstMatchingCompositeObservationHandler(
+                new PropagatingReceiverTracingObservationHandler<>(tracer, propagator),
+                new DefaultTracingObservationHandler(tracer)));
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BattleshipProperties properties = new BattleshipProperties();
+        metrics = new GameMetrics(meterRegistry, observationRegistry, tracer, propagator,
+                new ActionLatencySlo(properties, meterRegistry));
+        
+        TracingConfig tracingConfig = new TracingConfig();
+        DefaultClientResources.Builder resources = DefaultClientResources.builder();
+        tracingConfig.redisTracing(observationRegistry).customize(resources);
+        clientResources = resources.build();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisPort),
+                LettuceClientConfiguration.builder().clientResources(clientResources).build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        keys = new GameKeyManager(redisTemplate, properties, meterRegistry);
+        // Connect up front, as the application does at startup, so the handshake isn't in the request
+        redisTemplate.hasKey("warm-up");
+        exporter.reset();
+        
+        MongoClientSettings.Builder mongo = MongoClientSettings.builder();
+        tracingConfig.mongoTracing(observationRegistry).customize(mongo);
+        mongoSettings = mongo.build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        clientResources.shutdown();
+        tracerProvider.close();
+    }
+    
+    @Test
+    void attackIsOneTraceFromHttpThroughStoresToBroadcast() throws Exception {
+        AtomicReference<Map<String, Object>> stompHeaders = new AtomicReference<>();
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                metrics.time("attack", GameMetrics.Phase.LOAD, () -> keys.readState("g1"));
+                metrics.time("attack", GameMetrics.Phase.EVENT_PERSIST, () -> insertEvent("g1"));
+                metrics.time("attack", GameMetrics.Phase.BROADCAST, () -> stompHeaders.set(metrics.traceHeaders()));
+            }
+        };
+        
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/games/g1/action/attack");
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-" + CLIENT_SPAN_ID + "-01");
+        new ServerHttpObservationFilter(observationRegistry)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain(controller));
+        
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getTraceId).containsOnly(TRACE_ID);
+        
+        SpanData http = span(spans, "http post");
+        assertThat(http.getParentSpanId()).isEqualTo(CLIENT_SPAN_ID);
+        SpanData load = span(spans, "attack load");
+        SpanData persist = span(spans, "attack event-persist");
+        SpanData broadcast = span(spans, "attack broadcast");
+        assertThat(List.of(load, persist, broadcast))
+                .extracting(SpanData::getParentSpanId)
+                .containsOnly(http.getSpanId());
+        
+        SpanData redisCommand = span(spans, "hmget");
+        assertThat(redisCommand.getParentSpanId()).isEqualTo(load.getSpanId());
+        SpanData mongoCommand = span(spans, "events.insert");
+        assertThat(mongoCommand.getParentSpanId()).isEqualTo(persist.getSpanId());
+        
+        assertThat(stompHeaders.get())
+                .containsEntry("traceparent", "00-" + TRACE_ID + "-" + broadcast.getSpanId() + "-01");
+    }
+    
+    // What the driver does around one command: capture the request context when the operation
+    // starts, then report the command to the listeners with it
+    private void insertEvent(String gameId) {
+        RequestContext requestContext = ((SynchronousContextProvider) mongoSettings.getContextProvider()).getContext();
+        CommandListener listener = mongoSettings.getCommandListeners().get(0);
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        BsonDocument command = new BsonDocument("insert", new BsonString("events"))
+                .append("$db", new BsonString("battleship"))
+                .append("gameId", new BsonString(gameId));
+        listener.commandStarted(new CommandStartedEvent(requestContext, 1, 1, connection, "battleship", "insert", command));
+        listener.commandSucceeded(new CommandSucceededEvent(requestContext, 1, 1, connection, "battleship", "insert",
+                new BsonDocument("ok", new BsonInt32(1)), 1_000_000));
+    }
+    
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span named " + name + " in "
+                        + spans.stream().map(SpanData::getName).toList()));
+    }
+}
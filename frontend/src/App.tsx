@@ -9,6 +9,8 @@ import Login from './pages/Login';
 import Register from './pages/Register';
 import Rooms from './pages/Rooms';
 import Game from './pages/Game';
+import Spectate from './pages/Spectate';
+import Tournament from './pages/Tournament';
 import './App.css';
 
 function App() {
@@ -36,6 +38,22 @@ function App() {
                   </ProtectedRoute>
                 }
               />
+              <Route
+                path="/spectate/:gameId"
+                element={
+                  <ProtectedRoute>
+                    <Spectate />
+                  </ProtectedRoute>
+                }
+              />
+              <Route
+                path="/tournaments/:tournamentId"
+                element={
+                  <ProtectedRoute>
+                    <Tournament />
+                  </ProtectedRoute>
+                }
+              />
               <Route path="/" element={<Navigate to="/login" replace />} />
             </Routes>
           </div>
@@ -65,6 +65,27 @@ export const gameApi = {
   
   requestSuggestion: (gameId: string) =>
     apiClient.post(`/api/games/${gameId}/suggest`),
+
+  spectate: (gameId: string) =>
+    apiClient.get(`/api/games/${gameId}/spectate`),
+};
+
+// Tournaments API
+export const tournamentsApi = {
+  getTournaments: () =>
+    apiClient.get('/api/tournaments'),
+
+  createTournament: (name: string) =>
+    apiClient.post('/api/tournaments', null, { params: { name } }),
+
+  getTournament: (tournamentId: string) =>
+    apiClient.get(`/api/tournaments/${tournamentId}`),
+
+  joinTournament: (tournamentId: string) =>
+    apiClient.post(`/api/tournaments/${tournamentId}/join`),
+
+  startTournament: (tournamentId: string) =>
+    apiClient.post(`/api/tournaments/${tournamentId}/start`),
 };
 
 
@@ -17,6 +17,7 @@ interface MyBoardProps {
   ships: Ship[];
   hits: Coord[];
   misses: Coord[];
+  boardSize?: number;
   canMove?: boolean;
   onShipMove?: (shipId: string, newPosition: Coord, isHorizontal: boolean) => void;
 }
@@ -33,6 +34,7 @@ interface DragState {
 const arePropsEqual = (prevProps: MyBoardProps, nextProps: MyBoardProps): boolean => {
   // Compare primitive values
   if (prevProps.canMove !== nextProps.canMove) return false;
+  if (prevProps.boardSize !== nextProps.boardSize) return false;
   
   // Compare function references (should be stable with useCallback)
   if (prevProps.onShipMove !== nextProps.onShipMove) return false;
@@ -81,7 +83,7 @@ const arePropsEqual = (prevProps: MyBoardProps, nextProps: MyBoardProps): boolea
   return true;
 };
 
-const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, canMove = false, onShipMove }) => {
+const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, boardSize = 10, canMove = false, onShipMove }) => {
   const [dragState, setDragState] = useState<DragState>({
     shipId: null,
     shipLength: 0,
@@ -100,7 +102,7 @@ const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, canMove = false,
   const validateShipPlacement = useCallback((shipId: string, cells: Coord[]): boolean => {
     // Check bounds
     for (const cell of cells) {
-      if (cell.r < 0 || cell.r >= 10 || cell.c < 0 || cell.c >= 10) {
+      if (cell.r < 0 || cell.r >= boardSize || cell.c < 0 || cell.c >= boardSize) {
         return false;
       }
     }
@@ -119,7 +121,7 @@ const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, canMove = false,
     }
 
     return true;
-  }, [ships]);
+  }, [ships, boardSize]);
 
   // Handle drag start
   const handleDragStart = useCallback((e: React.DragEvent, ship: Ship) => {
@@ -225,7 +227,7 @@ const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, canMove = false,
     const grid: {
       type: string;
       shipId?: string;
-    }[][] = Array(10).fill(null).map(() => Array(10).fill(null).map(() => ({ type: '' })));
+    }[][] = Array(boardSize).fill(null).map(() => Array(boardSize).fill(null).map(() => ({ type: '' })));
 
     // Mark ship positions
     ships.forEach(ship => {
@@ -251,7 +253,7 @@ const MyBoard: React.FC<MyBoardProps> = ({ ships, hits, misses, canMove = false,
     });
 
     return grid;
-  }, [ships, hits, misses]);
+  }, [ships, hits, misses, boardSize]);
 
   // Check if a cell is part of the preview
   const getCellPreviewClass = (r: number, c: number): string => {
@@ -18,6 +18,7 @@ interface OpponentBoardProps {
     misses: Coord[];
   };
   sunkShips: Ship[];
+  boardSize?: number;
   onAttack: (target: Coord) => void;
   disabled: boolean;
 }
@@ -26,6 +27,7 @@ interface OpponentBoardProps {
 const arePropsEqual = (prevProps: OpponentBoardProps, nextProps: OpponentBoardProps): boolean => {
   // Compare primitive values
   if (prevProps.disabled !== nextProps.disabled) return false;
+  if (prevProps.boardSize !== nextProps.boardSize) return false;
   
   // Compare function references (should be stable with useCallback)
   if (prevProps.onAttack !== nextProps.onAttack) return false;
@@ -84,7 +86,7 @@ const arePropsEqual = (prevProps: OpponentBoardProps, nextProps: OpponentBoardPr
   return true;
 };
 
-const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, onAttack, disabled }) => {
+const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, boardSize = 10, onAttack, disabled }) => {
   // Debug: Log received data
   console.log('[OpponentBoard] Render - Full attacksByMe object:', JSON.stringify(attacksByMe, null, 2));
   console.log('[OpponentBoard] Render - Hits array:', attacksByMe?.hits);
@@ -99,7 +101,7 @@ const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, o
   
   const board = useMemo(() => {
     console.log('[OpponentBoard] useMemo - Rebuilding board grid');
-    const grid: string[][] = Array(10).fill(null).map(() => Array(10).fill(''));
+    const grid: string[][] = Array(boardSize).fill(null).map(() => Array(boardSize).fill(''));
     
     let hitCount = 0;
     let missCount = 0;
@@ -109,7 +111,7 @@ const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, o
       console.log('[OpponentBoard] useMemo - Processing hits:', attacksByMe.hits.length);
       attacksByMe.hits.forEach(hit => {
         console.log('[OpponentBoard] useMemo - Marking hit at row:', hit.r, 'col:', hit.c);
-        if (hit.r >= 0 && hit.r < 10 && hit.c >= 0 && hit.c < 10) {
+        if (hit.r >= 0 && hit.r < boardSize && hit.c >= 0 && hit.c < boardSize) {
           grid[hit.r][hit.c] = 'hit';
           hitCount++;
         } else {
@@ -125,7 +127,7 @@ const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, o
       console.log('[OpponentBoard] useMemo - Processing misses:', attacksByMe.misses.length);
       attacksByMe.misses.forEach(miss => {
         console.log('[OpponentBoard] useMemo - Marking miss at row:', miss.r, 'col:', miss.c);
-        if (miss.r >= 0 && miss.r < 10 && miss.c >= 0 && miss.c < 10) {
+        if (miss.r >= 0 && miss.r < boardSize && miss.c >= 0 && miss.c < boardSize) {
           grid[miss.r][miss.c] = 'miss';
           missCount++;
         } else {
@@ -144,7 +146,7 @@ const OpponentBoard: React.FC<OpponentBoardProps> = ({ attacksByMe, sunkShips, o
     });
     
     return grid;
-  }, [attacksByMe]);
+  }, [attacksByMe, boardSize]);
 
   const handleCellClick = (r: number, c: number) => {
     if (disabled) {
@@ -130,9 +130,10 @@ const Game: React.FC = () => {
           dispatch(setYourView(response.data.yourView));
           
           console.log('[Game] ============ VIEW UPDATED ============');
-        } else {
+        } else if (!response.data.viewDeferred) {
           console.error('[Game] ❌ No yourView in response!');
         }
+        // A deferred view (server under load) arrives through the STATE_UPDATED reload
       }
     } catch (error: any) {
       console.error('[Game] ============ ATTACK ERROR ============');
@@ -149,7 +150,7 @@ const Game: React.FC = () => {
       await gameApi.requestSuggestion(gameId);
       toast.info('Requesting AI suggestion...');
     } catch (error: any) {
-      toast.error('Failed to request suggestion');
+      toast.error(error.response?.data?.error || 'Failed to request suggestion');
     }
   }, [gameId]);
 
@@ -239,6 +240,7 @@ const Game: React.FC = () => {
             ships={yourView.me.board.ships}
             hits={yourView.me.board.hits}
             misses={yourView.me.board.misses}
+            boardSize={yourView.boardSize}
             canMove={isMyTurn && actionMode === 'move' && !yourView.winnerPlayerId}
             onShipMove={handleShipMove}
           />
@@ -249,6 +251,7 @@ const Game: React.FC = () => {
           <OpponentBoard
             attacksByMe={yourView.opponent.revealed.attacksByMe}
             sunkShips={yourView.opponent.revealed.sunkShips}
+            boardSize={yourView.boardSize}
             onAttack={handleAttack}
             disabled={!isMyTurn || yourView.winnerPlayerId !== undefined || actionMode === 'move'}
           />
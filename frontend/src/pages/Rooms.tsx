@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useDispatch, useSelector } from 'react-redux';
-import { roomsApi, authApi } from '../api/client';
+import { roomsApi, authApi, tournamentsApi } from '../api/client';
 import { setRooms, setLoading } from '../store/slices/roomsSlice';
 import { clearAuth } from '../store/slices/authSlice';
 import { setGameId } from '../store/slices/gameSlice';
@@ -16,6 +16,7 @@ const Rooms: React.FC = () => {
   const { list: rooms, loading } = useSelector((state: RootState) => state.rooms);
   const auth = useSelector((state: RootState) => state.auth);
   const [subscribedRoom, setSubscribedRoom] = useState<string | null>(null);
+  const [tournaments, setTournaments] = useState<any[]>([]);
   const ws = useWebSocket();
 
   useEffect(() => {
@@ -30,11 +31,24 @@ const Rooms: React.FC = () => {
     try {
       const response = await roomsApi.getRooms();
       dispatch(setRooms(response.data));
+      const tournamentsResponse = await tournamentsApi.getTournaments();
+      setTournaments(tournamentsResponse.data);
     } catch (error: any) {
       console.error('Failed to load rooms:', error);
     }
   };
 
+  const handleCreateTournament = async () => {
+    const name = window.prompt('Tournament name');
+    if (name === null) return;
+    try {
+      const response = await tournamentsApi.createTournament(name);
+      navigate(`/tournaments/${response.data.tournamentId}`);
+    } catch (error: any) {
+      toast.error(error.response?.data?.error || 'Failed to create tournament');
+    }
+  };
+
   const handleCreateRoom = async () => {
     dispatch(setLoading(true));
     try {
@@ -127,6 +141,9 @@ const Rooms: React.FC = () => {
         <button onClick={handleCreateRoom} className="btn-primary" disabled={loading}>
           Create New Room
         </button>
+        <button onClick={handleCreateTournament} className="btn-secondary">
+          Create Tournament
+        </button>
         <button onClick={loadRooms} className="btn-secondary">
           Refresh
         </button>
@@ -155,6 +172,27 @@ const Rooms: React.FC = () => {
           </div>
         )}
       </div>
+
+      {tournaments.length > 0 && (
+        <div className="rooms-list">
+          <h2>Tournaments</h2>
+          <div className="rooms-grid">
+            {tournaments.map((tournament) => (
+              <div key={tournament.id} className="room-card">
+                <h3>{tournament.name}</h3>
+                <p>Players: {tournament.playerIds.length}/{tournament.maxPlayers}</p>
+                <p>Status: {tournament.status}</p>
+                <button
+                  onClick={() => navigate(`/tournaments/${tournament.id}`)}
+                  className="btn-primary"
+                >
+                  Open
+                </button>
+              </div>
+            ))}
+          </div>
+        </div>
+      )}
     </div>
   );
 };
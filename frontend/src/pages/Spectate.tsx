@@ -0,0 +1,98 @@
+import React, { useEffect, useState, useCallback } from 'react';
+import { useParams, useNavigate } from 'react-router-dom';
+import { useSelector } from 'react-redux';
+import { gameApi } from '../api/client';
+import type { RootState } from '../store';
+import { toast } from 'react-toastify';
+import { useWebSocket } from '../hooks/useWebSocket';
+import MyBoard from '../components/MyBoard';
+import OpponentBoard from '../components/OpponentBoard';
+import './Game.css';
+
+// Spectator frames: both boards, with every ship only once the server is far enough behind
+const Spectate: React.FC = () => {
+  const { gameId } = useParams<{ gameId: string }>();
+  const navigate = useNavigate();
+  const { wsConnected } = useSelector((state: RootState) => state.connection);
+  const ws = useWebSocket();
+  const [frame, setFrame] = useState<any>(null);
+
+  const applyFrame = useCallback((next: any) => {
+    // Frames can race the initial read; never step back to an older state
+    setFrame((current: any) =>
+      current && current.payload.stateVersion > next.payload.stateVersion ? current : next);
+  }, []);
+
+  useEffect(() => {
+    if (!gameId) return;
+
+    ws.connect();
+    gameApi.spectate(gameId)
+      .then((response) => applyFrame(response.data))
+      .catch((error: any) => {
+        toast.error(error.response?.data?.error || 'Failed to spectate game');
+        navigate('/rooms');
+      });
+  }, [gameId]);
+
+  useEffect(() => {
+    if (gameId && wsConnected) {
+      const subscription = ws.subscribe(`/topic/games/${gameId}/spectate`, applyFrame);
+      return () => subscription?.unsubscribe();
+    }
+  }, [gameId, wsConnected]);
+
+  if (!frame) {
+    return <div className="loading">Loading game...</div>;
+  }
+
+  const view = frame.payload;
+
+  return (
+    <div className="game-container">
+      <div className="game-header">
+        <h1>Spectating</h1>
+        <div className="game-status">
+          <span>Turn: {view.turn}</span>
+          {frame.turnsBehind > 0 && <span>{frame.turnsBehind} turns behind live</span>}
+          {!view.shipsRevealed && <span>Fleets hidden</span>}
+        </div>
+      </div>
+
+      {view.winnerPlayerId && (
+        <div className="game-over">
+          <h2>Winner: {view.winnerPlayerId}</h2>
+        </div>
+      )}
+
+      <div className="game-boards">
+        {view.players.map((player: any) => (
+          <div className="board-section" key={player.playerId}>
+            <h2>
+              {player.playerId}
+              {player.playerId === view.currentPlayerId && !view.winnerPlayerId ? ' 🎯' : ''}
+            </h2>
+            {view.shipsRevealed ? (
+              <MyBoard
+                ships={player.board.ships}
+                hits={player.board.attacksReceived.hits}
+                misses={player.board.attacksReceived.misses}
+                boardSize={view.boardSize}
+              />
+            ) : (
+              <OpponentBoard
+                attacksByMe={player.board.attacksReceived}
+                sunkShips={player.board.sunkShips}
+                boardSize={view.boardSize}
+                onAttack={() => {}}
+                disabled
+              />
+            )}
+          </div>
+        ))}
+      </div>
+    </div>
+  );
+};
+
+export default Spectate;
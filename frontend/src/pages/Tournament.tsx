@@ -0,0 +1,136 @@
+import React, { useEffect, useState, useCallback } from 'react';
+import { useParams, useNavigate } from 'react-router-dom';
+import { useDispatch, useSelector } from 'react-redux';
+import { tournamentsApi } from '../api/client';
+import { setGameId } from '../store/slices/gameSlice';
+import type { RootState } from '../store';
+import { toast } from 'react-toastify';
+import { useWebSocket } from '../hooks/useWebSocket';
+import './Rooms.css';
+
+// Bracket of one tournament; jumps into the player's game as soon as their round starts
+const Tournament: React.FC = () => {
+  const { tournamentId } = useParams<{ tournamentId: string }>();
+  const navigate = useNavigate();
+  const dispatch = useDispatch();
+  const { userId } = useSelector((state: RootState) => state.auth);
+  const { wsConnected } = useSelector((state: RootState) => state.connection);
+  const ws = useWebSocket();
+  const [bracket, setBracket] = useState<any>(null);
+
+  const loadBracket = useCallback(async () => {
+    if (!tournamentId) return;
+    try {
+      const response = await tournamentsApi.getTournament(tournamentId);
+      setBracket(response.data);
+    } catch (error: any) {
+      toast.error(error.response?.data?.error || 'Failed to load tournament');
+      navigate('/rooms');
+    }
+  }, [tournamentId]);
+
+  const playGame = (gameId: string) => {
+    dispatch(setGameId(gameId));
+    navigate(`/game/${gameId}`);
+  };
+
+  useEffect(() => {
+    ws.connect();
+    loadBracket();
+  }, [tournamentId]);
+
+  useEffect(() => {
+    if (tournamentId && wsConnected) {
+      const subscription = ws.subscribe(`/topic/tournaments/${tournamentId}`, (message: any) => {
+        if (message.type === 'ROUND_STARTED') {
+          const mine = message.matches.find((match: any) => match.playerIds.includes(userId));
+          if (mine) {
+            toast.success(`Round ${message.round} started!`);
+            playGame(mine.gameId);
+            return;
+          }
+        } else if (message.type === 'TOURNAMENT_ENDED') {
+          toast.info(`Tournament won by ${message.winnerPlayerId}`);
+        }
+        loadBracket();
+      });
+      return () => subscription?.unsubscribe();
+    }
+  }, [tournamentId, wsConnected, userId]);
+
+  const handleAction = async (action: 'join' | 'start') => {
+    if (!tournamentId) return;
+    try {
+      if (action === 'join') {
+        await tournamentsApi.joinTournament(tournamentId);
+        toast.success('Registered!');
+      } else {
+        await tournamentsApi.startTournament(tournamentId);
+      }
+      await loadBracket();
+    } catch (error: any) {
+      toast.error(error.response?.data?.error || `Failed to ${action} tournament`);
+    }
+  };
+
+  if (!bracket) {
+    return <div className="loading">Loading tournament...</div>;
+  }
+
+  const tournament = bracket.tournament;
+  const registered = tournament.playerIds.includes(userId);
+
+  return (
+    <div className="rooms-container">
+      <div className="rooms-header">
+        <h1>{tournament.name}</h1>
+        <div className="user-info">
+          <span>{tournament.status}</span>
+          <button onClick={() => navigate('/rooms')} className="btn-secondary">Back</button>
+        </div>
+      </div>
+
+      {tournament.status === 'REGISTERING' && (
+        <div className="rooms-actions">
+          <button onClick={() => handleAction('join')} className="btn-primary" disabled={registered}>
+            {registered ? 'Registered' : 'Join Tournament'}
+          </button>
+          {tournament.createdBy === userId && (
+            <button onClick={() => handleAction('start')} className="btn-secondary">
+              Start ({tournament.playerIds.length} players)
+            </button>
+          )}
+        </div>
+      )}
+
+      {tournament.winnerPlayerId && <h2>Winner: {tournament.winnerPlayerId}</h2>}
+
+      {bracket.rounds.map((matches: any[], index: number) => (
+        <div className="rooms-list" key={index}>
+          <h2>Round {index + 1}</h2>
+          <div className="rooms-grid">
+            {matches.map((match: any) => (
+              <div key={match.id} className="room-card">
+                {match.playerIds.map((playerId: string) => (
+                  <p key={playerId}>
+                    {playerId === match.winnerPlayerId ? '🏆 ' : ''}{playerId}
+                  </p>
+                ))}
+                {match.playerIds.length < 2 && <p>Bye</p>}
+                {match.status === 'ACTIVE' && (
+                  match.playerIds.includes(userId) ? (
+                    <button onClick={() => playGame(match.gameId)} className="btn-primary">Play</button>
+                  ) : (
+                    <button onClick={() => navigate(`/spectate/${match.gameId}`)} className="btn-secondary">Watch</button>
+                  )
+                )}
+              </div>
+            ))}
+          </div>
+        </div>
+      ))}
+    </div>
+  );
+};
+
+export default Tournament;
@@ -37,6 +37,7 @@ interface YourView {
   turn: number;
   currentPlayerId: string;
   stateVersion: number;
+  boardSize: number;
   winnerPlayerId?: string;
 }
 
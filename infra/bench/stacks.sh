@@ -0,0 +1,79 @@
+#!/bin/bash
+#
+# Compare the game API's execution stacks under many concurrent connections:
+#   platform - blocking controllers on Tomcat's platform thread pool
+#   virtual  - blocking controllers on virtual threads (VIRTUAL_THREADS_ENABLED)
+#   reactive - Mono controllers over reactive Redis/Mongo (the "reactive" profile)
+#
+# Starts the backend once per stack against the dev Redis/Mongo (infra/docker-compose.dev.yml),
+# with Tomcat's platform pool deliberately small, sets up one game between two fresh users and
+# drives GET /api/games/{gameId} (a Redis read per request) with `hey` at a connection count well
+# above that pool. With platform threads throughput flattens at roughly pool size / latency and
+# p99 grows with the queue; the other two should keep scaling with connections.
+#
+# Usage: infra/bench/stacks.sh [connections] [duration] [stacks...]
+
+set -euo pipefail
+
+CONNECTIONS=${1:-2000}
+DURATION=${2:-30s}
+shift $(( $# < 2 ? $# : 2 ))
+STACKS=${*:-platform virtual reactive}
+PORT=${BENCH_PORT:-18080}
+TOMCAT_THREADS=${TOMCAT_THREADS:-50}
+BASE="http://localhost:$PORT"
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+JAR=$(ls "$ROOT"/backend/target/backend-*.jar 2>/dev/null | head -1 || true)
+
+command -v hey >/dev/null || { echo "hey is required: go install github.com/rakyll/hey@latest"; exit 1; }
+
+if [ -z "$JAR" ]; then
+    (cd "$ROOT/backend" && mvn -B -q -DskipTests package)
+    JAR=$(ls "$ROOT"/backend/target/backend-*.jar | head -1)
+fi
+
+# Registers a fresh user and prints its jwt cookie value
+login() {
+    local email="bench-$RANDOM$RANDOM@example.com"
+    curl -sf -o /dev/null -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$email\",\"password\":\"benchmark\"}" "$BASE/auth/register"
+    curl -sf -c - -o /dev/null -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$email\",\"password\":\"benchmark\"}" "$BASE/auth/login" \
+        | awk '$6 == "jwt" { print $7 }'
+}
+
+run_stack() {
+    local stack=$1
+    local virtual=false profile=default
+    case $stack in
+        virtual) virtual=true ;;
+        reactive) profile=reactive ;;
+    esac
+    
+    VIRTUAL_THREADS_ENABLED=$virtual SPRING_PROFILES_ACTIVE=$profile SERVER_PORT=$PORT \
+        java -Dserver.tomcat.threads.max="$TOMCAT_THREADS" -jar "$JAR" >"/tmp/battleship-bench-$stack.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" RETURN
+    
+    for _ in $(seq 1 60); do
+        curl -sf "$BASE/api/health" >/dev/null && break
+        sleep 1
+    done
+    
+    local host guest room game
+    host=$(login)
+    guest=$(login)
+    room=$(curl -sf -X POST -b "jwt=$host" "$BASE/api/rooms" | sed -E 's/.*"roomId":"([^"]+)".*/\1/')
+    game=$(curl -sf -X POST -b "jwt=$guest" "$BASE/api/rooms/$room/join" | sed -E 's/.*"gameId":"([^"]+)".*/\1/')
+    
+    # Warm up the JIT and connection pools before measuring
+    hey -z 5s -c 50 -H "Cookie: jwt=$host" "$BASE/api/games/$game" >/dev/null
+    
+    echo "=== $stack (tomcat threads: $TOMCAT_THREADS, connections: $CONNECTIONS) ==="
+    hey -z "$DURATION" -c "$CONNECTIONS" -H "Cookie: jwt=$host" "$BASE/api/games/$game" \
+        | grep -E 'Requests/sec|Average|99%|\[[0-9]+\]'
+}
+
+for stack in $STACKS; do
+    run_stack "$stack"
+done